@@ -1,6 +1,8 @@
 plugins {
     id("java-library")
     id("com.gradleup.shadow") version "9.3.1"
+    // Microbenchmarks under src/jmh; run with ./gradlew jmh
+    id("me.champeau.jmh") version "0.7.3"
 }
 
 val pluginGroup: String by project
@@ -44,9 +46,19 @@ dependencies {
     // Test dependencies
     testImplementation("org.junit.jupiter:junit-jupiter:5.10.0")
     testRuntimeOnly("org.junit.platform:junit-platform-launcher")
+    // compileOnly is not on the test classpath, and the storage classes log through HytaleLogger
+    testImplementation("com.hypixel.hytale:Server:2026.01.22-6f8bdbdc4")
+    // Storage contract tests: H2 stands in for MySQL, the containers are the real servers
+    testImplementation("com.h2database:h2:2.2.224")
+    testImplementation("org.testcontainers:junit-jupiter:1.20.4")
+    testImplementation("org.testcontainers:mysql:1.20.4")
+    testImplementation("org.testcontainers:postgresql:1.20.4")
 
     // Storage
     implementation("org.xerial:sqlite-jdbc:3.46.0.0")
+    implementation("com.zaxxer:HikariCP:5.1.0")
+    implementation("com.mysql:mysql-connector-j:8.4.0")
+    implementation("org.postgresql:postgresql:42.7.4")
     implementation("org.slf4j:slf4j-nop:2.0.12")
 }
 
@@ -86,6 +98,7 @@ tasks {
         
         // Relocate dependencies to avoid conflicts
         relocate("com.google.gson", "com.example.basicplugin.libs.gson")
+        relocate("com.zaxxer.hikari", "com.example.basicplugin.libs.hikari")
 
     }
     
@@ -107,6 +120,13 @@ tasks {
     }
 }
 
+jmh {
+    jmhVersion.set("1.37")
+    fork.set(1)
+    warmupIterations.set(3)
+    iterations.set(5)
+}
+
 // Configure Java toolchain
 java {
     toolchain {
@@ -0,0 +1,135 @@
+package me.almana.moderationplus.core.event;
+
+import me.almana.moderationplus.api.event.Cancellable;
+import me.almana.moderationplus.api.event.EventPriority;
+import me.almana.moderationplus.api.event.ModEvent;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+/**
+ * Synchronous dispatch of one event through SyncEventBus, which walks a cached priority-sorted
+ * array, against the bus it replaced, which copied and sorted the listener list on every event.
+ * Both run the same listeners; timing is off so only dispatch itself is measured.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class DispatchBenchmark {
+
+    public static class PingEvent implements ModEvent, Cancellable {
+        private boolean cancelled;
+
+        @Override
+        public boolean isCancelled() {
+            return cancelled;
+        }
+
+        @Override
+        public void setCancelled(boolean cancelled) {
+            this.cancelled = cancelled;
+        }
+    }
+
+    @Param({ "1", "8", "32" })
+    int listeners;
+
+    private SyncEventBus cached;
+    private CopyAndSortBus baseline;
+    private final PingEvent event = new PingEvent();
+    private long sink;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        cached = new SyncEventBus();
+        cached.configureTiming(false, 0);
+        baseline = new CopyAndSortBus();
+        EventPriority[] priorities = EventPriority.values();
+        for (int i = 0; i < listeners; i++) {
+            // Spread over the non-monitor priorities so the baseline's sort has work to do
+            EventPriority priority = priorities[i % (priorities.length - 1)];
+            int weight = i;
+            Consumer<PingEvent> listener = e -> sink += weight;
+            cached.register(PingEvent.class, priority, listener);
+            baseline.register(PingEvent.class, priority, listener);
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        cached.shutdown();
+    }
+
+    @Benchmark
+    public void cachedArray(Blackhole bh) {
+        cached.dispatch(event);
+        bh.consume(sink);
+    }
+
+    @Benchmark
+    public void copyAndSort(Blackhole bh) {
+        baseline.dispatch(event);
+        bh.consume(sink);
+    }
+
+    // The dispatch loop as it was before listener arrays were cached
+    static final class CopyAndSortBus {
+
+        private record Registered(EventPriority priority, Consumer<?> listener) {
+        }
+
+        private final Map<Class<? extends ModEvent>, List<Registered>> listeners = new ConcurrentHashMap<>();
+
+        <T extends ModEvent> void register(Class<T> type, EventPriority priority, Consumer<T> listener) {
+            listeners.computeIfAbsent(type, k -> Collections.synchronizedList(new ArrayList<>()))
+                    .add(new Registered(priority, listener));
+        }
+
+        @SuppressWarnings("unchecked")
+        void dispatch(ModEvent event) {
+            List<Registered> eventListeners = listeners.get(event.getClass());
+            if (eventListeners == null) {
+                return;
+            }
+            List<Registered> sorted;
+            synchronized (eventListeners) {
+                sorted = new ArrayList<>(eventListeners);
+            }
+            sorted.sort((a, b) -> Integer.compare(a.priority.getSlot(), b.priority.getSlot()));
+
+            for (Registered reg : sorted) {
+                if (event instanceof Cancellable cancellable && cancellable.isCancelled()
+                        && reg.priority != EventPriority.MONITOR) {
+                    continue;
+                }
+                try {
+                    if (reg.priority == EventPriority.MONITOR && event instanceof Cancellable cancellable) {
+                        boolean wasCancelled = cancellable.isCancelled();
+                        ((Consumer<ModEvent>) reg.listener).accept(event);
+                        cancellable.setCancelled(wasCancelled);
+                    } else {
+                        ((Consumer<ModEvent>) reg.listener).accept(event);
+                    }
+                } catch (Exception e) {
+                    throw new IllegalStateException(e);
+                }
+            }
+        }
+    }
+}
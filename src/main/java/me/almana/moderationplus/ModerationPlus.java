@@ -32,6 +32,9 @@ import me.almana.moderationplus.commands.*;
 import me.almana.moderationplus.component.FrozenComponent;
 import me.almana.moderationplus.component.JailedComponent;
 import me.almana.moderationplus.config.ConfigManager;
+import me.almana.moderationplus.core.expiry.PunishmentExpiryScheduler;
+import me.almana.moderationplus.core.concurrent.ModerationExecutor;
+import me.almana.moderationplus.core.metrics.MetricsRegistry;
 import me.almana.moderationplus.core.audit.CoreAuditService;
 import me.almana.moderationplus.core.chat.DefaultChatChannel;
 import me.almana.moderationplus.core.chat.DefaultStaffChatDelivery;
@@ -42,7 +45,9 @@ import me.almana.moderationplus.i18n.LanguageManager;
 import me.almana.moderationplus.provider.VanishedPlayerIconMarkerProvider;
 import me.almana.moderationplus.service.ModerationService;
 import me.almana.moderationplus.snapshot.VanishedPlayerSnapshot;
+import me.almana.moderationplus.storage.DatabaseBackupService;
 import me.almana.moderationplus.storage.Punishment;
+import me.almana.moderationplus.storage.PunishmentArchiver;
 import me.almana.moderationplus.storage.StorageManager;
 import me.almana.moderationplus.system.PlayerFreezeSystem;
 import me.almana.moderationplus.system.VanishSnapshotSystem;
@@ -65,12 +70,24 @@ public class ModerationPlus extends JavaPlugin {
     private final StorageManager storageManager;
 
     private final EventBus eventBus;
+    private final MetricsRegistry metrics;
+    private final ModerationExecutor executor;
+    private final PunishmentExpiryScheduler expiryScheduler;
+    private final PunishmentArchiver archiver;
+    private final DatabaseBackupService backupService;
 
     public ModerationPlus(@Nonnull JavaPluginInit init) {
         super(init);
         this.eventBus = new SyncEventBus();
-        this.storageManager = new StorageManager();
         this.configManager = new ConfigManager();
+        this.metrics = new MetricsRegistry();
+        this.metrics.gauge("events.async_dropped", ((SyncEventBus) eventBus)::droppedAsyncEvents);
+        this.executor = new ModerationExecutor(configManager, metrics);
+        this.storageManager = new StorageManager(configManager, metrics);
+        this.expiryScheduler = new PunishmentExpiryScheduler(this);
+        this.storageManager.getActivePunishmentIndex().setAddListener(expiryScheduler::schedule);
+        this.archiver = new PunishmentArchiver(this);
+        this.backupService = new DatabaseBackupService(this);
         this.moderationService = new ModerationService(this);
         this.chatChannelRegistry = new SimpleChatChannelRegistry();
         this.chatChannelRegistry.register(new DefaultChatChannel("staff", "mod.staff.chat", "[SC] %s: %s"));
@@ -84,6 +101,15 @@ public class ModerationPlus extends JavaPlugin {
         return eventBus;
     }
 
+    public MetricsRegistry getMetrics() {
+        return metrics;
+    }
+
+    // Runs blocking plugin work; never the common pool
+    public ModerationExecutor getExecutor() {
+        return executor;
+    }
+
     public ChatChannelRegistry getChatChannelRegistry() {
         return chatChannelRegistry;
     }
@@ -112,7 +138,12 @@ public class ModerationPlus extends JavaPlugin {
     protected void setup() {
         super.setup();
         storageManager.init();
+        expiryScheduler.start();
+        archiver.start();
+        backupService.start();
         configManager.saveConfig();
+        ((SyncEventBus) eventBus).configureTiming(configManager.isEventTimingEnabled(),
+                configManager.getEventSlowListenerMillis());
         
         // Initialize language system
         String defaultLocale = configManager.getLanguageDefaultLocale();
@@ -180,15 +211,18 @@ public class ModerationPlus extends JavaPlugin {
                 future -> future.thenApply(listeners::onPlayerChat)
                         );
 
-        long flushInterval = configManager.getDatabaseFlushIntervalSeconds();
-        HytaleServer.SCHEDULED_EXECUTOR.scheduleAtFixedRate(() -> {
-            try {
-                storageManager.flush();
-            } catch (Exception e) {
-                logger.at(Level.SEVERE).withCause(e).log("Error in scheduled database flush");
-            }
-        }, flushInterval, flushInterval, TimeUnit.SECONDS);
-        logger.at(Level.INFO).log("Database auto-flush scheduled every %d seconds", flushInterval);
+        if (storageManager.isShared()) {
+            // Other servers write to the same database; pick up their bans, mutes and unbans
+            long syncInterval = configManager.getDatabaseSyncIntervalSeconds();
+            HytaleServer.SCHEDULED_EXECUTOR.scheduleAtFixedRate(() -> executor.run(() -> {
+                try {
+                    storageManager.syncActivePunishments();
+                } catch (Exception e) {
+                    logger.at(Level.SEVERE).withCause(e).log("Error syncing active punishments");
+                }
+            }), syncInterval, syncInterval, TimeUnit.SECONDS);
+            logger.at(Level.INFO).log("Active punishment sync scheduled every %d seconds", syncInterval);
+        }
 
         logger.at(Level.INFO).log("ModerationPlus has been enabled!");
 
@@ -220,6 +254,11 @@ public class ModerationPlus extends JavaPlugin {
         if (webPanelPollingService != null) {
             webPanelPollingService.stop();
         }
+        expiryScheduler.stop();
+        archiver.stop();
+        backupService.stop();
+        ((SyncEventBus) eventBus).shutdown();
+        executor.shutdown();
         if (storageManager != null) {
             storageManager.close();
         }
@@ -1,5 +1,6 @@
 package me.almana.moderationplus.api.event;
 
+import java.lang.invoke.MethodHandles;
 import java.util.function.Consumer;
 
 public interface EventBus {
@@ -10,5 +11,34 @@ public interface EventBus {
         register(type, EventPriority.NORMAL, listener);
     }
 
+    /**
+     * Registers an observer that runs off the main thread after all synchronous listeners.
+     * It sees every event, cancelled or not, and events of one type arrive in dispatch order.
+     * Use it for logging, audit and external sync; it cannot cancel or modify the event.
+     */
+    <T extends ModEvent> void registerAsync(Class<T> type, Consumer<T> listener);
+
+    /**
+     * Registers every {@link Subscribe} method declared on the listener's class and its superclasses.
+     */
+    void subscribe(Object listener);
+
+    /**
+     * Like {@link #subscribe(Object)}, but reaches the methods through the caller's lookup.
+     * Pass {@code MethodHandles.lookup()} from the listener's class when the bus cannot open it
+     * on its own, such as a class in a named module that does not open its package.
+     */
+    void subscribe(Object listener, MethodHandles.Lookup lookup);
+
+    /**
+     * Removes every listener registered through {@link #subscribe(Object)} for this owner.
+     */
+    void unsubscribe(Object listener);
+
+    /**
+     * Whether dispatching this type would run any synchronous listener.
+     */
+    boolean hasSyncListeners(Class<? extends ModEvent> type);
+
     void dispatch(ModEvent event);
 }
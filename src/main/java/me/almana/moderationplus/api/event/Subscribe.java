@@ -0,0 +1,26 @@
+package me.almana.moderationplus.api.event;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Marks a method as an event listener for {@link EventBus#subscribe(Object)}.
+ * The method must return void and take a single {@link ModEvent} parameter, which is the
+ * event type it listens to. Static and private methods are allowed.
+ */
+@Documented
+@Retention(RetentionPolicy.RUNTIME)
+@Target(ElementType.METHOD)
+public @interface Subscribe {
+    EventPriority priority() default EventPriority.NORMAL;
+
+    boolean ignoreCancelled() default false;
+
+    /**
+     * Registers through {@link EventBus#registerAsync}; priority and ignoreCancelled are ignored.
+     */
+    boolean async() default false;
+}
@@ -34,7 +34,7 @@ public class FirstJoinCommand extends AbstractCommand {
     public CompletableFuture<Void> execute(CommandContext ctx) {
         String targetName = ctx.get(playerArg);
 
-        return CompletableFuture.runAsync(() -> {
+        return plugin.getExecutor().run(() -> {
             StorageManager.PlayerData data = null;
             String currentLocale = plugin.getLanguageManager().getDefaultLocale(); // Default fallback
 
@@ -23,7 +23,7 @@ public class FlushCommand extends AbstractCommand {
 
         ctx.sendMessage(plugin.getLanguageManager().translateToMessage("command.flush.start", null));
 
-        return CompletableFuture.runAsync(() -> {
+        return plugin.getExecutor().run(() -> {
             try {
                 plugin.getStorageManager().flush();
                 ctx.sendMessage(plugin.getLanguageManager().translateToMessage("command.flush.success", null));
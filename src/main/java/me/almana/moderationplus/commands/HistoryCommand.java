@@ -5,6 +5,7 @@ import com.hypixel.hytale.server.core.Message;
 import com.hypixel.hytale.server.core.command.system.AbstractCommand;
 import com.hypixel.hytale.server.core.command.system.CommandContext;
 
+import com.hypixel.hytale.server.core.command.system.arguments.system.OptionalArg;
 import com.hypixel.hytale.server.core.command.system.arguments.system.RequiredArg;
 import com.hypixel.hytale.server.core.command.system.arguments.types.ArgTypes;
 import com.hypixel.hytale.server.core.command.system.arguments.types.ArgumentType;
@@ -13,11 +14,11 @@ import com.hypixel.hytale.server.core.universe.PlayerRef;
 import com.hypixel.hytale.server.core.universe.Universe;
 
 import me.almana.moderationplus.ModerationPlus;
+import me.almana.moderationplus.storage.Page;
 import me.almana.moderationplus.storage.Punishment;
 import me.almana.moderationplus.storage.StorageManager.PlayerData;
 import me.almana.moderationplus.utils.TimeUtils;
 import java.util.UUID;
-import java.util.List;
 import java.util.concurrent.CompletableFuture;
 import java.time.Instant;
 import java.time.ZoneId;
@@ -27,6 +28,8 @@ public class HistoryCommand extends AbstractCommand {
 
     private final ModerationPlus plugin;
     private final RequiredArg<String> playerArg;
+    private final OptionalArg<Integer> pageArg;
+    private static final int PAGE_SIZE = 10;
     private static final DateTimeFormatter DATE_FORMATTER = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm")
             .withZone(ZoneId.systemDefault());
 
@@ -35,82 +38,98 @@ public class HistoryCommand extends AbstractCommand {
         this.plugin = plugin;
         this.requirePermission("moderation.history");
         this.playerArg = withRequiredArg("player", "Player name", (ArgumentType<String>) ArgTypes.STRING);
+        this.pageArg = withOptionalArg("page", "Page number", (ArgumentType<Integer>) ArgTypes.INTEGER);
     }
 
     @Override
     public CompletableFuture<Void> execute(CommandContext ctx) {
 
         String targetName = ctx.get(playerArg);
+        int page = pageArg.provided(ctx) ? ctx.get(pageArg) : 1;
+        UUID senderUuid = (ctx.sender() instanceof Player) ? ctx.sender().getUuid() : null;
 
+        // Database reads stay off the command thread
+        return plugin.getExecutor().run(() -> {
+            UUID targetUuid = plugin.getStorageManager().getUuidByUsername(targetName);
+            if (targetUuid == null) {
+                ctx.sendMessage(plugin.getLanguageManager().translateToMessage(
+                    "command.history.player_not_found",
+                    senderUuid,
+                    java.util.Map.of("player", targetName)
+                ));
+                return;
+            }
 
+            String resolvedName = targetName;
+            PlayerRef ref = Universe.get().getPlayer(targetUuid);
+            if (ref != null && ref.isValid()) {
+                resolvedName = ref.getUsername();
+            }
 
-        UUID targetUuid = plugin.getStorageManager().getUuidByUsername(targetName);
-        if (targetUuid == null) {
-            ctx.sendMessage(plugin.getLanguageManager().translateToMessage(
-                "command.history.player_not_found",
-                (ctx.sender() instanceof Player) ? ctx.sender().getUuid() : null,
-                java.util.Map.of("player", targetName)
-            ));
-            return CompletableFuture.completedFuture(null);
-        }
-
-        String resolvedName = targetName;
-        PlayerRef ref = Universe.get().getPlayer(targetUuid);
-        if (ref != null && ref.isValid()) {
-            resolvedName = ref.getUsername();
-        }
+            try {
+                PlayerData playerData = plugin.getStorageManager().getPlayerByUUID(targetUuid);
+                int total = playerData != null ? plugin.getStorageManager().countPunishments(playerData.id()) : 0;
+                if (total == 0) {
+                    ctx.sendMessage(plugin.getLanguageManager().translateToMessage(
+                        "command.history.none",
+                        senderUuid,
+                        java.util.Map.of("player", resolvedName)
+                    ));
+                    return;
+                }
+
+                int pages = (total + PAGE_SIZE - 1) / PAGE_SIZE;
+                if (page < 1 || page > pages) {
+                    ctx.sendMessage(plugin.getLanguageManager().translateToMessage(
+                        "command.history.page_out_of_range",
+                        senderUuid,
+                        java.util.Map.of("page", String.valueOf(page), "pages", String.valueOf(pages))
+                    ));
+                    return;
+                }
+
+                // Newest first; earlier pages are skipped on the index, then one keyset page is read
+                Page.Cursor start = plugin.getStorageManager().findPunishmentCursor(playerData.id(), (page - 1) * PAGE_SIZE);
+                Page<Punishment> result = plugin.getStorageManager().getPunishmentPage(playerData.id(), start, PAGE_SIZE);
 
-        try {
-            PlayerData playerData = plugin.getStorageManager().getPlayerByUUID(targetUuid);
-            if (playerData == null) {
                 ctx.sendMessage(plugin.getLanguageManager().translateToMessage(
-                    "command.history.none",
-                    (ctx.sender() instanceof Player) ? ctx.sender().getUuid() : null,
+                    "command.history.header",
+                    senderUuid,
                     java.util.Map.of("player", resolvedName)
                 ));
-                return CompletableFuture.completedFuture(null);
-            }
-
-            List<Punishment> punishments = plugin.getStorageManager().getPunishmentsForPlayer(playerData.id());
-            if (punishments.isEmpty()) {
                 ctx.sendMessage(plugin.getLanguageManager().translateToMessage(
-                    "command.history.none",
-                    (ctx.sender() instanceof Player) ? ctx.sender().getUuid() : null,
-                    java.util.Map.of("player", resolvedName)
+                    "command.history.page",
+                    senderUuid,
+                    java.util.Map.of("page", String.valueOf(page), "pages", String.valueOf(pages), "total", String.valueOf(total))
                 ));
-                return CompletableFuture.completedFuture(null);
-            }
-
-
-            punishments.sort((a, b) -> Long.compare(b.createdAt(), a.createdAt()));
-
-
-            ctx.sendMessage(plugin.getLanguageManager().translateToMessage(
-                "command.history.header",
-                (ctx.sender() instanceof Player) ? ctx.sender().getUuid() : null,
-                java.util.Map.of("player", resolvedName)
-            ));
 
-
-            int index = 1;
-            for (Punishment p : punishments) {
-                String details = formatDetails(p);
-                String timestamp = DATE_FORMATTER.format(Instant.ofEpochMilli(p.createdAt()));
-                String line = String.format("&f%d) %s — %s (%s) (%s)",
-                        index, p.type(), p.reason(), details, timestamp);
-                ctx.sendMessage(me.almana.moderationplus.utils.ColorUtils.parse(line));
-                index++;
+                int index = (page - 1) * PAGE_SIZE + 1;
+                for (Punishment p : result.items()) {
+                    String details = formatDetails(p);
+                    String timestamp = DATE_FORMATTER.format(Instant.ofEpochMilli(p.createdAt()));
+                    String line = String.format("&f%d) %s — %s (%s) (%s)",
+                            index, p.type(), p.reason(), details, timestamp);
+                    ctx.sendMessage(me.almana.moderationplus.utils.ColorUtils.parse(line));
+                    index++;
+                }
+
+                if (page < pages) {
+                    ctx.sendMessage(plugin.getLanguageManager().translateToMessage(
+                        "command.history.next_page",
+                        senderUuid,
+                        java.util.Map.of("player", resolvedName, "next", String.valueOf(page + 1))
+                    ));
+                }
+
+            } catch (Exception e) {
+                ctx.sendMessage(plugin.getLanguageManager().translateToMessage(
+                    "command.history.failed",
+                    senderUuid,
+                    java.util.Map.of("error", e.getMessage() != null ? e.getMessage() : "Unknown")
+                ));
+                e.printStackTrace();
             }
-
-        } catch (Exception e) {
-            ctx.sendMessage(plugin.getLanguageManager().translateToMessage(
-                "command.history.failed",
-                (ctx.sender() instanceof Player) ? ctx.sender().getUuid() : null,
-                java.util.Map.of("error", e.getMessage() != null ? e.getMessage() : "Unknown")
-            ));
-            e.printStackTrace();
-        }
-        return CompletableFuture.completedFuture(null);
+        });
     }
 
     private String formatDetails(Punishment p) {
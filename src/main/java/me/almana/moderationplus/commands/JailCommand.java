@@ -126,9 +126,9 @@ public class JailCommand extends AbstractCommand {
             return CompletableFuture.completedFuture(null);
         }
 
-        me.almana.moderationplus.storage.StorageManager.PlayerData playerData = plugin.getStorageManager().getOrCreatePlayer(targetUuid, targetName);
+        int playerId = plugin.getStorageManager().getOrCreatePlayerId(targetUuid, targetName);
         try {
-            List<Punishment> activeJails = plugin.getStorageManager().getActivePunishmentsByType(playerData.id(), "JAIL");
+            List<Punishment> activeJails = plugin.getStorageManager().getActivePunishmentsByType(playerId, "JAIL");
             if (!activeJails.isEmpty()) {
                 ctx.sendMessage(plugin.getLanguageManager().translateToMessage(
                     "command.jail.already_jailed",
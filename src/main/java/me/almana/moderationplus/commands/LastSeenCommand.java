@@ -49,7 +49,7 @@ public class LastSeenCommand extends AbstractCommand {
 
         String finalCurrentLocale = currentLocale;
 
-        return CompletableFuture.runAsync(() -> {
+        return plugin.getExecutor().run(() -> {
             try {
                 UUID targetUuid = plugin.getStorageManager().getUuidByUsername(targetName);
                 if (targetUuid == null) {
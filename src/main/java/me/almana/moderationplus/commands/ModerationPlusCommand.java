@@ -4,17 +4,38 @@ import com.hypixel.hytale.server.core.Message;
 import com.hypixel.hytale.server.core.command.system.AbstractCommand;
 import com.hypixel.hytale.server.core.command.system.CommandContext;
 import me.almana.moderationplus.ModerationPlus;
+import me.almana.moderationplus.core.event.ListenerStats;
+import me.almana.moderationplus.core.event.SyncEventBus;
+import me.almana.moderationplus.storage.SearchHit;
+import me.almana.moderationplus.storage.StorageManager;
+import me.almana.moderationplus.transfer.PunishmentTransferService;
 
 import java.awt.Color;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicBoolean;
 
 public class ModerationPlusCommand extends AbstractCommand {
 
+    private static final int SEARCH_PAGE_SIZE = 10;
+    private static final int EVENTS_SHOWN = 15;
+    private static final DateTimeFormatter DATE_FORMATTER = DateTimeFormatter.ofPattern("yyyy-MM-dd")
+            .withZone(ZoneId.systemDefault());
+
     private final ModerationPlus plugin;
+    private final PunishmentTransferService transfers;
+    private final AtomicBoolean transferRunning = new AtomicBoolean();
 
     public ModerationPlusCommand(ModerationPlus plugin) {
         super("moderationplus", "moderation.admin");
         this.plugin = plugin;
+        this.transfers = new PunishmentTransferService(plugin.getStorageManager());
     }
 
     @Override
@@ -36,7 +57,150 @@ public class ModerationPlusCommand extends AbstractCommand {
             return CompletableFuture.completedFuture(null);
         }
 
-        ctx.sendMessage(Message.raw("Usage: /moderationplus lang reload").color(Color.RED));
+        if (args.length >= 1 && args[0].equalsIgnoreCase("metrics")) {
+            ctx.sendMessage(Message.raw("ModerationPlus metrics:").color(Color.ORANGE));
+            for (Map.Entry<String, Long> entry : plugin.getMetrics().snapshot().entrySet()) {
+                ctx.sendMessage(Message.raw(entry.getKey() + ": " + entry.getValue()).color(Color.GRAY));
+            }
+            return CompletableFuture.completedFuture(null);
+        }
+
+        if (args.length >= 1 && args[0].equalsIgnoreCase("events")) {
+            showEventTimings(ctx, args.length >= 2 && args[1].equalsIgnoreCase("reset"));
+            return CompletableFuture.completedFuture(null);
+        }
+
+        if (args.length >= 2 && (args[0].equalsIgnoreCase("export") || args[0].equalsIgnoreCase("import"))) {
+            return runTransfer(ctx, args[0].equalsIgnoreCase("export"), args[1]);
+        }
+
+        if (args.length >= 3 && args[0].equalsIgnoreCase("search")
+                && (args[1].equalsIgnoreCase("punishments") || args[1].equalsIgnoreCase("notes"))) {
+            return runSearch(ctx, args[1].equalsIgnoreCase("notes"), args);
+        }
+
+        ctx.sendMessage(Message.raw("Usage: /moderationplus <lang reload|metrics|events [reset]|export <file>|import <file>|"
+                + "search <punishments|notes> [page] <words...>>").color(Color.RED));
         return CompletableFuture.completedFuture(null);
     }
+
+    // Slowest listeners first, by worst single call
+    private void showEventTimings(CommandContext ctx, boolean reset) {
+        SyncEventBus bus = (SyncEventBus) plugin.getEventBus();
+        if (reset) {
+            bus.resetListenerStats();
+            ctx.sendMessage(Message.raw("Event listener timings reset.").color(Color.GREEN));
+            return;
+        }
+        if (!bus.isTiming()) {
+            ctx.sendMessage(Message.raw("Event listener timing is off (events.timing in the config).").color(Color.YELLOW));
+            return;
+        }
+
+        List<ListenerStats> stats = new ArrayList<>(bus.listenerStats());
+        stats.removeIf(s -> s.count() == 0);
+        stats.sort(Comparator.comparingLong(ListenerStats::maxNanos).reversed());
+        ctx.sendMessage(Message.raw("Event listeners (budget " + bus.getBudgetMillis() + "ms, "
+                + stats.size() + " called):").color(Color.ORANGE));
+        for (ListenerStats s : stats.subList(0, Math.min(EVENTS_SHOWN, stats.size()))) {
+            String lane = s.async() ? "async" : s.priority().name();
+            ctx.sendMessage(Message.raw(String.format("%s on %s [%s]: %d calls, avg %s, p99 %s, max %s, %d slow",
+                    s.name(), s.eventType().getSimpleName(), lane, s.count(), millis(s.totalNanos() / s.count()),
+                    millis(s.percentileNanos(99)), millis(s.maxNanos()), s.slowCount()))
+                    .color(s.slowCount() > 0 ? Color.RED : Color.GRAY));
+        }
+    }
+
+    private static String millis(long nanos) {
+        return String.format("%.3fms", nanos / 1_000_000.0);
+    }
+
+    // A number right after the scope is the page, as long as words follow it
+    private CompletableFuture<Void> runSearch(CommandContext ctx, boolean notes, String[] args) {
+        StorageManager storage = plugin.getStorageManager();
+        if (!storage.supportsSearch()) {
+            ctx.sendMessage(Message.raw("Search is only available on SQLite databases.").color(Color.RED));
+            return CompletableFuture.completedFuture(null);
+        }
+
+        int page = 1;
+        int firstWord = 2;
+        if (args.length >= 4 && args[2].matches("\\d{1,6}")) {
+            page = Integer.parseInt(args[2]);
+            firstWord = 3;
+        }
+        String query = String.join(" ", java.util.Arrays.copyOfRange(args, firstWord, args.length));
+        int requestedPage = page;
+
+        return plugin.getExecutor().run(() -> {
+            try {
+                int total = notes ? storage.countStaffNoteMatches(query) : storage.countPunishmentMatches(query);
+                if (total == 0) {
+                    ctx.sendMessage(Message.raw("No " + (notes ? "notes" : "punishments") + " match '" + query + "'.")
+                            .color(Color.GRAY));
+                    return;
+                }
+                int pages = (total + SEARCH_PAGE_SIZE - 1) / SEARCH_PAGE_SIZE;
+                if (requestedPage < 1 || requestedPage > pages) {
+                    ctx.sendMessage(Message.raw("Page " + requestedPage + " does not exist (1-" + pages + ").")
+                            .color(Color.RED));
+                    return;
+                }
+
+                int offset = (requestedPage - 1) * SEARCH_PAGE_SIZE;
+                List<SearchHit> hits = notes
+                        ? storage.searchStaffNotes(query, offset, SEARCH_PAGE_SIZE)
+                        : storage.searchPunishments(query, offset, SEARCH_PAGE_SIZE);
+                ctx.sendMessage(Message.raw(String.format("%d %s matching '%s' (page %d/%d):", total,
+                        notes ? "notes" : "punishments", query, requestedPage, pages)).color(Color.ORANGE));
+                for (SearchHit hit : hits) {
+                    ctx.sendMessage(Message.raw(String.format("#%d %s %s %s: %s", hit.id(),
+                            DATE_FORMATTER.format(Instant.ofEpochMilli(hit.createdAt())), hit.type(),
+                            hit.player(), hit.excerpt())).color(Color.GRAY));
+                }
+                if (requestedPage < pages) {
+                    ctx.sendMessage(Message.raw(String.format("Next page: /moderationplus search %s %d %s",
+                            notes ? "notes" : "punishments", requestedPage + 1, query)).color(Color.GRAY));
+                }
+            } catch (Exception e) {
+                ctx.sendMessage(Message.raw("Search failed: " + e.getMessage()).color(Color.RED));
+                e.printStackTrace();
+            }
+        });
+    }
+
+    // Runs off the command thread; one transfer at a time
+    private CompletableFuture<Void> runTransfer(CommandContext ctx, boolean export, String fileName) {
+        try {
+            transfers.resolve(fileName);
+        } catch (IllegalArgumentException e) {
+            ctx.sendMessage(Message.raw(e.getMessage()).color(Color.RED));
+            return CompletableFuture.completedFuture(null);
+        }
+        if (!transferRunning.compareAndSet(false, true)) {
+            ctx.sendMessage(Message.raw("An import or export is already running.").color(Color.RED));
+            return CompletableFuture.completedFuture(null);
+        }
+
+        ctx.sendMessage(Message.raw((export ? "Exporting punishments to " : "Importing punishments from ")
+                + fileName + "...").color(Color.ORANGE));
+        return plugin.getExecutor().run(() -> {
+            try {
+                java.util.function.Consumer<String> progress = line -> ctx.sendMessage(Message.raw(line).color(Color.GRAY));
+                PunishmentTransferService.Result result = export
+                        ? transfers.export(fileName, progress)
+                        : transfers.importFile(fileName, progress);
+                String summary = export
+                        ? String.format("Exported %d punishments in %dms.", result.processed(), result.elapsedMillis())
+                        : String.format("Imported %d of %d punishments in %dms (%d skipped: unknown type).",
+                                result.imported(), result.processed(), result.elapsedMillis(), result.skipped());
+                ctx.sendMessage(Message.raw(summary).color(Color.GREEN));
+            } catch (Exception e) {
+                ctx.sendMessage(Message.raw((export ? "Export" : "Import") + " failed: " + e.getMessage()).color(Color.RED));
+                e.printStackTrace();
+            } finally {
+                transferRunning.set(false);
+            }
+        });
+    }
 }
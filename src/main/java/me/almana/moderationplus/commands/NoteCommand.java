@@ -14,7 +14,6 @@ import com.hypixel.hytale.server.core.universe.Universe;
 import com.hypixel.hytale.server.core.NameMatching;
 import me.almana.moderationplus.ModerationPlus;
 import me.almana.moderationplus.storage.StaffNote;
-import me.almana.moderationplus.storage.StorageManager.PlayerData;
 import java.util.UUID;
 import java.util.concurrent.CompletableFuture;
 
@@ -81,10 +80,10 @@ public class NoteCommand extends AbstractCommand {
         }
 
         try {
-            PlayerData playerData = plugin.getStorageManager().getOrCreatePlayer(targetUuid, resolvedName);
+            int playerId = plugin.getStorageManager().getOrCreatePlayerId(targetUuid, resolvedName);
 
 
-            StaffNote note = new StaffNote(0, playerData.id(), issuerUuid, message, System.currentTimeMillis());
+            StaffNote note = new StaffNote(0, playerId, issuerUuid, message, System.currentTimeMillis());
             plugin.getStorageManager().createStaffNote(note);
 
 
@@ -5,6 +5,7 @@ import com.hypixel.hytale.server.core.Message;
 import com.hypixel.hytale.server.core.command.system.AbstractCommand;
 import com.hypixel.hytale.server.core.command.system.CommandContext;
 
+import com.hypixel.hytale.server.core.command.system.arguments.system.OptionalArg;
 import com.hypixel.hytale.server.core.command.system.arguments.system.RequiredArg;
 import com.hypixel.hytale.server.core.command.system.arguments.types.ArgTypes;
 import com.hypixel.hytale.server.core.command.system.arguments.types.ArgumentType;
@@ -13,10 +14,10 @@ import com.hypixel.hytale.server.core.universe.PlayerRef;
 import com.hypixel.hytale.server.core.universe.Universe;
 import com.hypixel.hytale.server.core.NameMatching;
 import me.almana.moderationplus.ModerationPlus;
+import me.almana.moderationplus.storage.Page;
 import me.almana.moderationplus.storage.StaffNote;
 import me.almana.moderationplus.storage.StorageManager.PlayerData;
 import java.util.UUID;
-import java.util.List;
 import java.util.concurrent.CompletableFuture;
 import java.time.Instant;
 import java.time.ZoneId;
@@ -26,6 +27,8 @@ public class NotesCommand extends AbstractCommand {
 
     private final ModerationPlus plugin;
     private final RequiredArg<String> playerArg;
+    private final OptionalArg<Integer> pageArg;
+    private static final int PAGE_SIZE = 10;
     private static final DateTimeFormatter DATE_FORMATTER = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm")
             .withZone(ZoneId.systemDefault());
 
@@ -34,99 +37,131 @@ public class NotesCommand extends AbstractCommand {
         this.plugin = plugin;
         this.requirePermission("moderation.notes");
         this.playerArg = withRequiredArg("player", "Player name", (ArgumentType<String>) ArgTypes.STRING);
+        this.pageArg = withOptionalArg("page", "Page number", (ArgumentType<Integer>) ArgTypes.INTEGER);
     }
 
     @Override
     public CompletableFuture<Void> execute(CommandContext ctx) {
 
         String targetName = ctx.get(playerArg);
+        int page = pageArg.provided(ctx) ? ctx.get(pageArg) : 1;
+        UUID senderUuid = (ctx.sender() instanceof Player) ? ctx.sender().getUuid() : null;
+
+        // Database reads stay off the command thread
+        return plugin.getExecutor().run(() -> {
+            UUID targetUuid = null;
+            String resolvedName = targetName;
+
+            PlayerRef ref = Universe.get().getPlayer(targetName, NameMatching.EXACT);
+            if (ref != null) {
+                targetUuid = ref.getUuid();
+                resolvedName = ref.getUsername();
+            } else {
+                targetUuid = plugin.getStorageManager().getUuidByUsername(targetName);
+            }
 
+            if (targetUuid == null) {
+                ctx.sendMessage(plugin.getLanguageManager().translateToMessage(
+                    "command.notes.player_not_found",
+                    senderUuid,
+                    java.util.Map.of("player", targetName)
+                ));
+                return;
+            }
 
-        UUID targetUuid = null;
-        String resolvedName = targetName;
+            try {
+                PlayerData playerData = plugin.getStorageManager().getPlayerByUUID(targetUuid);
+                int total = playerData != null ? plugin.getStorageManager().countStaffNotes(playerData.id()) : 0;
+                if (total == 0) {
+                    ctx.sendMessage(plugin.getLanguageManager().translateToMessage(
+                        "command.notes.none",
+                        senderUuid,
+                        java.util.Map.of("player", resolvedName)
+                    ));
+                    return;
+                }
 
-        PlayerRef ref = Universe.get().getPlayer(targetName, NameMatching.EXACT);
-        if (ref != null) {
-            targetUuid = ref.getUuid();
-            resolvedName = ref.getUsername();
-        } else {
-            targetUuid = plugin.getStorageManager().getUuidByUsername(targetName);
-        }
+                int pages = (total + PAGE_SIZE - 1) / PAGE_SIZE;
+                if (page < 1 || page > pages) {
+                    ctx.sendMessage(plugin.getLanguageManager().translateToMessage(
+                        "command.notes.page_out_of_range",
+                        senderUuid,
+                        java.util.Map.of("page", String.valueOf(page), "pages", String.valueOf(pages))
+                    ));
+                    return;
+                }
 
-        if (targetUuid == null) {
-            ctx.sendMessage(plugin.getLanguageManager().translateToMessage(
-                "command.notes.player_not_found",
-                (ctx.sender() instanceof Player) ? ctx.sender().getUuid() : null,
-                java.util.Map.of("player", targetName)
-            ));
-            return CompletableFuture.completedFuture(null);
-        }
+                Page.Cursor start = plugin.getStorageManager().findStaffNoteCursor(playerData.id(), (page - 1) * PAGE_SIZE);
+                Page<StaffNote> result = plugin.getStorageManager().getStaffNotePage(playerData.id(), start, PAGE_SIZE);
 
-        try {
-            PlayerData playerData = plugin.getStorageManager().getPlayerByUUID(targetUuid);
-            if (playerData == null) {
                 ctx.sendMessage(plugin.getLanguageManager().translateToMessage(
-                    "command.notes.none",
-                    (ctx.sender() instanceof Player) ? ctx.sender().getUuid() : null,
+                    "command.notes.header",
+                    senderUuid,
                     java.util.Map.of("player", resolvedName)
                 ));
-                return CompletableFuture.completedFuture(null);
-            }
-
-            List<StaffNote> notes = plugin.getStorageManager().getStaffNotes(playerData.id());
-            if (notes.isEmpty()) {
                 ctx.sendMessage(plugin.getLanguageManager().translateToMessage(
-                    "command.notes.none",
-                    (ctx.sender() instanceof Player) ? ctx.sender().getUuid() : null,
-                    java.util.Map.of("player", resolvedName)
+                    "command.notes.page",
+                    senderUuid,
+                    java.util.Map.of("page", String.valueOf(page), "pages", String.valueOf(pages), "total", String.valueOf(total))
                 ));
-                return CompletableFuture.completedFuture(null);
-            }
-
-
-            ctx.sendMessage(plugin.getLanguageManager().translateToMessage(
-                "command.notes.header",
-                (ctx.sender() instanceof Player) ? ctx.sender().getUuid() : null,
-                java.util.Map.of("player", resolvedName)
-            ));
-
-
-            int index = 1;
-            for (StaffNote note : notes) {
-                String timestamp = DATE_FORMATTER.format(Instant.ofEpochMilli(note.createdAt()));
-                String issuerName = "Console";
-                if (!note.issuerUuid().equals("CONSOLE")) {
-                    try {
-                        UUID issuerId = UUID.fromString(note.issuerUuid());
-                        me.almana.moderationplus.storage.StorageManager.PlayerData issuerData = plugin
-                                .getStorageManager().getPlayerByUUID(issuerId);
-                        if (issuerData != null) {
-                            issuerName = issuerData.username();
-                        } else {
 
+                // Every issuer on the page is resolved in one lookup
+                java.util.Set<UUID> issuerIds = new java.util.HashSet<>();
+                for (StaffNote note : result.items()) {
+                    UUID issuerId = parseIssuer(note.issuerUuid());
+                    if (issuerId != null) {
+                        issuerIds.add(issuerId);
+                    }
+                }
+                java.util.Map<UUID, String> issuerNames = plugin.getStorageManager().getUsernames(issuerIds);
+
+                int index = (page - 1) * PAGE_SIZE + 1;
+                for (StaffNote note : result.items()) {
+                    String timestamp = DATE_FORMATTER.format(Instant.ofEpochMilli(note.createdAt()));
+                    String issuerName = "Console";
+                    UUID issuerId = parseIssuer(note.issuerUuid());
+                    if (issuerId != null) {
+                        issuerName = issuerNames.get(issuerId);
+                        if (issuerName == null) {
                             PlayerRef issuerRef = Universe.get().getPlayer(issuerId);
-                            if (issuerRef != null)
-                                issuerName = issuerRef.getUsername();
+                            issuerName = issuerRef != null ? issuerRef.getUsername() : "Console";
                         }
-                    } catch (Exception ignored) {
                     }
+
+                    String line = String.format("&f%d) (%s) %s — by %s",
+                            index, timestamp, note.message(), issuerName);
+                    ctx.sendMessage(me.almana.moderationplus.utils.ColorUtils.parse(line));
+
+                    index++;
                 }
 
-                String line = String.format("&f%d) (%s) %s — by %s",
-                        index, timestamp, note.message(), issuerName);
-                ctx.sendMessage(me.almana.moderationplus.utils.ColorUtils.parse(line));
+                if (page < pages) {
+                    ctx.sendMessage(plugin.getLanguageManager().translateToMessage(
+                        "command.notes.next_page",
+                        senderUuid,
+                        java.util.Map.of("player", resolvedName, "next", String.valueOf(page + 1))
+                    ));
+                }
 
-                index++;
+            } catch (Exception e) {
+                ctx.sendMessage(plugin.getLanguageManager().translateToMessage(
+                    "command.notes.failed",
+                    senderUuid,
+                    java.util.Map.of("error", e.getMessage() != null ? e.getMessage() : "Unknown")
+                ));
+                e.printStackTrace();
             }
+        });
+    }
 
-        } catch (Exception e) {
-            ctx.sendMessage(plugin.getLanguageManager().translateToMessage(
-                "command.notes.failed",
-                (ctx.sender() instanceof Player) ? ctx.sender().getUuid() : null,
-                java.util.Map.of("error", e.getMessage() != null ? e.getMessage() : "Unknown")
-            ));
-            e.printStackTrace();
+    private static UUID parseIssuer(String issuerUuid) {
+        if (issuerUuid.equals("CONSOLE")) {
+            return null;
+        }
+        try {
+            return UUID.fromString(issuerUuid);
+        } catch (IllegalArgumentException e) {
+            return null;
         }
-        return CompletableFuture.completedFuture(null);
     }
 }
@@ -63,6 +63,7 @@ public class ConfigManager {
         }
     }
 
+    // Longest gap between WAL checkpoints while writes never pause
     public long getDatabaseFlushIntervalSeconds() {
         if (!config.has("database"))
             return 600;
@@ -72,6 +73,202 @@ public class ConfigManager {
         return db.get("flush_interval_seconds").getAsLong();
     }
 
+    // How often the WAL checkpointer looks at write activity and WAL size
+    public long getDatabaseCheckpointIntervalSeconds() {
+        if (!config.has("database"))
+            return 5;
+        JsonObject db = config.getAsJsonObject("database");
+        if (!db.has("checkpoint_interval_seconds"))
+            return 5;
+        return Math.max(1L, db.get("checkpoint_interval_seconds").getAsLong());
+    }
+
+    // WAL frames left behind by readers before a checkpoint escalates to RESTART
+    public long getDatabaseCheckpointRestartFrames() {
+        if (!config.has("database"))
+            return 4000;
+        JsonObject db = config.getAsJsonObject("database");
+        if (!db.has("checkpoint_restart_frames"))
+            return 4000;
+        return Math.max(1L, db.get("checkpoint_restart_frames").getAsLong());
+    }
+
+    // WAL file size before a checkpoint escalates to TRUNCATE
+    public long getDatabaseCheckpointTruncateMegabytes() {
+        if (!config.has("database"))
+            return 64;
+        JsonObject db = config.getAsJsonObject("database");
+        if (!db.has("checkpoint_truncate_mb"))
+            return 64;
+        return Math.max(1L, db.get("checkpoint_truncate_mb").getAsLong());
+    }
+
+    public String getDatabaseJournalMode() {
+        return getDatabaseChoice("journal_mode", "WAL",
+                java.util.Set.of("WAL", "DELETE", "TRUNCATE", "PERSIST", "MEMORY", "OFF"));
+    }
+
+    public String getDatabaseSynchronous() {
+        return getDatabaseChoice("synchronous", "NORMAL", java.util.Set.of("OFF", "NORMAL", "FULL", "EXTRA"));
+    }
+
+    public int getDatabaseBusyTimeoutMillis() {
+        if (!config.has("database"))
+            return 5000;
+        JsonObject db = config.getAsJsonObject("database");
+        if (!db.has("busy_timeout_ms"))
+            return 5000;
+        return Math.max(0, db.get("busy_timeout_ms").getAsInt());
+    }
+
+    // Negative values are KiB, positive values are pages (SQLite semantics)
+    public int getDatabaseCacheSize() {
+        if (!config.has("database"))
+            return -16000;
+        JsonObject db = config.getAsJsonObject("database");
+        if (!db.has("cache_size"))
+            return -16000;
+        return db.get("cache_size").getAsInt();
+    }
+
+    public long getDatabaseMmapSize() {
+        if (!config.has("database"))
+            return 134217728L;
+        JsonObject db = config.getAsJsonObject("database");
+        if (!db.has("mmap_size"))
+            return 134217728L;
+        return Math.max(0L, db.get("mmap_size").getAsLong());
+    }
+
+    public int getDatabaseReaderPoolSize() {
+        if (!config.has("database"))
+            return 4;
+        JsonObject db = config.getAsJsonObject("database");
+        if (!db.has("reader_pool_size"))
+            return 4;
+        return Math.max(1, db.get("reader_pool_size").getAsInt());
+    }
+
+    public int getDatabaseWriteQueueCapacity() {
+        if (!config.has("database"))
+            return 4096;
+        JsonObject db = config.getAsJsonObject("database");
+        if (!db.has("write_queue_capacity"))
+            return 4096;
+        return Math.max(1, db.get("write_queue_capacity").getAsInt());
+    }
+
+    // How long a caller blocks on a full write queue before the write is rejected
+    public long getDatabaseWriteQueueTimeoutMillis() {
+        if (!config.has("database"))
+            return 5000;
+        JsonObject db = config.getAsJsonObject("database");
+        if (!db.has("write_queue_timeout_ms"))
+            return 5000;
+        return Math.max(0L, db.get("write_queue_timeout_ms").getAsLong());
+    }
+
+    public int getDatabaseWriteBatchSize() {
+        if (!config.has("database"))
+            return 256;
+        JsonObject db = config.getAsJsonObject("database");
+        if (!db.has("write_batch_size"))
+            return 256;
+        return Math.max(1, db.get("write_batch_size").getAsInt());
+    }
+
+    public long getDatabaseWriteBatchWindowMillis() {
+        if (!config.has("database"))
+            return 2;
+        JsonObject db = config.getAsJsonObject("database");
+        if (!db.has("write_batch_window_ms"))
+            return 2;
+        return Math.max(0L, db.get("write_batch_window_ms").getAsLong());
+    }
+
+    public String getDatabaseType() {
+        return getDatabaseChoice("type", "SQLITE", java.util.Set.of("SQLITE", "MYSQL", "POSTGRESQL"));
+    }
+
+    public String getDatabaseHost() {
+        return getDatabaseString("host", "localhost");
+    }
+
+    // 0 means the driver's default port
+    public int getDatabasePort() {
+        if (!config.has("database"))
+            return 0;
+        JsonObject db = config.getAsJsonObject("database");
+        if (!db.has("port"))
+            return 0;
+        return Math.max(0, db.get("port").getAsInt());
+    }
+
+    public String getDatabaseName() {
+        return getDatabaseString("name", "moderationplus");
+    }
+
+    public String getDatabaseUsername() {
+        return getDatabaseString("username", "moderationplus");
+    }
+
+    public String getDatabasePassword() {
+        return getDatabaseString("password", "");
+    }
+
+    public int getDatabasePoolSize() {
+        if (!config.has("database"))
+            return 8;
+        JsonObject db = config.getAsJsonObject("database");
+        if (!db.has("pool_size"))
+            return 8;
+        return Math.max(1, db.get("pool_size").getAsInt());
+    }
+
+    // How often a shared database is polled for punishments issued on other servers
+    public long getDatabaseSyncIntervalSeconds() {
+        if (!config.has("database"))
+            return 15;
+        JsonObject db = config.getAsJsonObject("database");
+        if (!db.has("sync_interval_seconds"))
+            return 15;
+        return Math.max(1L, db.get("sync_interval_seconds").getAsLong());
+    }
+
+    // Inactive punishments older than this move to punishments_archive; 0 keeps everything live
+    public int getDatabaseArchiveAfterDays() {
+        if (!config.has("database"))
+            return 90;
+        JsonObject db = config.getAsJsonObject("database");
+        if (!db.has("archive_after_days"))
+            return 90;
+        return Math.max(0, db.get("archive_after_days").getAsInt());
+    }
+
+    private String getDatabaseString(String key, String fallback) {
+        if (!config.has("database"))
+            return fallback;
+        JsonObject db = config.getAsJsonObject("database");
+        if (!db.has(key))
+            return fallback;
+        return db.get(key).getAsString();
+    }
+
+    // Values are spliced into PRAGMA statements, so only known keywords are accepted
+    private String getDatabaseChoice(String key, String fallback, java.util.Set<String> allowed) {
+        if (!config.has("database"))
+            return fallback;
+        JsonObject db = config.getAsJsonObject("database");
+        if (!db.has(key))
+            return fallback;
+        String value = db.get(key).getAsString().toUpperCase(java.util.Locale.ROOT);
+        if (!allowed.contains(value)) {
+            logger.at(Level.WARNING).log("Invalid database.%s '%s', using %s", key, value, fallback);
+            return fallback;
+        }
+        return value;
+    }
+
     public void saveConfig() {
         File configFile = new File(CONFIG_PATH);
         try {
@@ -171,6 +368,135 @@ public class ConfigManager {
         return webPanel.get("poll_interval_seconds").getAsLong();
     }
 
+    // How long processed web command ids are kept for duplicate detection
+    public long getWebPanelCommandLogRetentionHours() {
+        if (!config.has("web_panel")) {
+            return 168;
+        }
+        JsonObject webPanel = config.getAsJsonObject("web_panel");
+        if (!webPanel.has("command_log_retention_hours")) {
+            return 168;
+        }
+        return Math.max(1L, webPanel.get("command_log_retention_hours").getAsLong());
+    }
+
+    // Hours between online SQLite backups; 0 disables them
+    public long getBackupIntervalHours() {
+        if (!config.has("backup")) {
+            return 24;
+        }
+        JsonObject backup = config.getAsJsonObject("backup");
+        if (!backup.has("interval_hours")) {
+            return 24;
+        }
+        return Math.max(0L, backup.get("interval_hours").getAsLong());
+    }
+
+    public int getBackupKeep() {
+        if (!config.has("backup")) {
+            return 7;
+        }
+        JsonObject backup = config.getAsJsonObject("backup");
+        if (!backup.has("keep")) {
+            return 7;
+        }
+        return Math.max(1, backup.get("keep").getAsInt());
+    }
+
+    public int getBackupPagesPerStep() {
+        if (!config.has("backup")) {
+            return 256;
+        }
+        JsonObject backup = config.getAsJsonObject("backup");
+        if (!backup.has("pages_per_step")) {
+            return 256;
+        }
+        return Math.max(1, backup.get("pages_per_step").getAsInt());
+    }
+
+    // Pause between backup steps, so the copy never holds the disk for long
+    public long getBackupStepDelayMillis() {
+        if (!config.has("backup")) {
+            return 10;
+        }
+        JsonObject backup = config.getAsJsonObject("backup");
+        if (!backup.has("step_delay_ms")) {
+            return 10;
+        }
+        return Math.max(0L, backup.get("step_delay_ms").getAsLong());
+    }
+
+    // "platform" for a fixed pool of threads, "virtual" for a virtual thread per task
+    public String getExecutorType() {
+        if (!config.has("executor")) {
+            return "platform";
+        }
+        JsonObject executor = config.getAsJsonObject("executor");
+        if (!executor.has("type")) {
+            return "platform";
+        }
+        return executor.get("type").getAsString();
+    }
+
+    public int getExecutorThreads() {
+        if (!config.has("executor")) {
+            return 8;
+        }
+        JsonObject executor = config.getAsJsonObject("executor");
+        if (!executor.has("threads")) {
+            return 8;
+        }
+        return Math.max(1, executor.get("threads").getAsInt());
+    }
+
+    // Queued tasks (platform) or in-flight tasks (virtual) before the rejection policy applies
+    public int getExecutorQueueCapacity() {
+        if (!config.has("executor")) {
+            return 1024;
+        }
+        JsonObject executor = config.getAsJsonObject("executor");
+        if (!executor.has("queue_capacity")) {
+            return 1024;
+        }
+        return Math.max(1, executor.get("queue_capacity").getAsInt());
+    }
+
+    // "abort" or "caller_runs"
+    public String getExecutorRejection() {
+        if (!config.has("executor")) {
+            return "abort";
+        }
+        JsonObject executor = config.getAsJsonObject("executor");
+        if (!executor.has("rejection")) {
+            return "abort";
+        }
+        return executor.get("rejection").getAsString();
+    }
+
+    // Per-listener timing on the ModerationPlus event bus, shown by /moderationplus events
+    public boolean isEventTimingEnabled() {
+        if (!config.has("events")) {
+            return true;
+        }
+        JsonObject events = config.getAsJsonObject("events");
+        if (!events.has("timing")) {
+            return true;
+        }
+        return events.get("timing").getAsBoolean();
+    }
+
+    // A listener call longer than this is logged as slow; 0 only records
+    public long getEventSlowListenerMillis() {
+        if (!config.has("events")) {
+            return 5;
+        }
+        JsonObject events = config.getAsJsonObject("events");
+        if (!events.has("slow_listener_ms")) {
+            return 5;
+        }
+        return Math.max(0L, events.get("slow_listener_ms").getAsLong());
+    }
+
     public String getWebPanelUrl() {
         if (!config.has("web_panel")) {
             return "http://localhost:3000";
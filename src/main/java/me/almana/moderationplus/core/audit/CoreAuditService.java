@@ -1,6 +1,9 @@
 package me.almana.moderationplus.core.audit;
 
+import com.hypixel.hytale.server.core.HytaleServer;
 import me.almana.moderationplus.ModerationPlus;
+import me.almana.moderationplus.api.event.EventBus;
+import me.almana.moderationplus.api.event.Subscribe;
 import me.almana.moderationplus.api.event.punishment.PunishmentAppliedEvent;
 import me.almana.moderationplus.api.event.punishment.PunishmentExpiredEvent;
 import me.almana.moderationplus.api.event.staff.*;
@@ -9,26 +12,37 @@ import me.almana.moderationplus.api.punishment.Punishment;
 
 import java.util.HashMap;
 import java.util.Map;
+import java.util.concurrent.Executor;
 
 public class CoreAuditService {
 
-    private final ModerationPlus plugin;
+    private final EventBus bus;
+    private final Executor mainThread;
 
     public CoreAuditService(ModerationPlus plugin) {
-        this.plugin = plugin;
+        this(plugin.getEventBus(), HytaleServer.SCHEDULED_EXECUTOR);
+    }
+
+    CoreAuditService(EventBus bus, Executor mainThread) {
+        this.bus = bus;
+        this.mainThread = mainThread;
     }
 
     public void init() {
-        plugin.getEventBus().register(PunishmentAppliedEvent.class, this::onPunishmentApplied);
-        plugin.getEventBus().register(PunishmentExpiredEvent.class, this::onPunishmentExpired);
-        
-        // Staff Actions
-        plugin.getEventBus().register(StaffFreezeEvent.class, e -> onStaffAction(e, "FREEZE"));
-        plugin.getEventBus().register(StaffUnfreezeEvent.class, e -> onStaffAction(e, "UNFREEZE"));
-        plugin.getEventBus().register(StaffJailEvent.class, e -> onStaffAction(e, "JAIL"));
-        plugin.getEventBus().register(StaffUnjailEvent.class, e -> onStaffAction(e, "UNJAIL"));
+        // Audit only records, so it never holds up the main thread or a waiting worker
+        bus.subscribe(this);
     }
 
+    // The translators run on an async lane, but audit events promise sync listeners the main thread
+    private void publish(AuditEvent event) {
+        if (bus.hasSyncListeners(event.getClass())) {
+            mainThread.execute(() -> bus.dispatch(event));
+        } else {
+            bus.dispatch(event);
+        }
+    }
+
+    @Subscribe(async = true)
     private void onPunishmentApplied(PunishmentAppliedEvent event) {
         Punishment p = event.getPunishment();
         Map<String, Object> meta = new HashMap<>();
@@ -37,9 +51,10 @@ public class CoreAuditService {
         if (p.duration() != null) meta.put("duration", p.duration().toString());
         meta.put("silent", p.silent());
 
-        plugin.getEventBus().dispatch(new PunishmentAuditEvent(p.actor(), "PUNISH_APPLIED", p.target(), meta));
+        publish(new PunishmentAuditEvent(p.actor(), "PUNISH_APPLIED", p.target(), meta));
     }
 
+    @Subscribe(async = true)
     private void onPunishmentExpired(PunishmentExpiredEvent event) {
         Punishment p = event.getPunishment();
         Map<String, Object> meta = new HashMap<>();
@@ -49,7 +64,28 @@ public class CoreAuditService {
         // In ModerationService, we pass context.issuerUuid() as actor for the "Unbanned" punishment object.
         // So p.actor() is correct.
         
-        plugin.getEventBus().dispatch(new PunishmentAuditEvent(p.actor(), "PUNISH_EXPIRED", p.target(), meta));
+        publish(new PunishmentAuditEvent(p.actor(), "PUNISH_EXPIRED", p.target(), meta));
+    }
+
+    // Staff Actions
+    @Subscribe(async = true)
+    private void onFreeze(StaffFreezeEvent event) {
+        onStaffAction(event, "FREEZE");
+    }
+
+    @Subscribe(async = true)
+    private void onUnfreeze(StaffUnfreezeEvent event) {
+        onStaffAction(event, "UNFREEZE");
+    }
+
+    @Subscribe(async = true)
+    private void onJail(StaffJailEvent event) {
+        onStaffAction(event, "JAIL");
+    }
+
+    @Subscribe(async = true)
+    private void onUnjail(StaffUnjailEvent event) {
+        onStaffAction(event, "UNJAIL");
     }
 
     private void onStaffAction(StaffActionEvent event, String actionName) {
@@ -63,6 +99,6 @@ public class CoreAuditService {
              meta.put("reason", ((StaffJailEvent) event).getReason());
         }
 
-        plugin.getEventBus().dispatch(new StaffActionAuditEvent(event.getActor(), "STAFF_" + actionName, event.getTarget(), meta));
+        publish(new StaffActionAuditEvent(event.getActor(), "STAFF_" + actionName, event.getTarget(), meta));
     }
 }
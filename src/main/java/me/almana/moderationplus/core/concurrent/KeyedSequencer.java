@@ -0,0 +1,38 @@
+package me.almana.moderationplus.core.concurrent;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+
+/**
+ * Runs asynchronous actions one after another per key, and independently across keys.
+ * <p>
+ * Each key keeps only the tail of its chain: a new action starts once the previous action's
+ * future completes, successfully or not. No thread is held while an action waits its turn, so a
+ * queued action costs one map entry and a callback. The entry is removed when the last queued
+ * action for the key finishes.
+ * <p>
+ * An action must not wait on another action for the same key, or both wait forever.
+ */
+public final class KeyedSequencer<K> {
+
+    private final ConcurrentHashMap<K, CompletableFuture<Void>> tails = new ConcurrentHashMap<>();
+
+    public <T> CompletableFuture<T> submit(K key, Supplier<CompletableFuture<T>> action) {
+        CompletableFuture<Void> done = new CompletableFuture<>();
+        CompletableFuture<Void> previous = tails.put(key, done);
+        CompletableFuture<T> result = (previous != null ? previous : CompletableFuture.<Void>completedFuture(null))
+                .thenCompose(ignored -> action.get());
+        result.whenComplete((value, error) -> {
+            // Only the newest action for a key removes the entry; otherwise the next one owns it
+            tails.remove(key, done);
+            done.complete(null);
+        });
+        return result;
+    }
+
+    // Keys with an action running or queued
+    public int size() {
+        return tails.size();
+    }
+}
@@ -0,0 +1,164 @@
+package me.almana.moderationplus.core.concurrent;
+
+import com.hypixel.hytale.logger.HytaleLogger;
+import me.almana.moderationplus.config.ConfigManager;
+import me.almana.moderationplus.core.metrics.MetricsRegistry;
+
+import java.util.Locale;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+import java.util.logging.Level;
+
+/**
+ * The plugin's own executor for blocking work (JDBC, file I/O, web calls), so none of it lands on
+ * the common pool shared with the server and other plugins.
+ * <p>
+ * "platform" runs a fixed number of daemon threads over a bounded queue. "virtual" starts a virtual
+ * thread per task and caps in-flight tasks at the queue capacity. Past either limit the rejection
+ * policy applies: "abort" (the default) fails the task with a {@link RejectedExecutionException},
+ * which fails the returned future. "caller_runs" runs it inline, but only when the submitter is
+ * already one of this executor's threads; a server thread is never handed blocking work, and
+ * gets the abort instead.
+ */
+public class ModerationExecutor implements Executor {
+
+    private enum Type {
+        PLATFORM,
+        VIRTUAL
+    }
+
+    private enum Rejection {
+        CALLER_RUNS,
+        ABORT
+    }
+
+    private static final HytaleLogger logger = HytaleLogger.forEnclosingClass();
+
+    private final Type type;
+    private final Rejection rejection;
+    private final int capacity;
+    private final ExecutorService delegate;
+    // Virtual mode only; platform mode is bounded by its queue
+    private final Semaphore permits;
+    private final AtomicInteger pending = new AtomicInteger();
+    private final AtomicInteger running = new AtomicInteger();
+    private final LongAdder submitted;
+    private final LongAdder completed;
+    private final LongAdder rejected;
+    private final LongAdder callerRuns;
+    // Marks this executor's own threads, the only ones caller_runs may borrow
+    private final ThreadLocal<Boolean> worker = ThreadLocal.withInitial(() -> Boolean.FALSE);
+
+    public ModerationExecutor(ConfigManager config, MetricsRegistry metrics) {
+        this.type = "virtual".equalsIgnoreCase(config.getExecutorType()) ? Type.VIRTUAL : Type.PLATFORM;
+        this.rejection = "caller_runs".equalsIgnoreCase(config.getExecutorRejection()) ? Rejection.CALLER_RUNS : Rejection.ABORT;
+        this.capacity = config.getExecutorQueueCapacity();
+        if (type == Type.VIRTUAL) {
+            this.delegate = Executors.newThreadPerTaskExecutor(
+                    Thread.ofVirtual().name("ModerationPlus-Virtual-", 0).factory());
+            this.permits = new Semaphore(capacity);
+        } else {
+            int threads = config.getExecutorThreads();
+            AtomicInteger count = new AtomicInteger();
+            // The policy is applied in execute(), so the pool itself always aborts
+            this.delegate = new ThreadPoolExecutor(threads, threads, 60L, TimeUnit.SECONDS,
+                    new ArrayBlockingQueue<>(capacity), runnable -> {
+                        Thread thread = new Thread(runnable, "ModerationPlus-Worker-" + count.getAndIncrement());
+                        thread.setDaemon(true);
+                        return thread;
+                    }, new ThreadPoolExecutor.AbortPolicy());
+            ((ThreadPoolExecutor) delegate).allowCoreThreadTimeOut(true);
+            this.permits = null;
+        }
+
+        this.submitted = metrics.counter("executor.submitted");
+        this.completed = metrics.counter("executor.completed");
+        this.rejected = metrics.counter("executor.rejected");
+        this.callerRuns = metrics.counter("executor.caller_runs");
+        metrics.gauge("executor.queue_depth", pending::get);
+        metrics.gauge("executor.active", running::get);
+        metrics.gauge("executor.capacity", () -> capacity);
+        logger.at(Level.INFO).log("Moderation executor: %s, queue capacity %d, %s when full",
+                type == Type.VIRTUAL ? "virtual threads" : config.getExecutorThreads() + " platform threads",
+                capacity, rejection.name().toLowerCase(Locale.ROOT));
+    }
+
+    @Override
+    public void execute(Runnable task) {
+        submitted.increment();
+        if (permits != null && !permits.tryAcquire()) {
+            reject(task);
+            return;
+        }
+        pending.incrementAndGet();
+        try {
+            delegate.execute(() -> track(task));
+        } catch (RejectedExecutionException e) {
+            pending.decrementAndGet();
+            if (permits != null) {
+                permits.release();
+            }
+            reject(task);
+        }
+    }
+
+    // supplyAsync throws a rejection at the submitter; a dependent stage turns it into a failed future
+    public <T> CompletableFuture<T> supply(Supplier<T> action) {
+        return CompletableFuture.completedFuture(null).thenApplyAsync(ignored -> action.get(), this);
+    }
+
+    public CompletableFuture<Void> run(Runnable action) {
+        return CompletableFuture.completedFuture(null).thenRunAsync(action, this);
+    }
+
+    private void track(Runnable task) {
+        pending.decrementAndGet();
+        running.incrementAndGet();
+        worker.set(Boolean.TRUE);
+        try {
+            task.run();
+        } finally {
+            worker.remove();
+            running.decrementAndGet();
+            completed.increment();
+            if (permits != null) {
+                permits.release();
+            }
+        }
+    }
+
+    private void reject(Runnable task) {
+        rejected.increment();
+        if (rejection == Rejection.CALLER_RUNS && worker.get() && !delegate.isShutdown()) {
+            callerRuns.increment();
+            task.run();
+            return;
+        }
+        throw new RejectedExecutionException("Moderation executor is full (" + capacity + " queued tasks)");
+    }
+
+    /**
+     * Stops taking work and waits briefly for queued tasks, so pending writes reach storage before it closes.
+     */
+    public void shutdown() {
+        delegate.shutdown();
+        try {
+            if (!delegate.awaitTermination(10, TimeUnit.SECONDS)) {
+                logger.at(Level.WARNING).log("Moderation executor still had %d queued tasks at shutdown", pending.get());
+                delegate.shutdownNow();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,111 @@
+package me.almana.moderationplus.core.event;
+
+import me.almana.moderationplus.api.event.ModEvent;
+import me.almana.moderationplus.api.event.Subscribe;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.function.Consumer;
+
+/**
+ * Finds {@link Subscribe} methods and turns each into a plain {@link Consumer}.
+ * Scanning and unreflecting happen once per listener class; binding another instance only binds
+ * the cached MethodHandle to it. Every listener is still called from the bus's one shared call
+ * site, so a generated invoker per method would not make dispatch any cheaper than this.
+ */
+final class ListenerScanner {
+
+    record Subscription(Class<? extends ModEvent> type, Subscribe options, MethodHandle target, boolean isStatic,
+            String name) {
+
+        Consumer<ModEvent> bind(Object owner) {
+            MethodHandle bound = isStatic ? target : target.bindTo(owner);
+            return event -> invoke(bound, event);
+        }
+
+        private static void invoke(MethodHandle target, ModEvent event) {
+            try {
+                target.invokeExact(event);
+            } catch (RuntimeException | Error e) {
+                throw e;
+            } catch (Throwable t) {
+                throw new IllegalStateException(t);
+            }
+        }
+    }
+
+    private static final ClassValue<List<Subscription>> SCANNED = new ClassValue<>() {
+        @Override
+        protected List<Subscription> computeValue(Class<?> type) {
+            return scan(type, MethodHandles.lookup());
+        }
+    };
+
+    private ListenerScanner() {
+    }
+
+    static List<Subscription> subscriptions(Class<?> listenerClass) {
+        return SCANNED.get(listenerClass);
+    }
+
+    // Compiled against the caller's lookup, so not cached: the same class may be handed in with different access
+    static List<Subscription> subscriptions(Class<?> listenerClass, MethodHandles.Lookup lookup) {
+        return scan(listenerClass, lookup);
+    }
+
+    private static List<Subscription> scan(Class<?> listenerClass, MethodHandles.Lookup lookup) {
+        List<Subscription> found = new ArrayList<>();
+        Set<String> seen = new HashSet<>();
+        for (Class<?> type = listenerClass; type != null && type != Object.class; type = type.getSuperclass()) {
+            for (Method method : type.getDeclaredMethods()) {
+                Subscribe options = method.getAnnotation(Subscribe.class);
+                // A subclass override replaces the method it overrides rather than adding a second listener
+                if (options != null && !method.isBridge()
+                        && seen.add(method.getName() + Arrays.toString(method.getParameterTypes()))) {
+                    found.add(compile(type, method, options, lookup));
+                }
+            }
+        }
+        return List.copyOf(found);
+    }
+
+    @SuppressWarnings("unchecked")
+    private static Subscription compile(Class<?> owner, Method method, Subscribe options, MethodHandles.Lookup lookup) {
+        Class<?>[] params = method.getParameterTypes();
+        if (params.length != 1 || !ModEvent.class.isAssignableFrom(params[0]) || method.getReturnType() != void.class) {
+            throw new IllegalArgumentException("@Subscribe method " + owner.getName() + "." + method.getName()
+                    + " must return void and take exactly one ModEvent parameter");
+        }
+        Class<? extends ModEvent> eventType = (Class<? extends ModEvent>) params[0];
+        boolean isStatic = Modifier.isStatic(method.getModifiers());
+        String name = owner.getSimpleName() + "#" + method.getName();
+        try {
+            MethodHandle target = accessTo(owner, lookup).unreflect(method);
+            // (Owner, Event) or (Event), seen as taking any ModEvent so the bus can invoke it exactly
+            return new Subscription(eventType, options,
+                    target.asType(target.type().changeParameterType(isStatic ? 0 : 1, ModEvent.class)), isStatic, name);
+        } catch (IllegalAccessException e) {
+            throw new IllegalArgumentException("Cannot access @Subscribe method " + owner.getName() + "."
+                    + method.getName(), e);
+        }
+    }
+
+    // Private access to the declaring class when the lookup can be widened to it, else the lookup as given
+    private static MethodHandles.Lookup accessTo(Class<?> owner, MethodHandles.Lookup lookup) {
+        if (lookup.lookupClass() == owner) {
+            return lookup;
+        }
+        try {
+            return MethodHandles.privateLookupIn(owner, lookup);
+        } catch (IllegalAccessException | SecurityException e) {
+            return lookup;
+        }
+    }
+}
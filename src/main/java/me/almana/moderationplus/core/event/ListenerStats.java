@@ -0,0 +1,126 @@
+package me.almana.moderationplus.core.event;
+
+import me.almana.moderationplus.api.event.EventPriority;
+
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Latency of one registered listener, kept in power-of-two buckets from 1 microsecond up.
+ * Recording is a few adder increments, so it is cheap enough to leave on for every dispatch.
+ */
+public final class ListenerStats {
+
+    private static final int BUCKETS = 24;
+    // Bucket 0 holds everything under 2^MIN_SHIFT ns (~1us), the last bucket everything over ~8s
+    private static final int MIN_SHIFT = 10;
+    private static final long WARN_INTERVAL_NANOS = 60_000_000_000L;
+
+    private final String name;
+    private final Class<?> eventType;
+    private final EventPriority priority;
+    private final boolean async;
+    private final LongAdder[] buckets = new LongAdder[BUCKETS];
+    private final LongAdder count = new LongAdder();
+    private final LongAdder totalNanos = new LongAdder();
+    private final LongAdder slow = new LongAdder();
+    private final LongAccumulator maxNanos = new LongAccumulator(Math::max, 0);
+    private volatile long lastWarnAt;
+
+    ListenerStats(String name, Class<?> eventType, EventPriority priority, boolean async) {
+        this.name = name;
+        this.eventType = eventType;
+        this.priority = priority;
+        this.async = async;
+        for (int i = 0; i < BUCKETS; i++) {
+            buckets[i] = new LongAdder();
+        }
+    }
+
+    /**
+     * Records one call; true when it ran over budget and no warning was logged for this listener
+     * in the last minute.
+     */
+    boolean record(long nanos, long budgetNanos) {
+        int bucket = Math.min(BUCKETS - 1, Math.max(0, 63 - Long.numberOfLeadingZeros(nanos) - MIN_SHIFT + 1));
+        buckets[bucket].increment();
+        count.increment();
+        totalNanos.add(nanos);
+        maxNanos.accumulate(nanos);
+        if (budgetNanos <= 0 || nanos <= budgetNanos) {
+            return false;
+        }
+        slow.increment();
+        long now = System.nanoTime();
+        if (lastWarnAt != 0 && now - lastWarnAt < WARN_INTERVAL_NANOS) {
+            return false;
+        }
+        lastWarnAt = now;
+        return true;
+    }
+
+    public String name() {
+        return name;
+    }
+
+    public Class<?> eventType() {
+        return eventType;
+    }
+
+    public EventPriority priority() {
+        return priority;
+    }
+
+    public boolean async() {
+        return async;
+    }
+
+    public long count() {
+        return count.sum();
+    }
+
+    public long totalNanos() {
+        return totalNanos.sum();
+    }
+
+    public long maxNanos() {
+        return maxNanos.get();
+    }
+
+    public long slowCount() {
+        return slow.sum();
+    }
+
+    // Upper bound of the bucket holding the given percentile, so it never understates
+    public long percentileNanos(double percentile) {
+        long total = 0;
+        long[] counts = new long[BUCKETS];
+        for (int i = 0; i < BUCKETS; i++) {
+            counts[i] = buckets[i].sum();
+            total += counts[i];
+        }
+        if (total == 0) {
+            return 0;
+        }
+        long rank = (long) Math.ceil(total * percentile / 100.0);
+        long seen = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            seen += counts[i];
+            if (seen >= rank) {
+                return Math.min(1L << (i + MIN_SHIFT), maxNanos());
+            }
+        }
+        return maxNanos();
+    }
+
+    public void reset() {
+        for (LongAdder bucket : buckets) {
+            bucket.reset();
+        }
+        count.reset();
+        totalNanos.reset();
+        slow.reset();
+        maxNanos.reset();
+        lastWarnAt = 0;
+    }
+}
@@ -4,26 +4,134 @@ import me.almana.moderationplus.api.event.Cancellable;
 import me.almana.moderationplus.api.event.EventBus;
 import me.almana.moderationplus.api.event.EventPriority;
 import me.almana.moderationplus.api.event.ModEvent;
+import me.almana.moderationplus.api.event.Subscribe;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.lang.invoke.MethodHandles;
+import java.util.ArrayDeque;
 import java.util.ArrayList;
-import java.util.Collections;
-import java.util.EnumMap;
+import java.util.Comparator;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
 import java.util.function.Consumer;
 
+/**
+ * Dispatches events to listeners registered for the event's class or any of its supertypes.
+ * Registration rebuilds nothing eagerly; the first dispatch of each concrete event class resolves
+ * its hierarchy once and caches a priority-sorted array, so later dispatches only walk that array.
+ * <p>
+ * Listeners registered with {@link #registerAsync} run after the synchronous ones, on a small pool
+ * of daemon threads. Each event class always lands on the same single-threaded lane, so async
+ * listeners see events of one type in dispatch order. When a lane's queue is full the event is
+ * dropped for its async listeners and counted; it is never run on the dispatching thread.
+ * <p>
+ * With timing on, every listener call is measured into its {@link ListenerStats}, and calls over
+ * the budget are logged (at most once a minute per listener). With timing off, dispatch reads one
+ * volatile flag and nothing else.
+ */
 public class SyncEventBus implements EventBus {
 
-    private final Map<Class<? extends ModEvent>, List<RegisteredListener>> listeners = new ConcurrentHashMap<>();
+    private static final RegisteredListener[] NONE = new RegisteredListener[0];
+    private static final Lanes EMPTY = new Lanes(NONE, NONE);
+    private static final int ASYNC_LANES = 2;
+    private static final int ASYNC_QUEUE_CAPACITY = 4096;
+    private static final long DROP_WARNING_INTERVAL_NANOS = TimeUnit.MINUTES.toNanos(1);
+    private static final Comparator<RegisteredListener> ORDER = Comparator
+            .<RegisteredListener>comparingInt(reg -> reg.priority.getSlot())
+            .thenComparingLong(reg -> reg.sequence);
+
+    // Registrations by the type they were registered for; guarded by lock
+    private final Map<Class<?>, List<RegisteredListener>> listeners = new HashMap<>();
+    // Concrete event class -> every matching listener in dispatch order
+    private final Map<Class<?>, Lanes> dispatchCache = new ConcurrentHashMap<>();
+    private final ThreadPoolExecutor[] asyncLanes = new ThreadPoolExecutor[ASYNC_LANES];
+    private final Object lock = new Object();
     private final Logger logger = LoggerFactory.getLogger(SyncEventBus.class);
+    private long sequence;
+    private volatile boolean timing;
+    private volatile long budgetNanos;
+    private final LongAdder droppedAsync = new LongAdder();
+    private volatile long lastDropWarning;
+
+    public SyncEventBus() {
+        for (int i = 0; i < ASYNC_LANES; i++) {
+            String name = "ModerationPlus-Events-" + i;
+            asyncLanes[i] = new ThreadPoolExecutor(1, 1, 0L, TimeUnit.MILLISECONDS,
+                    new ArrayBlockingQueue<>(ASYNC_QUEUE_CAPACITY), runnable -> {
+                        Thread thread = new Thread(runnable, name);
+                        thread.setDaemon(true);
+                        return thread;
+                    });
+        }
+    }
 
     @Override
     public <T extends ModEvent> void register(Class<T> type, EventPriority priority, boolean ignoreCancelled, Consumer<T> listener) {
-        listeners.computeIfAbsent(type, k -> Collections.synchronizedList(new ArrayList<>()))
-                .add(new RegisteredListener(priority, ignoreCancelled, listener));
+        synchronized (lock) {
+            add(type, new RegisteredListener(priority, ignoreCancelled, false, listener, null, nameOf(listener)));
+        }
+    }
+
+    @Override
+    public <T extends ModEvent> void registerAsync(Class<T> type, Consumer<T> listener) {
+        synchronized (lock) {
+            add(type, new RegisteredListener(EventPriority.MONITOR, true, true, listener, null, nameOf(listener)));
+        }
+    }
+
+    @Override
+    public void subscribe(Object listener) {
+        addSubscriptions(listener, ListenerScanner.subscriptions(listener.getClass()));
+    }
+
+    @Override
+    public void subscribe(Object listener, MethodHandles.Lookup lookup) {
+        addSubscriptions(listener, ListenerScanner.subscriptions(listener.getClass(), lookup));
+    }
+
+    private void addSubscriptions(Object listener, List<ListenerScanner.Subscription> subscriptions) {
+        if (subscriptions.isEmpty()) {
+            throw new IllegalArgumentException(listener.getClass().getName() + " has no @Subscribe methods");
+        }
+        synchronized (lock) {
+            for (ListenerScanner.Subscription sub : subscriptions) {
+                Subscribe options = sub.options();
+                RegisteredListener reg = options.async()
+                        ? new RegisteredListener(EventPriority.MONITOR, true, true, sub.bind(listener), listener, sub.name())
+                        : new RegisteredListener(options.priority(), options.ignoreCancelled(), false, sub.bind(listener),
+                                listener, sub.name());
+                add(sub.type(), reg);
+            }
+        }
+    }
+
+    @Override
+    public void unsubscribe(Object listener) {
+        synchronized (lock) {
+            listeners.values().forEach(list -> list.removeIf(reg -> reg.owner == listener));
+            listeners.values().removeIf(List::isEmpty);
+            dispatchCache.clear();
+        }
+    }
+
+    // Caller holds lock
+    private void add(Class<?> type, RegisteredListener reg) {
+        reg.sequence = sequence++;
+        reg.stats = new ListenerStats(reg.name, type, reg.priority, reg.async);
+        listeners.computeIfAbsent(type, k -> new ArrayList<>()).add(reg);
+        // Any cached class may have this type as a supertype; rebuilt lazily on next dispatch
+        dispatchCache.clear();
     }
 
     @Override
@@ -31,35 +139,79 @@ public class SyncEventBus implements EventBus {
         register(type, priority, false, listener);
     }
 
-    @SuppressWarnings("unchecked")
+    @Override
+    public boolean hasSyncListeners(Class<? extends ModEvent> type) {
+        return lanesFor(type).sync.length > 0;
+    }
+
+    public void configureTiming(boolean enabled, long budgetMillis) {
+        this.budgetNanos = TimeUnit.MILLISECONDS.toNanos(budgetMillis);
+        this.timing = enabled;
+    }
+
+    public boolean isTiming() {
+        return timing;
+    }
+
+    public long getBudgetMillis() {
+        return TimeUnit.NANOSECONDS.toMillis(budgetNanos);
+    }
+
+    public List<ListenerStats> listenerStats() {
+        List<ListenerStats> stats = new ArrayList<>();
+        synchronized (lock) {
+            listeners.values().forEach(list -> list.forEach(reg -> stats.add(reg.stats)));
+        }
+        return stats;
+    }
+
+    public void resetListenerStats() {
+        listenerStats().forEach(ListenerStats::reset);
+    }
+
     @Override
     public void dispatch(ModEvent event) {
-        List<RegisteredListener> eventListeners = listeners.get(event.getClass());
-        if (eventListeners == null || eventListeners.isEmpty()) return;
+        Lanes lanes = lanesFor(event.getClass());
+        if (lanes.sync.length > 0) {
+            dispatchSync(event, lanes.sync);
+        }
+        if (lanes.async.length > 0) {
+            dispatchAsync(event, lanes.async);
+        }
+    }
 
-        List<RegisteredListener> sorted;
-        synchronized (eventListeners) {
-            sorted = new ArrayList<>(eventListeners);
+    /**
+     * Stops the async lanes, giving queued events a moment to drain.
+     */
+    public void shutdown() {
+        for (ThreadPoolExecutor lane : asyncLanes) {
+            lane.shutdown();
         }
-        sorted.sort((a, b) -> Integer.compare(a.priority.getSlot(), b.priority.getSlot()));
+        try {
+            for (ThreadPoolExecutor lane : asyncLanes) {
+                lane.awaitTermination(5, TimeUnit.SECONDS);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
 
+    private void dispatchSync(ModEvent event, RegisteredListener[] sorted) {
+        Cancellable cancellable = event instanceof Cancellable ? (Cancellable) event : null;
         for (RegisteredListener reg : sorted) {
-            if (event instanceof Cancellable) {
-                Cancellable c = (Cancellable) event;
-                if (c.isCancelled() && !reg.ignoreCancelled && reg.priority != EventPriority.MONITOR) {
-                    continue;
-                }
+            if (cancellable != null && cancellable.isCancelled() && !reg.ignoreCancelled && !reg.monitor) {
+                continue;
             }
             try {
-                if (reg.priority == EventPriority.MONITOR && event instanceof Cancellable) {
-                   boolean wasCancelled = ((Cancellable) event).isCancelled();
-                   ((Consumer<ModEvent>) reg.listener).accept(event);
-                   if (((Cancellable) event).isCancelled() != wasCancelled) {
-                        ((Cancellable) event).setCancelled(wasCancelled); // Revert
+                if (reg.monitor && cancellable != null) {
+                   boolean wasCancelled = cancellable.isCancelled();
+                   invoke(reg, event);
+                   if (cancellable.isCancelled() != wasCancelled) {
+                        cancellable.setCancelled(wasCancelled); // Revert
                         logger.warn("MONITOR listener attempted to change cancellation state!");
                    }
                 } else {
-                    ((Consumer<ModEvent>) reg.listener).accept(event);
+                    invoke(reg, event);
                 }
             } catch (Exception e) {
                 logger.error("Error dispatching event " + event.getClass().getSimpleName(), e);
@@ -67,15 +219,152 @@ public class SyncEventBus implements EventBus {
         }
     }
 
+    // Async listeners only observe: they run after every sync listener, whatever the cancellation state
+    private void dispatchAsync(ModEvent event, RegisteredListener[] sorted) {
+        Runnable task = () -> {
+            for (RegisteredListener reg : sorted) {
+                try {
+                    invoke(reg, event);
+                } catch (Exception e) {
+                    logger.error("Error in async listener for " + event.getClass().getSimpleName(), e);
+                }
+            }
+        };
+        ThreadPoolExecutor lane = asyncLanes[Math.floorMod(event.getClass().hashCode(), ASYNC_LANES)];
+        try {
+            lane.execute(task);
+        } catch (RejectedExecutionException e) {
+            // Running here would put slow listeners back on the main thread and break per-type order
+            if (!lane.isShutdown()) {
+                dropped(event);
+            }
+        }
+    }
+
+    private void dropped(ModEvent event) {
+        droppedAsync.increment();
+        long now = System.nanoTime();
+        long last = lastDropWarning;
+        if (now - last >= DROP_WARNING_INTERVAL_NANOS || last == 0) {
+            lastDropWarning = now;
+            logger.warn("Async event lane full, dropped " + event.getClass().getSimpleName()
+                    + " for its async listeners (" + droppedAsync.sum() + " dropped so far)");
+        }
+    }
+
+    // Events whose async listeners never ran because their lane was full
+    public long droppedAsyncEvents() {
+        return droppedAsync.sum();
+    }
+
+    @SuppressWarnings("unchecked")
+    private void invoke(RegisteredListener reg, ModEvent event) {
+        if (!timing) {
+            ((Consumer<ModEvent>) reg.listener).accept(event);
+            return;
+        }
+        long start = System.nanoTime();
+        try {
+            ((Consumer<ModEvent>) reg.listener).accept(event);
+        } finally {
+            long elapsed = System.nanoTime() - start;
+            if (reg.stats.record(elapsed, budgetNanos)) {
+                logger.warn("Slow event listener " + reg.stats.name() + " took "
+                        + TimeUnit.NANOSECONDS.toMillis(elapsed) + "ms on " + event.getClass().getSimpleName()
+                        + " (budget " + getBudgetMillis() + "ms" + (reg.async ? ", async" : ", blocks the caller") + ")");
+            }
+        }
+    }
+
+    private Lanes lanesFor(Class<?> eventClass) {
+        Lanes cached = dispatchCache.get(eventClass);
+        if (cached != null) {
+            return cached;
+        }
+        // Resolved under the registration lock so a concurrent register cannot be cached over
+        synchronized (lock) {
+            cached = dispatchCache.get(eventClass);
+            if (cached == null) {
+                cached = resolve(eventClass);
+                dispatchCache.put(eventClass, cached);
+            }
+            return cached;
+        }
+    }
+
+    private Lanes resolve(Class<?> eventClass) {
+        List<RegisteredListener> sync = new ArrayList<>();
+        List<RegisteredListener> async = new ArrayList<>();
+        for (Class<?> type : hierarchy(eventClass)) {
+            List<RegisteredListener> registered = listeners.get(type);
+            if (registered != null) {
+                for (RegisteredListener reg : registered) {
+                    (reg.async ? async : sync).add(reg);
+                }
+            }
+        }
+        if (sync.isEmpty() && async.isEmpty()) {
+            return EMPTY;
+        }
+        sync.sort(ORDER);
+        async.sort(ORDER);
+        return new Lanes(sync.toArray(NONE), async.toArray(NONE));
+    }
+
+    // Lambdas are named after the class that declared them, e.g. CoreAuditService$$Lambda/0x... -> CoreAuditService
+    private static String nameOf(Consumer<?> listener) {
+        String name = listener.getClass().getName();
+        int lambda = name.indexOf("$$Lambda");
+        if (lambda >= 0) {
+            name = name.substring(0, lambda);
+        }
+        return name.substring(name.lastIndexOf('.') + 1);
+    }
+
+    // The class itself, its superclasses and every interface it implements
+    private static Set<Class<?>> hierarchy(Class<?> eventClass) {
+        Set<Class<?>> types = new LinkedHashSet<>();
+        Deque<Class<?>> pending = new ArrayDeque<>();
+        pending.add(eventClass);
+        while (!pending.isEmpty()) {
+            Class<?> type = pending.poll();
+            if (!types.add(type)) {
+                continue;
+            }
+            if (type.getSuperclass() != null) {
+                pending.add(type.getSuperclass());
+            }
+            for (Class<?> iface : type.getInterfaces()) {
+                pending.add(iface);
+            }
+        }
+        return types;
+    }
+
+    private record Lanes(RegisteredListener[] sync, RegisteredListener[] async) {
+    }
+
     private static class RegisteredListener {
         final EventPriority priority;
+        final boolean monitor;
         final boolean ignoreCancelled;
+        final boolean async;
         final Consumer<?> listener;
+        // The subscribed object, or null for lambda registrations
+        final Object owner;
+        final String name;
+        long sequence;
+        ListenerStats stats;
 
-        RegisteredListener(EventPriority priority, boolean ignoreCancelled, Consumer<?> listener) {
+        RegisteredListener(EventPriority priority, boolean ignoreCancelled, boolean async, Consumer<?> listener, Object owner,
+                String name) {
             this.priority = priority;
+            this.monitor = priority == EventPriority.MONITOR;
             this.ignoreCancelled = ignoreCancelled;
+            this.async = async;
             this.listener = listener;
+            this.owner = owner;
+            this.name = name;
         }
     }
 }
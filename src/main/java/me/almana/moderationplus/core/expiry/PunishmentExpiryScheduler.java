@@ -0,0 +1,107 @@
+package me.almana.moderationplus.core.expiry;
+
+import com.hypixel.hytale.logger.HytaleLogger;
+import com.hypixel.hytale.server.core.HytaleServer;
+import me.almana.moderationplus.ModerationPlus;
+import me.almana.moderationplus.storage.ActivePunishmentIndex;
+import me.almana.moderationplus.storage.Punishment;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.logging.Level;
+
+/**
+ * Expires temporary bans, mutes and jails on time.
+ * Every active punishment with an expires_at is fed in through the active index, held in a
+ * timer wheel, and deactivated in one batched UPDATE per tick once due.
+ */
+public class PunishmentExpiryScheduler {
+
+    private static final HytaleLogger logger = HytaleLogger.forEnclosingClass();
+    private static final long TICK_MILLIS = 1000;
+
+    private final ModerationPlus plugin;
+    // Filled from any thread, drained into the wheel on the scheduler thread
+    private final Queue<Expiring> incoming = new ConcurrentLinkedQueue<>();
+    private final LongAdder expiredCount = new LongAdder();
+    private TimerWheel<Expiring> wheel;
+    private volatile int pending;
+    private ScheduledFuture<?> task;
+
+    public PunishmentExpiryScheduler(ModerationPlus plugin) {
+        this.plugin = plugin;
+    }
+
+    public void schedule(UUID uuid, Punishment punishment) {
+        if (punishment.expiresAt() > 0) {
+            incoming.add(new Expiring(uuid, punishment));
+        }
+    }
+
+    public void start() {
+        wheel = new TimerWheel<>(TICK_MILLIS, System.currentTimeMillis());
+        plugin.getMetrics().gauge("expiry.pending", () -> pending + incoming.size());
+        plugin.getMetrics().gauge("expiry.expired", expiredCount::sum);
+        task = HytaleServer.SCHEDULED_EXECUTOR.scheduleAtFixedRate(this::tick, TICK_MILLIS, TICK_MILLIS,
+                TimeUnit.MILLISECONDS);
+    }
+
+    public void stop() {
+        if (task != null) {
+            task.cancel(false);
+        }
+    }
+
+    private void tick() {
+        try {
+            Expiring next;
+            while ((next = incoming.poll()) != null) {
+                wheel.schedule(next.punishment().expiresAt(), next);
+            }
+
+            List<Expiring> due = wheel.advance(System.currentTimeMillis());
+            pending = wheel.size();
+            if (due.isEmpty()) {
+                return;
+            }
+
+            // Anything revoked by staff since it was scheduled is no longer in the index
+            ActivePunishmentIndex index = plugin.getStorageManager().getActivePunishmentIndex();
+            Map<Integer, Expiring> byId = new HashMap<>();
+            for (Expiring expiring : due) {
+                if (index.contains(expiring.punishment().id())) {
+                    byId.put(expiring.punishment().id(), expiring);
+                }
+            }
+            if (byId.isEmpty()) {
+                return;
+            }
+
+            plugin.getStorageManager().expirePunishments(byId.keySet())
+                    .thenAccept(ids -> {
+                        expiredCount.add(ids.size());
+                        for (int id : ids) {
+                            Expiring expiring = byId.get(id);
+                            plugin.getModerationService().handleExpiredPunishment(expiring.uuid(), expiring.punishment());
+                        }
+                    })
+                    .exceptionally(e -> {
+                        logger.at(Level.SEVERE).withCause(e).log("Failed to expire %d punishments, retrying", byId.size());
+                        incoming.addAll(byId.values());
+                        return null;
+                    });
+        } catch (Exception e) {
+            logger.at(Level.SEVERE).withCause(e).log("Error in punishment expiry tick");
+        }
+    }
+
+    private record Expiring(UUID uuid, Punishment punishment) {
+    }
+}
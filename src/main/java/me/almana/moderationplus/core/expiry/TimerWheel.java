@@ -0,0 +1,113 @@
+package me.almana.moderationplus.core.expiry;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Hierarchical timing wheel: four levels of 64 slots, so one tick of work is O(expiring entries)
+ * regardless of how many timers are pending. Deadlines beyond the top level wait in an overflow list.
+ * Not thread-safe; driven by a single thread.
+ */
+public class TimerWheel<T> {
+
+    private static final int SLOT_BITS = 6;
+    private static final int SLOTS = 1 << SLOT_BITS;
+    private static final int MASK = SLOTS - 1;
+    private static final int LEVELS = 4;
+
+    private final long tickMillis;
+    private final List<List<Entry<T>>> slots = new ArrayList<>(LEVELS * SLOTS);
+    private final List<Entry<T>> overflow = new ArrayList<>();
+    private final List<Entry<T>> due = new ArrayList<>();
+    private long currentTick;
+    private int size;
+
+    public TimerWheel(long tickMillis, long nowMillis) {
+        this.tickMillis = tickMillis;
+        this.currentTick = nowMillis / tickMillis;
+        for (int i = 0; i < LEVELS * SLOTS; i++) {
+            slots.add(new ArrayList<>(0));
+        }
+    }
+
+    public void schedule(long deadlineMillis, T item) {
+        // Round up so nothing fires before its deadline
+        long tick = (deadlineMillis + tickMillis - 1) / tickMillis;
+        place(new Entry<>(tick, item));
+        size++;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    // Moves the wheel forward to nowMillis and returns everything whose deadline has passed
+    public List<T> advance(long nowMillis) {
+        long target = nowMillis / tickMillis;
+        List<T> expired = new ArrayList<>();
+        drainDue(expired);
+
+        while (currentTick < target) {
+            currentTick++;
+            for (int level = 1; level < LEVELS; level++) {
+                // A higher slot cascades only when every lower digit has wrapped to zero
+                if ((currentTick & ((1L << (SLOT_BITS * level)) - 1)) != 0) {
+                    break;
+                }
+                cascade(level);
+                if (level == LEVELS - 1) {
+                    List<Entry<T>> pending = new ArrayList<>(overflow);
+                    overflow.clear();
+                    for (Entry<T> entry : pending) {
+                        place(entry);
+                    }
+                }
+            }
+
+            List<Entry<T>> slot = slots.get((int) (currentTick & MASK));
+            due.addAll(slot);
+            slot.clear();
+            drainDue(expired);
+        }
+        return expired;
+    }
+
+    private void cascade(int level) {
+        List<Entry<T>> slot = slots.get(level * SLOTS + (int) ((currentTick >>> (SLOT_BITS * level)) & MASK));
+        if (slot.isEmpty()) {
+            return;
+        }
+        List<Entry<T>> entries = new ArrayList<>(slot);
+        slot.clear();
+        for (Entry<T> entry : entries) {
+            place(entry);
+        }
+    }
+
+    private void place(Entry<T> entry) {
+        long delta = entry.tick - currentTick;
+        if (delta <= 0) {
+            due.add(entry);
+            return;
+        }
+        for (int level = 0; level < LEVELS; level++) {
+            if (delta < (1L << (SLOT_BITS * (level + 1)))) {
+                int index = (int) ((entry.tick >>> (SLOT_BITS * level)) & MASK);
+                slots.get(level * SLOTS + index).add(entry);
+                return;
+            }
+        }
+        overflow.add(entry);
+    }
+
+    private void drainDue(List<T> expired) {
+        for (Entry<T> entry : due) {
+            expired.add(entry.item);
+        }
+        size -= due.size();
+        due.clear();
+    }
+
+    private record Entry<T>(long tick, T item) {
+    }
+}
@@ -0,0 +1,32 @@
+package me.almana.moderationplus.core.metrics;
+
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.LongSupplier;
+
+/**
+ * Named counters and gauges for internal subsystems, shown by /moderationplus metrics.
+ */
+public class MetricsRegistry {
+
+    private final Map<String, LongAdder> counters = new ConcurrentHashMap<>();
+    private final Map<String, LongSupplier> gauges = new ConcurrentHashMap<>();
+
+    public LongAdder counter(String name) {
+        return counters.computeIfAbsent(name, k -> new LongAdder());
+    }
+
+    public void gauge(String name, LongSupplier supplier) {
+        gauges.put(name, supplier);
+    }
+
+    // Sorted by name so related metrics group together
+    public Map<String, Long> snapshot() {
+        Map<String, Long> values = new TreeMap<>();
+        counters.forEach((name, adder) -> values.put(name, adder.sum()));
+        gauges.forEach((name, supplier) -> values.put(name, supplier.getAsLong()));
+        return values;
+    }
+}
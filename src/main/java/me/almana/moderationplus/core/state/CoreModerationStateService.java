@@ -1,6 +1,8 @@
 package me.almana.moderationplus.core.state;
 
 import me.almana.moderationplus.ModerationPlus;
+import me.almana.moderationplus.api.ModerationConstants;
+import me.almana.moderationplus.api.event.Subscribe;
 import me.almana.moderationplus.api.event.punishment.PunishmentAppliedEvent;
 import me.almana.moderationplus.api.event.punishment.PunishmentExpiredEvent;
 import me.almana.moderationplus.api.event.state.PlayerModerationStateChangeEvent;
@@ -9,13 +11,20 @@ import me.almana.moderationplus.api.punishment.PunishmentType;
 import me.almana.moderationplus.api.state.ModerationState;
 import me.almana.moderationplus.api.state.ModerationStateService;
 import me.almana.moderationplus.core.punishment.DefaultPunishmentTypes;
+import me.almana.moderationplus.storage.ActivePunishmentIndex;
 
+import java.time.Duration;
+import java.util.List;
 import java.util.Map;
 import java.util.UUID;
 import java.util.concurrent.ConcurrentHashMap;
 
 public class CoreModerationStateService implements ModerationStateService {
 
+    // Types that stay active across a session and are held in the index
+    private static final List<PunishmentType> SESSION_TYPES = List.of(
+            DefaultPunishmentTypes.BAN, DefaultPunishmentTypes.MUTE, DefaultPunishmentTypes.JAIL);
+
     private final ModerationPlus plugin;
     private final Map<UUID, CoreModerationState> stateCache = new ConcurrentHashMap<>();
 
@@ -28,11 +37,36 @@ public class CoreModerationStateService implements ModerationStateService {
         return stateCache.computeIfAbsent(player, k -> new CoreModerationState());
     }
 
+    /**
+     * Seeds a joining player's state from the active punishment index, so API reads for the rest
+     * of the session never query. Nothing changed, so no state change events are fired.
+     */
+    public void load(UUID player, ActivePunishmentIndex index) {
+        CoreModerationState state = (CoreModerationState) getState(player);
+        for (PunishmentType type : SESSION_TYPES) {
+            List<me.almana.moderationplus.storage.Punishment> active = index.get(player, type.id());
+            if (!active.isEmpty() && state.getActive(type).isEmpty()) {
+                state.addPunishment(toApi(player, type, active.get(0)));
+            }
+        }
+    }
+
+    private static Punishment toApi(UUID player, PunishmentType type, me.almana.moderationplus.storage.Punishment p) {
+        UUID actor;
+        try {
+            actor = UUID.fromString(p.issuerUuid());
+        } catch (IllegalArgumentException | NullPointerException e) {
+            actor = ModerationConstants.CONSOLE_UUID;
+        }
+        Duration duration = p.expiresAt() > 0 ? Duration.ofMillis(p.expiresAt() - p.createdAt()) : null;
+        return new Punishment(UUID.randomUUID(), player, actor, type, duration, p.reason(), false);
+    }
+
     public void init() {
-        plugin.getEventBus().register(PunishmentAppliedEvent.class, this::onPunishmentApplied);
-        plugin.getEventBus().register(PunishmentExpiredEvent.class, this::onPunishmentExpired);
+        plugin.getEventBus().subscribe(this);
     }
 
+    @Subscribe
     private void onPunishmentApplied(PunishmentAppliedEvent event) {
         Punishment p = event.getPunishment();
         if (p == null || p.target() == null) return;
@@ -54,6 +88,7 @@ public class CoreModerationStateService implements ModerationStateService {
         }
     }
 
+    @Subscribe
     private void onPunishmentExpired(PunishmentExpiredEvent event) {
         Punishment p = event.getPunishment();
         if (p == null || p.target() == null) return;
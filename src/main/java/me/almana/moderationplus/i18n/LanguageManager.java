@@ -308,6 +308,11 @@ public class LanguageManager {
         }
     }
 
+    // Seeds the cache from a row already read elsewhere (the join upsert), unless a change got there first
+    public void primeLocale(java.util.UUID uuid, java.util.Optional<String> locale) {
+        localeCache.putIfAbsent(uuid, locale);
+    }
+
     public void clearCache(java.util.UUID uuid) {
         localeCache.remove(uuid);
     }
@@ -45,6 +45,8 @@ public class ModerationListeners {
     public void onPlayerDisconnect(PlayerDisconnectEvent event) {
         plugin.getVanishedSnapshots().remove(event.getPlayerRef().getUuid());
         plugin.removeVanishedPlayer(event.getPlayerRef().getUuid());
+        // Primed again from the next join's upsert
+        plugin.getLanguageManager().clearCache(event.getPlayerRef().getUuid());
     }
 
     // Handles chat locking and mutes
@@ -12,6 +12,9 @@ import com.hypixel.hytale.server.core.universe.PlayerRef;
 import com.hypixel.hytale.server.core.universe.Universe;
 import com.hypixel.hytale.server.core.universe.world.World;
 import me.almana.moderationplus.ModerationPlus;
+import me.almana.moderationplus.core.concurrent.KeyedSequencer;
+import me.almana.moderationplus.core.concurrent.ModerationExecutor;
+import me.almana.moderationplus.storage.ActivePunishmentIndex;
 import me.almana.moderationplus.storage.Punishment;
 import me.almana.moderationplus.storage.StorageManager.PlayerData;
 import me.almana.moderationplus.utils.TimeUtils;
@@ -27,453 +30,437 @@ import me.almana.moderationplus.api.event.punishment.PunishmentAppliedEvent;
 import me.almana.moderationplus.api.event.punishment.PunishmentExpiredEvent;
 import me.almana.moderationplus.api.event.punishment.PunishmentPreApplyEvent;
 import me.almana.moderationplus.core.punishment.DefaultPunishmentTypes;
+import me.almana.moderationplus.core.state.CoreModerationStateService;
 import java.time.Duration;
 import com.hypixel.hytale.server.core.HytaleServer;
 import com.hypixel.hytale.server.core.permissions.PermissionsModule;
 import me.almana.moderationplus.api.event.ModEvent;
 import java.util.Map;
 import java.util.Optional;
-
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletionException;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * Moderation actions as chains of stages: database work on a worker, event dispatch on the main
+ * thread, more database work back on a worker, and world changes on the world's executor.
+ * Each stage is scheduled when the previous one completes, so no worker ever parks waiting for
+ * the main thread. Worker stages run on the plugin's own executor.
+ * <p>
+ * Actions are queued per target player, so two staff members acting on the same player at once
+ * see each other's result instead of both passing the same checks.
+ */
 public class ModerationService {
 
     private final ModerationPlus plugin;
+    private final ModerationExecutor executor;
+    // Actions on one player run in order; actions on different players run in parallel
+    private final KeyedSequencer<UUID> targets = new KeyedSequencer<>();
 
     public ModerationService(ModerationPlus plugin) {
         this.plugin = plugin;
+        this.executor = plugin.getExecutor();
+        plugin.getMetrics().gauge("moderation.targets_in_flight", targets::size);
     }
 
-    private void dispatchSync(ModEvent event) {
-        // Enforce dispatch on the server's Scheduled Executor (Main/Scheduler Thread)
-        // Blocks the async worker thread until the event is handled, ensuring thread safety and memory consistency.
-        CompletableFuture.runAsync(() -> plugin.getEventBus().dispatch(event), HytaleServer.SCHEDULED_EXECUTOR).join();
+    // State carried from one stage of an action to the next; a stage returns null to stop the action
+    private static final class Action {
+        PlayerRef ref;
+        String name;
+        int playerId;
+        me.almana.moderationplus.api.punishment.Punishment punishment;
+        long duration;
+        long expiresAt;
+        String location;
     }
 
-    public CompletableFuture<Boolean> ban(UUID targetUuid, String targetName, String reason, ExecutionContext context) {
-        return CompletableFuture.supplyAsync(() -> {
-            try {
-                if (PermissionsModule.get().hasPermission(targetUuid,
-                        "moderation.bypass")) {
-                    return false;
-                }
-
-                String resolvedName = targetName;
-                PlayerRef ref = Universe.get().getPlayer(targetUuid);
-                boolean isOnline = false;
-                if (ref != null && ref.isValid()) {
-                    resolvedName = ref.getUsername();
-                    isOnline = true;
-                }
+    @FunctionalInterface
+    private interface Step<T, R> {
+        R apply(T value) throws Exception;
+    }
 
-                PlayerData playerData = plugin.getStorageManager().getOrCreatePlayer(targetUuid, resolvedName);
-
-                HytaleBanProvider banProvider = plugin.getBanProvider();
-                if (banProvider != null && !banProvider.hasBan(targetUuid)) {
-                    me.almana.moderationplus.api.punishment.Punishment apiPunishment = new me.almana.moderationplus.api.punishment.Punishment(
-                            UUID.randomUUID(), targetUuid, context.issuerUuid(), DefaultPunishmentTypes.BAN, null, reason, false
-                    );
-                    PunishmentPreApplyEvent preEvent = new PunishmentPreApplyEvent(apiPunishment);
-                    dispatchSync(preEvent);
-                    if (preEvent.isCancelled()) return false;
-                    apiPunishment = preEvent.getPunishment();
-
-                    InfiniteBan nativeBan = new InfiniteBan(targetUuid, context.issuerUuid(), Instant.now(), apiPunishment.reason());
-                    banProvider.modify(bans -> {
-                        bans.put(targetUuid, nativeBan);
-                        return true;
-                    });
-                    
-                    List<Punishment> activeBans = plugin.getStorageManager().getActivePunishmentsByType(playerData.id(),
-                            "BAN");
-                    if (activeBans.isEmpty()) {
-                        Punishment ban = new Punishment(0, playerData.id(), "BAN", context.issuerUuid().toString(), apiPunishment.reason(),
-                                System.currentTimeMillis(), 0, true, "{}");
-                        plugin.getStorageManager().createPunishment(ban);
-                    }
-                    
-                    dispatchSync(new PunishmentAppliedEvent(apiPunishment));
-
-                    // Staff notification
-                    String finalReason = apiPunishment.reason();
-                    String locale = plugin.getLanguageManager().getDefaultLocale();
-                    String staffMsg = plugin.getLanguageManager().translate(
-                        "staff.ban.notify",
-                        locale,
-                        Map.of("issuer", context.issuerName(), "target", resolvedName, "reason", finalReason)
-                    );
-                    plugin.notifyStaff(Message.raw(staffMsg).color(Color.GREEN));
-
-                    if (isOnline && ref != null && ref.isValid()) {
-                        UUID worldUuid = ref.getWorldUuid();
-                        if (worldUuid != null) {
-                             World world = Universe.get().getWorld(worldUuid);
-                             if (world != null) {
-                                  ((Executor) world).execute(() -> {
-                                      if (ref.isValid()) {
-                                          ref.getPacketHandler().disconnect(plugin.getLanguageManager().translateForPlayer("player.banned.permanent", ref.getUuid(), Map.of("reason", finalReason)));
-                                      }
-                                  });
-                             }
-                        }
-                    }
-                    return true;
-                }
-                return false;
+    // Stage bodies may throw; the failure skips the remaining stages and ends in failed()
+    private static <R> Supplier<R> step(Callable<R> body) {
+        return () -> {
+            try {
+                return body.call();
+            } catch (RuntimeException e) {
+                throw e;
+            } catch (Exception e) {
+                throw new CompletionException(e);
+            }
+        };
+    }
 
+    private static <T, R> Function<T, R> step(Step<T, R> body) {
+        return value -> {
+            try {
+                return body.apply(value);
+            } catch (RuntimeException e) {
+                throw e;
             } catch (Exception e) {
-                e.printStackTrace();
-                return false;
+                throw new CompletionException(e);
             }
-        });
+        };
     }
 
-    public CompletableFuture<Boolean> kick(UUID targetUuid, String targetName, String reason,
-            ExecutionContext context) {
+    /**
+     * Starts the action once every earlier action on the same player has finished, so checks such as
+     * "already banned?" never race another action on that player.
+     */
+    private <T> CompletableFuture<T> serial(UUID targetUuid, Supplier<CompletableFuture<T>> action) {
+        return targets.submit(targetUuid, action);
+    }
+
+    private Boolean failed(Throwable t) {
+        t.printStackTrace();
+        return false;
+    }
+
+    /**
+     * Dispatches on the server's Scheduled Executor (Main/Scheduler Thread) and completes there
+     * once every synchronous listener has run. Events with only async observers are queued
+     * from the calling thread, with no hop at all.
+     */
+    private <T extends ModEvent> CompletableFuture<T> fire(T event) {
+        if (!plugin.getEventBus().hasSyncListeners(event.getClass())) {
+            plugin.getEventBus().dispatch(event);
+            return CompletableFuture.completedFuture(event);
+        }
         return CompletableFuture.supplyAsync(() -> {
-            try {
-                if (PermissionsModule.get().hasPermission(targetUuid,
-                        "moderation.bypass")) {
-                    return false;
-                }
+            plugin.getEventBus().dispatch(event);
+            return event;
+        }, HytaleServer.SCHEDULED_EXECUTOR);
+    }
 
-                PlayerRef ref = Universe.get().getPlayer(targetUuid);
-                if (ref == null || !ref.isValid()) {
-                    return false;
-                }
+    // Main-thread stage: listeners may cancel the action or replace its punishment
+    private CompletableFuture<Action> preApply(Action action) {
+        if (action == null) {
+            return CompletableFuture.completedFuture(null);
+        }
+        return fire(new PunishmentPreApplyEvent(action.punishment)).thenApply(event -> {
+            if (event.isCancelled()) {
+                return null;
+            }
+            action.punishment = event.getPunishment();
+            return action;
+        });
+    }
 
-                String resolvedName = ref.getUsername();
-                PlayerData playerData = plugin.getStorageManager().getOrCreatePlayer(targetUuid, resolvedName);
+    private CompletableFuture<Action> applied(Action action) {
+        if (action == null) {
+            return CompletableFuture.completedFuture(null);
+        }
+        return fire(new PunishmentAppliedEvent(action.punishment)).thenApply(event -> action);
+    }
 
-                me.almana.moderationplus.api.punishment.Punishment apiPunishment = new me.almana.moderationplus.api.punishment.Punishment(
-                        UUID.randomUUID(), targetUuid, context.issuerUuid(), DefaultPunishmentTypes.KICK, null, reason, false
-                );
-                PunishmentPreApplyEvent preEvent = new PunishmentPreApplyEvent(apiPunishment);
-                dispatchSync(preEvent);
-                if (preEvent.isCancelled()) return false;
-                apiPunishment = preEvent.getPunishment();
+    private CompletableFuture<Action> expired(Action action) {
+        if (action == null) {
+            return CompletableFuture.completedFuture(null);
+        }
+        return fire(new PunishmentExpiredEvent(action.punishment)).thenApply(event -> action);
+    }
 
-                Punishment kick = new Punishment(0, playerData.id(), "KICK", context.issuerUuid().toString(), apiPunishment.reason(),
-                        System.currentTimeMillis(),
-                        0, false, "{}");
-                plugin.getStorageManager().createPunishment(kick);
-                
-                dispatchSync(new PunishmentAppliedEvent(apiPunishment));
+    // Prefers the online name, then creates or finds the player row
+    private Action resolve(UUID targetUuid, String targetName) {
+        Action action = new Action();
+        action.name = targetName;
+        PlayerRef ref = Universe.get().getPlayer(targetUuid);
+        if (ref != null && ref.isValid()) {
+            action.ref = ref;
+            action.name = ref.getUsername();
+        }
+        action.playerId = plugin.getStorageManager().getOrCreatePlayerId(targetUuid, action.name);
+        return action;
+    }
 
-                plugin.notifyStaff(plugin.getLanguageManager().translateToMessage("staff.kick.notify", null, Map.of("issuer", context.issuerName(), "target", resolvedName, "reason", apiPunishment.reason())));
+    private static me.almana.moderationplus.api.punishment.Punishment punishment(UUID targetUuid,
+            ExecutionContext context, me.almana.moderationplus.api.punishment.PunishmentType type, Duration duration,
+            String reason) {
+        return new me.almana.moderationplus.api.punishment.Punishment(
+                UUID.randomUUID(), targetUuid, context.issuerUuid(), type, duration, reason, false
+        );
+    }
 
-                UUID worldUuid = ref.getWorldUuid();
-                if (worldUuid != null) {
-                    World world = Universe.get().getWorld(worldUuid);
-                    if (world != null) {
-                         String finalReason = apiPunishment.reason();
-                        ((Executor) world).execute(() -> {
-                            if (ref.isValid()) {
-                                ref.getPacketHandler().disconnect(plugin.getLanguageManager().translateForPlayer("player.kicked", ref.getUuid(), Map.of("reason", finalReason)));
-                            }
-                        });
+    private void disconnect(PlayerRef ref, String key, Map<String, String> params) {
+        if (ref == null || !ref.isValid()) {
+            return;
+        }
+        UUID worldUuid = ref.getWorldUuid();
+        if (worldUuid != null) {
+            World world = Universe.get().getWorld(worldUuid);
+            if (world != null) {
+                ((Executor) world).execute(() -> {
+                    if (ref.isValid()) {
+                        ref.getPacketHandler().disconnect(plugin.getLanguageManager().translateForPlayer(key, ref.getUuid(), params));
                     }
-                }
+                });
+            }
+        }
+    }
+
+    public CompletableFuture<Boolean> ban(UUID targetUuid, String targetName, String reason, ExecutionContext context) {
+        return serial(targetUuid, () -> executor.supply(step(() -> {
+            if (PermissionsModule.get().hasPermission(targetUuid,
+                    "moderation.bypass")) {
+                return null;
+            }
+            Action action = resolve(targetUuid, targetName);
+            HytaleBanProvider banProvider = plugin.getBanProvider();
+            if (banProvider == null || banProvider.hasBan(targetUuid)) {
+                return null;
+            }
+            action.punishment = punishment(targetUuid, context, DefaultPunishmentTypes.BAN, null, reason);
+            return action;
+        })).thenCompose(this::preApply).thenApplyAsync(step(action -> {
+            if (action == null) return null;
+            InfiniteBan nativeBan = new InfiniteBan(targetUuid, context.issuerUuid(), Instant.now(), action.punishment.reason());
+            plugin.getBanProvider().modify(bans -> {
+                bans.put(targetUuid, nativeBan);
                 return true;
-            } catch (Exception e) {
-                e.printStackTrace();
-                return false;
+            });
+
+            List<Punishment> activeBans = plugin.getStorageManager().getActivePunishmentsByType(action.playerId,
+                    "BAN");
+            if (activeBans.isEmpty()) {
+                Punishment ban = new Punishment(0, action.playerId, "BAN", context.issuerUuid().toString(), action.punishment.reason(),
+                        System.currentTimeMillis(), 0, true, "{}");
+                plugin.getStorageManager().createPunishment(ban);
             }
-        });
+            return action;
+        }), executor).thenCompose(this::applied).thenApplyAsync(action -> {
+            if (action == null) return false;
+            // Staff notification
+            String finalReason = action.punishment.reason();
+            String locale = plugin.getLanguageManager().getDefaultLocale();
+            String staffMsg = plugin.getLanguageManager().translate(
+                "staff.ban.notify",
+                locale,
+                Map.of("issuer", context.issuerName(), "target", action.name, "reason", finalReason)
+            );
+            plugin.notifyStaff(Message.raw(staffMsg).color(Color.GREEN));
+
+            disconnect(action.ref, "player.banned.permanent", Map.of("reason", finalReason));
+            return true;
+        }, executor).exceptionally(this::failed));
     }
 
-    public CompletableFuture<Boolean> mute(UUID targetUuid, String targetName, String reason,
+    public CompletableFuture<Boolean> kick(UUID targetUuid, String targetName, String reason,
             ExecutionContext context) {
-        return CompletableFuture.supplyAsync(() -> {
-            try {
-                if (PermissionsModule.get().hasPermission(targetUuid,
-                        "moderation.bypass")) {
-                    return false;
-                }
-
-                String resolvedName = targetName;
-                PlayerRef ref = Universe.get().getPlayer(targetUuid);
-                if (ref != null && ref.isValid()) {
-                    resolvedName = ref.getUsername();
-                }
+        return serial(targetUuid, () -> executor.supply(step(() -> {
+            if (PermissionsModule.get().hasPermission(targetUuid,
+                    "moderation.bypass")) {
+                return null;
+            }
 
-                PlayerData playerData = plugin.getStorageManager().getOrCreatePlayer(targetUuid, resolvedName);
+            PlayerRef ref = Universe.get().getPlayer(targetUuid);
+            if (ref == null || !ref.isValid()) {
+                return null;
+            }
 
-                List<Punishment> activeMutes = plugin.getStorageManager().getActivePunishmentsByType(playerData.id(),
-                        "MUTE");
-                if (!activeMutes.isEmpty()) {
-                    return false;
-                }
+            Action action = resolve(targetUuid, targetName);
+            action.punishment = punishment(targetUuid, context, DefaultPunishmentTypes.KICK, null, reason);
+            return action;
+        })).thenCompose(this::preApply).thenApplyAsync(step(action -> {
+            if (action == null) return null;
+            Punishment kick = new Punishment(0, action.playerId, "KICK", context.issuerUuid().toString(), action.punishment.reason(),
+                    System.currentTimeMillis(),
+                    0, false, "{}");
+            plugin.getStorageManager().createPunishment(kick);
+            return action;
+        }), executor).thenCompose(this::applied).thenApplyAsync(action -> {
+            if (action == null) return false;
+            plugin.notifyStaff(plugin.getLanguageManager().translateToMessage("staff.kick.notify", null, Map.of("issuer", context.issuerName(), "target", action.name, "reason", action.punishment.reason())));
+
+            disconnect(action.ref, "player.kicked", Map.of("reason", action.punishment.reason()));
+            return true;
+        }, executor).exceptionally(this::failed));
+    }
 
-                me.almana.moderationplus.api.punishment.Punishment apiPunishment = new me.almana.moderationplus.api.punishment.Punishment(
-                        UUID.randomUUID(), targetUuid, context.issuerUuid(), DefaultPunishmentTypes.MUTE, null, reason, false
-                );
-                PunishmentPreApplyEvent preEvent = new PunishmentPreApplyEvent(apiPunishment);
-                dispatchSync(preEvent);
-                if (preEvent.isCancelled()) return false;
-                apiPunishment = preEvent.getPunishment();
+    public CompletableFuture<Boolean> mute(UUID targetUuid, String targetName, String reason,
+            ExecutionContext context) {
+        return mute(targetUuid, targetName, reason, 0, context);
+    }
 
-                Punishment mute = new Punishment(0, playerData.id(), "MUTE", context.issuerUuid().toString(), apiPunishment.reason(),
-                        System.currentTimeMillis(),
-                        0, true, "{}");
-                plugin.getStorageManager().createPunishment(mute);
-                
-                dispatchSync(new PunishmentAppliedEvent(apiPunishment));
+    public CompletableFuture<Boolean> tempMute(UUID targetUuid, String targetName, String reason, long durationMillis,
+            ExecutionContext context) {
+        return mute(targetUuid, targetName, reason, durationMillis, context);
+    }
 
-                plugin.notifyStaff(plugin.getLanguageManager().translateToMessage("staff.mute.notify", null, Map.of("issuer", context.issuerName(), "target", resolvedName, "reason", apiPunishment.reason())));
+    // A duration of 0 is a permanent mute
+    private CompletableFuture<Boolean> mute(UUID targetUuid, String targetName, String reason, long durationMillis,
+            ExecutionContext context) {
+        return serial(targetUuid, () -> executor.supply(step(() -> {
+            if (PermissionsModule.get().hasPermission(targetUuid,
+                    "moderation.bypass")) {
+                return null;
+            }
 
+            Action action = resolve(targetUuid, targetName);
+            List<Punishment> activeMutes = plugin.getStorageManager().getActivePunishmentsByType(action.playerId,
+                    "MUTE");
+            if (!activeMutes.isEmpty()) {
+                return null;
+            }
+            action.punishment = punishment(targetUuid, context, DefaultPunishmentTypes.MUTE,
+                    durationMillis > 0 ? Duration.ofMillis(durationMillis) : null, reason);
+            return action;
+        })).thenCompose(this::preApply).thenApplyAsync(step(action -> {
+            if (action == null) return null;
+            if (durationMillis > 0) {
+                action.duration = action.punishment.duration() != null ? action.punishment.duration().toMillis() : durationMillis;
+                action.expiresAt = System.currentTimeMillis() + action.duration;
+            }
+            Punishment mute = new Punishment(0, action.playerId, "MUTE", context.issuerUuid().toString(), action.punishment.reason(),
+                    System.currentTimeMillis(), action.expiresAt, true, "{}");
+            plugin.getStorageManager().createPunishment(mute);
+            return action;
+        }), executor).thenCompose(this::applied).thenApplyAsync(action -> {
+            if (action == null) return false;
+            PlayerRef ref = action.ref;
+            String finalReason = action.punishment.reason();
+            if (durationMillis > 0) {
+                String durationStr = TimeUtils.formatDuration(action.duration);
+                plugin.notifyStaff(plugin.getLanguageManager().translateToMessage("staff.tempmute.notify", null, Map.of("issuer", context.issuerName(), "target", action.name, "duration", durationStr, "reason", finalReason)));
+                if (ref != null && ref.isValid()) {
+                    ref.sendMessage(plugin.getLanguageManager().translateToMessage("player.muted.temporary", ref.getUuid(), Map.of("duration", durationStr, "reason", finalReason)));
+                }
+            } else {
+                plugin.notifyStaff(plugin.getLanguageManager().translateToMessage("staff.mute.notify", null, Map.of("issuer", context.issuerName(), "target", action.name, "reason", finalReason)));
                 if (ref != null && ref.isValid()) {
                     ref.sendMessage(
-                            plugin.getLanguageManager().translateToMessage("player.muted.permanent", ref.getUuid(), Map.of("reason", apiPunishment.reason())));
+                            plugin.getLanguageManager().translateToMessage("player.muted.permanent", ref.getUuid(), Map.of("reason", finalReason)));
                 }
-                return true;
-            } catch (Exception e) {
-                e.printStackTrace();
-                return false;
             }
-        });
+            return true;
+        }, executor).exceptionally(this::failed));
     }
 
     public CompletableFuture<Boolean> unban(UUID targetUuid, String targetName, ExecutionContext context) {
-        return CompletableFuture.supplyAsync(() -> {
-            try {
-                String resolvedName = targetName;
-                PlayerData playerData = plugin.getStorageManager().getOrCreatePlayer(targetUuid, resolvedName);
-
-                boolean nativeUnbanned = false;
-                HytaleBanProvider banProvider = plugin.getBanProvider();
-                if (banProvider != null && banProvider.hasBan(targetUuid)) {
-                    banProvider.modify(bans -> {
-                        bans.remove(targetUuid);
-                        return true;
-                    });
-                    nativeUnbanned = true;
-                }
-
-                List<Punishment> activeBans = plugin.getStorageManager().getActivePunishmentsByType(playerData.id(),
-                        "BAN");
-                boolean dbUnbanned = false;
-                if (!activeBans.isEmpty()) {
-                    for (Punishment p : activeBans) {
-                        plugin.getStorageManager().deactivatePunishment(p.id());
-                        
-                        me.almana.moderationplus.api.punishment.Punishment apiPunishment = new me.almana.moderationplus.api.punishment.Punishment(
-                                UUID.randomUUID(), targetUuid, context.issuerUuid(), DefaultPunishmentTypes.BAN, null, "Unbanned", false
-                        );
-                        dispatchSync(new PunishmentExpiredEvent(apiPunishment));
-                    }
-                    dbUnbanned = true;
-                }
-
-                if (nativeUnbanned || dbUnbanned) {
-                    plugin.notifyStaff(plugin.getLanguageManager().translateToMessage("staff.unban.notify", null, Map.of("issuer", context.issuerName(), "target", resolvedName)));
+        return serial(targetUuid, () -> executor.supply(step(() -> {
+            int playerId = plugin.getStorageManager().getOrCreatePlayerId(targetUuid, targetName);
+
+            boolean nativeUnbanned = false;
+            HytaleBanProvider banProvider = plugin.getBanProvider();
+            if (banProvider != null && banProvider.hasBan(targetUuid)) {
+                banProvider.modify(bans -> {
+                    bans.remove(targetUuid);
                     return true;
-                }
-                return false;
-            } catch (Exception e) {
-                e.printStackTrace();
-                return false;
+                });
+                nativeUnbanned = true;
             }
-        });
+
+            List<Punishment> activeBans = plugin.getStorageManager().getActivePunishmentsByType(playerId,
+                    "BAN");
+            for (Punishment p : activeBans) {
+                plugin.getStorageManager().deactivatePunishment(p.id());
+            }
+            if (!nativeUnbanned && activeBans.isEmpty()) {
+                return null;
+            }
+            return activeBans.size();
+        })).thenCompose(deactivated -> {
+            if (deactivated == null) {
+                return CompletableFuture.completedFuture(false);
+            }
+            // One expiry per deactivated row, in order
+            CompletableFuture<?> events = CompletableFuture.completedFuture(null);
+            for (int i = 0; i < deactivated; i++) {
+                events = events.thenCompose(ignored -> fire(new PunishmentExpiredEvent(
+                        punishment(targetUuid, context, DefaultPunishmentTypes.BAN, null, "Unbanned"))));
+            }
+            return events.thenApplyAsync(ignored -> {
+                plugin.notifyStaff(plugin.getLanguageManager().translateToMessage("staff.unban.notify", null, Map.of("issuer", context.issuerName(), "target", targetName)));
+                return true;
+            }, executor);
+        }).exceptionally(this::failed));
     }
 
     public CompletableFuture<Boolean> unmute(UUID targetUuid, String targetName, ExecutionContext context) {
-        return CompletableFuture.supplyAsync(() -> {
-            try {
-                String resolvedName = targetName;
-                PlayerRef ref = Universe.get().getPlayer(targetUuid);
-                if (ref != null && ref.isValid()) {
-                    resolvedName = ref.getUsername();
-                }
-
-                PlayerData playerData = plugin.getStorageManager().getOrCreatePlayer(targetUuid, resolvedName);
-
-                int rows = plugin.getStorageManager().deactivatePunishmentsByType(playerData.id(), "MUTE");
-
-                if (rows > 0) {
-                    me.almana.moderationplus.api.punishment.Punishment apiPunishment = new me.almana.moderationplus.api.punishment.Punishment(
-                            UUID.randomUUID(), targetUuid, context.issuerUuid(), DefaultPunishmentTypes.MUTE, null, "Unmuted", false
-                    );
-                    plugin.getEventBus().dispatch(new PunishmentExpiredEvent(apiPunishment));
-                    
-                    plugin.notifyStaff(plugin.getLanguageManager().translateToMessage("staff.unmute.notify", null, Map.of("issuer", context.issuerName(), "target", resolvedName)));
-                    if (ref != null && ref.isValid()) {
-                        ref.sendMessage(plugin.getLanguageManager().translateToMessage("player.unmuted", ref.getUuid()));
-                    }
-                    return true;
-                }
-                return false;
-            } catch (Exception e) {
-                e.printStackTrace();
-                return false;
+        return serial(targetUuid, () -> executor.supply(step(() -> {
+            Action action = resolve(targetUuid, targetName);
+            int rows = plugin.getStorageManager().deactivatePunishmentsByType(action.playerId, "MUTE");
+            if (rows == 0) {
+                return null;
             }
-        });
+            action.punishment = punishment(targetUuid, context, DefaultPunishmentTypes.MUTE, null, "Unmuted");
+            return action;
+        })).thenCompose(this::expired).thenApplyAsync(action -> {
+            if (action == null) return false;
+            plugin.notifyStaff(plugin.getLanguageManager().translateToMessage("staff.unmute.notify", null, Map.of("issuer", context.issuerName(), "target", action.name)));
+            if (action.ref != null && action.ref.isValid()) {
+                action.ref.sendMessage(plugin.getLanguageManager().translateToMessage("player.unmuted", action.ref.getUuid()));
+            }
+            return true;
+        }, executor).exceptionally(this::failed));
     }
 
     public CompletableFuture<Boolean> tempBan(UUID targetUuid, String targetName, String reason, long durationMillis,
             ExecutionContext context) {
-        return CompletableFuture.supplyAsync(() -> {
-            try {
-                if (PermissionsModule.get().hasPermission(targetUuid,
-                        "moderation.bypass")) {
-                    return false;
-                }
-
-                String resolvedName = targetName;
-                PlayerRef ref = Universe.get().getPlayer(targetUuid);
-                boolean isOnline = false;
-                if (ref != null && ref.isValid()) {
-                    resolvedName = ref.getUsername();
-                    isOnline = true;
-                }
-
-                PlayerData playerData = plugin.getStorageManager().getOrCreatePlayer(targetUuid, resolvedName);
-                long expiresAt = System.currentTimeMillis() + durationMillis;
-
-                HytaleBanProvider banProvider = plugin.getBanProvider();
-                if (banProvider != null && !banProvider.hasBan(targetUuid)) {
-                    me.almana.moderationplus.api.punishment.Punishment apiPunishment = new me.almana.moderationplus.api.punishment.Punishment(
-                            UUID.randomUUID(), targetUuid, context.issuerUuid(), DefaultPunishmentTypes.BAN, Duration.ofMillis(durationMillis), reason, false
-                    );
-                    PunishmentPreApplyEvent preEvent = new PunishmentPreApplyEvent(apiPunishment);
-                    plugin.getEventBus().dispatch(preEvent);
-                    if (preEvent.isCancelled()) return false;
-                    apiPunishment = preEvent.getPunishment();
-                    
-                    long finalDuration = apiPunishment.duration() != null ? apiPunishment.duration().toMillis() : durationMillis;
-                    long finalExpiresAt = System.currentTimeMillis() + finalDuration;
-
-                    TimedBan nativeBan = new TimedBan(targetUuid, context.issuerUuid(), Instant.now(),
-                            Instant.ofEpochMilli(finalExpiresAt), apiPunishment.reason());
-                    banProvider.modify(bans -> {
-                        bans.put(targetUuid, nativeBan);
-                        return true;
-                    });
-                    
-                    List<Punishment> activeBans = plugin.getStorageManager().getActivePunishmentsByType(playerData.id(),
-                             "BAN");
-                    if (activeBans.isEmpty()) {
-                        Punishment ban = new Punishment(0, playerData.id(), "BAN", context.issuerUuid().toString(), apiPunishment.reason(),
-                                System.currentTimeMillis(), finalExpiresAt, true, "{}");
-                        plugin.getStorageManager().createPunishment(ban);
-                    }
-                    
-                    plugin.getEventBus().dispatch(new PunishmentAppliedEvent(apiPunishment));
-
-                    String durationStr = TimeUtils.formatDuration(finalDuration);
-                    plugin.notifyStaff(plugin.getLanguageManager().translateToMessage("staff.tempban.notify", null, Map.of("issuer", context.issuerName(), "target", resolvedName, "duration", durationStr, "reason", apiPunishment.reason())));
-
-                    if (isOnline && ref != null && ref.isValid()) {
-                        UUID worldUuid = ref.getWorldUuid();
-                        if (worldUuid != null) {
-                            World world = Universe.get().getWorld(worldUuid);
-                            if (world != null) {
-                                String finalReason = apiPunishment.reason();
-                                ((Executor) world).execute(() -> {
-                                    if (ref.isValid()) {
-                                        ref.getPacketHandler().disconnect(plugin.getLanguageManager().translateForPlayer("player.banned.temporary", ref.getUuid(), Map.of("duration", durationStr, "reason", finalReason)));
-                                    }
-                                });
-                            }
-                        }
-                    }
-                    return true;
-                }
-                return false;
-            } catch (Exception e) {
-                e.printStackTrace();
-                return false;
+        return serial(targetUuid, () -> executor.supply(step(() -> {
+            if (PermissionsModule.get().hasPermission(targetUuid,
+                    "moderation.bypass")) {
+                return null;
             }
-        });
-    }
-
-    public CompletableFuture<Boolean> tempMute(UUID targetUuid, String targetName, String reason, long durationMillis,
-            ExecutionContext context) {
-        return CompletableFuture.supplyAsync(() -> {
-            try {
-                if (PermissionsModule.get().hasPermission(targetUuid,
-                        "moderation.bypass")) {
-                    return false;
-                }
-
-                String resolvedName = targetName;
-                PlayerRef ref = Universe.get().getPlayer(targetUuid);
-                if (ref != null && ref.isValid()) {
-                    resolvedName = ref.getUsername();
-                }
-
-                PlayerData playerData = plugin.getStorageManager().getOrCreatePlayer(targetUuid, resolvedName);
-                List<Punishment> activeMutes = plugin.getStorageManager().getActivePunishmentsByType(playerData.id(),
-                        "MUTE");
-                if (!activeMutes.isEmpty()) {
-                    return false;
-                }
-                
-                me.almana.moderationplus.api.punishment.Punishment apiPunishment = new me.almana.moderationplus.api.punishment.Punishment(
-                        UUID.randomUUID(), targetUuid, context.issuerUuid(), DefaultPunishmentTypes.MUTE, Duration.ofMillis(durationMillis), reason, false
-                );
-                PunishmentPreApplyEvent preEvent = new PunishmentPreApplyEvent(apiPunishment);
-                plugin.getEventBus().dispatch(preEvent);
-                if (preEvent.isCancelled()) return false;
-                apiPunishment = preEvent.getPunishment();
-
-                long finalDuration = apiPunishment.duration() != null ? apiPunishment.duration().toMillis() : durationMillis;
-                long finalExpiresAt = System.currentTimeMillis() + finalDuration;
-                Punishment mute = new Punishment(0, playerData.id(), "MUTE", context.issuerUuid().toString(), apiPunishment.reason(),
-                        System.currentTimeMillis(), finalExpiresAt, true, "{}");
-                plugin.getStorageManager().createPunishment(mute);
-                
-                plugin.getEventBus().dispatch(new PunishmentAppliedEvent(apiPunishment));
-
-                String durationStr = TimeUtils.formatDuration(finalDuration);
-                plugin.notifyStaff(plugin.getLanguageManager().translateToMessage("staff.tempmute.notify", null, Map.of("issuer", context.issuerName(), "target", resolvedName, "duration", durationStr, "reason", apiPunishment.reason())));
-
-                if (ref != null && ref.isValid()) {
-                    ref.sendMessage(plugin.getLanguageManager().translateToMessage("player.muted.temporary", ref.getUuid(), Map.of("duration", durationStr, "reason", apiPunishment.reason())));
-                }
+            Action action = resolve(targetUuid, targetName);
+            HytaleBanProvider banProvider = plugin.getBanProvider();
+            if (banProvider == null || banProvider.hasBan(targetUuid)) {
+                return null;
+            }
+            action.punishment = punishment(targetUuid, context, DefaultPunishmentTypes.BAN, Duration.ofMillis(durationMillis), reason);
+            return action;
+        })).thenCompose(this::preApply).thenApplyAsync(step(action -> {
+            if (action == null) return null;
+            action.duration = action.punishment.duration() != null ? action.punishment.duration().toMillis() : durationMillis;
+            action.expiresAt = System.currentTimeMillis() + action.duration;
+
+            TimedBan nativeBan = new TimedBan(targetUuid, context.issuerUuid(), Instant.now(),
+                    Instant.ofEpochMilli(action.expiresAt), action.punishment.reason());
+            plugin.getBanProvider().modify(bans -> {
+                bans.put(targetUuid, nativeBan);
                 return true;
-            } catch (Exception e) {
-                e.printStackTrace();
-                return false;
+            });
+
+            List<Punishment> activeBans = plugin.getStorageManager().getActivePunishmentsByType(action.playerId,
+                     "BAN");
+            if (activeBans.isEmpty()) {
+                Punishment ban = new Punishment(0, action.playerId, "BAN", context.issuerUuid().toString(), action.punishment.reason(),
+                        System.currentTimeMillis(), action.expiresAt, true, "{}");
+                plugin.getStorageManager().createPunishment(ban);
             }
-        });
+            return action;
+        }), executor).thenCompose(this::applied).thenApplyAsync(action -> {
+            if (action == null) return false;
+            String durationStr = TimeUtils.formatDuration(action.duration);
+            plugin.notifyStaff(plugin.getLanguageManager().translateToMessage("staff.tempban.notify", null, Map.of("issuer", context.issuerName(), "target", action.name, "duration", durationStr, "reason", action.punishment.reason())));
+
+            disconnect(action.ref, "player.banned.temporary", Map.of("duration", durationStr, "reason", action.punishment.reason()));
+            return true;
+        }, executor).exceptionally(this::failed));
     }
 
     public CompletableFuture<Boolean> warn(UUID targetUuid, String targetName, String reason,
             ExecutionContext context) {
-        return CompletableFuture.supplyAsync(() -> {
-            try {
-                String resolvedName = targetName;
-                PlayerRef ref = Universe.get().getPlayer(targetUuid);
-                if (ref != null && ref.isValid()) {
-                    resolvedName = ref.getUsername();
-                }
-
-                PlayerData playerData = plugin.getStorageManager().getOrCreatePlayer(targetUuid, resolvedName);
-                
-                me.almana.moderationplus.api.punishment.Punishment apiPunishment = new me.almana.moderationplus.api.punishment.Punishment(
-                        UUID.randomUUID(), targetUuid, context.issuerUuid(), DefaultPunishmentTypes.WARN, null, reason, false
-                );
-                PunishmentPreApplyEvent preEvent = new PunishmentPreApplyEvent(apiPunishment);
-                plugin.getEventBus().dispatch(preEvent);
-                if (preEvent.isCancelled()) return false;
-                apiPunishment = preEvent.getPunishment();
-                
-                Punishment warning = new Punishment(0, playerData.id(), "WARN", context.issuerUuid().toString(), apiPunishment.reason(),
-                        System.currentTimeMillis(), 0, true, null);
-                plugin.getStorageManager().createPunishment(warning);
-                
-                plugin.getEventBus().dispatch(new PunishmentAppliedEvent(apiPunishment));
-
-                plugin.notifyStaff(plugin.getLanguageManager().translateToMessage("staff.warn.notify", null, Map.of("issuer", context.issuerName(), "target", resolvedName, "reason", apiPunishment.reason())));
-
-                if (ref != null && ref.isValid()) {
-                    ref.sendMessage(plugin.getLanguageManager().translateToMessage("player.warned", ref.getUuid(), Map.of("reason", apiPunishment.reason())));
-                }
-                return true;
-            } catch (Exception e) {
-                e.printStackTrace();
-                return false;
+        return serial(targetUuid, () -> executor.supply(step(() -> {
+            Action action = resolve(targetUuid, targetName);
+            action.punishment = punishment(targetUuid, context, DefaultPunishmentTypes.WARN, null, reason);
+            return action;
+        })).thenCompose(this::preApply).thenApplyAsync(step(action -> {
+            if (action == null) return null;
+            Punishment warning = new Punishment(0, action.playerId, "WARN", context.issuerUuid().toString(), action.punishment.reason(),
+                    System.currentTimeMillis(), 0, true, null);
+            plugin.getStorageManager().createPunishment(warning);
+            return action;
+        }), executor).thenCompose(this::applied).thenApplyAsync(action -> {
+            if (action == null) return false;
+            plugin.notifyStaff(plugin.getLanguageManager().translateToMessage("staff.warn.notify", null, Map.of("issuer", context.issuerName(), "target", action.name, "reason", action.punishment.reason())));
+
+            if (action.ref != null && action.ref.isValid()) {
+                action.ref.sendMessage(plugin.getLanguageManager().translateToMessage("player.warned", action.ref.getUuid(), Map.of("reason", action.punishment.reason())));
             }
-        });
+            return true;
+        }, executor).exceptionally(this::failed));
     }
 
     public CompletableFuture<Boolean> jail(UUID targetUuid, String targetName, ExecutionContext context) {
@@ -485,256 +472,272 @@ public class ModerationService {
     }
 
     public CompletableFuture<Boolean> jail(UUID targetUuid, String targetName, long durationMillis, String reason, ExecutionContext context) {
-        return CompletableFuture.supplyAsync(() -> {
-            try {
-                if (!plugin.getConfigManager().hasJailLocation()) {
-                    return false;
-                }
-
-                if (PermissionsModule.get().hasPermission(targetUuid,
-                        "moderation.jail.bypass")) {
-                    return false;
-                }
+        return serial(targetUuid, () -> executor.supply(step(() -> {
+            if (!plugin.getConfigManager().hasJailLocation()) {
+                return null;
+            }
 
-                me.almana.moderationplus.api.punishment.Punishment apiPunishment = new me.almana.moderationplus.api.punishment.Punishment(
-                        UUID.randomUUID(), targetUuid, context.issuerUuid(), DefaultPunishmentTypes.JAIL, durationMillis > 0 ? Duration.ofMillis(durationMillis) : null, reason, false
-                );
-                PunishmentPreApplyEvent preEvent = new PunishmentPreApplyEvent(apiPunishment);
-                plugin.getEventBus().dispatch(preEvent);
-                if (preEvent.isCancelled()) return false;
-                apiPunishment = preEvent.getPunishment();
-                final me.almana.moderationplus.api.punishment.Punishment finalApiPunishment = apiPunishment;
-
-                long finalDuration = apiPunishment.duration() != null ? apiPunishment.duration().toMillis() : (durationMillis > 0 ? durationMillis : 0);
-                long finalExpiresAt = finalDuration > 0 ? System.currentTimeMillis() + finalDuration : 0;
-                
-                String resolvedName = targetName;
-                PlayerRef ref = Universe.get().getPlayer(targetUuid);
-                boolean isOnline = (ref != null && ref.isValid());
-                if (isOnline) {
-                    resolvedName = ref.getUsername();
-                }
+            if (PermissionsModule.get().hasPermission(targetUuid,
+                    "moderation.jail.bypass")) {
+                return null;
+            }
 
-                PlayerData playerData = plugin.getStorageManager().getOrCreatePlayer(targetUuid, resolvedName);
-
-                if (isOnline) {
-                    UUID worldUuid = ref.getWorldUuid();
-                    if (worldUuid != null) {
-                        World world = Universe.get().getWorld(worldUuid);
-                        if (world != null) {
-                            ((Executor) world).execute(() -> {
-                                if (ref.isValid()) {
-                                    TransformComponent transform = ref.getReference().getStore()
-                                            .getComponent(ref.getReference(), TransformComponent.getComponentType());
-                                    String originalLocStr = "";
-                                    if (transform != null) {
-                                        Vector3d pos = transform.getPosition();
-                                        Vector3f rot = transform.getRotation();
-                                        originalLocStr = worldUuid.toString() + ":" + pos.x + "," + pos.y + "," + pos.z
-                                                + "," + rot.x + "," + rot.y + "," + rot.z;
-                                    }
-
-                                    final String finalLoc = originalLocStr;
-                                    CompletableFuture.runAsync(() -> {
-                                        try {
-                                             Punishment punishment = new Punishment(0, playerData.id(), "JAIL",
-                                                     context.issuerUuid().toString(), finalApiPunishment.reason(),
-                                                     System.currentTimeMillis(), finalExpiresAt, true, finalLoc);
-                                             plugin.getStorageManager().insertPunishment(punishment);
-                                        } catch (Exception e) {
-                                            e.printStackTrace();
-                                        }
-                                    });
-
-                                    double[] jailLoc = plugin.getConfigManager().getJailLocation();
-                                    Vector3d jailPos = new Vector3d(jailLoc[0], jailLoc[1], jailLoc[2]);
-                                    Vector3f jailRot = new Vector3f(0, 0, 0);
-
-                                    Teleport teleport = new Teleport(jailPos, jailRot);
-                                    ref.getReference().getStore().addComponent(ref.getReference(),
-                                            Teleport.getComponentType(), teleport);
-
-                                    plugin.addJailedPlayer(targetUuid, jailPos, finalExpiresAt);
-                                    plugin.addFrozenPlayer(targetUuid, jailPos);
-
-                                    EventTitleUtil.showEventTitleToPlayer(
-                                            ref,
-                                            plugin.getLanguageManager().translateToMessage("player.jail.entry", ref.getUuid()),
-                                            plugin.getLanguageManager().translateToMessage("player.warned", ref.getUuid(), Map.of("reason", finalApiPunishment.reason())), 
-                                            true);
-                                }
-                            });
-                        }
+            Action action = resolve(targetUuid, targetName);
+            action.punishment = punishment(targetUuid, context, DefaultPunishmentTypes.JAIL,
+                    durationMillis > 0 ? Duration.ofMillis(durationMillis) : null, reason);
+            return action;
+        })).thenCompose(this::preApply).thenCompose(action -> {
+            if (action == null) return CompletableFuture.completedFuture(null);
+            action.duration = action.punishment.duration() != null ? action.punishment.duration().toMillis() : (durationMillis > 0 ? durationMillis : 0);
+            action.expiresAt = action.duration > 0 ? System.currentTimeMillis() + action.duration : 0;
+
+            PlayerRef ref = action.ref;
+            UUID worldUuid = ref != null && ref.isValid() ? ref.getWorldUuid() : null;
+            World world = worldUuid != null ? Universe.get().getWorld(worldUuid) : null;
+            if (world == null) {
+                return CompletableFuture.completedFuture(action);
+            }
+            // World stage: remember where they were, then move them into the jail
+            return CompletableFuture.supplyAsync(() -> {
+                if (ref.isValid()) {
+                    TransformComponent transform = ref.getReference().getStore()
+                            .getComponent(ref.getReference(), TransformComponent.getComponentType());
+                    if (transform != null) {
+                        Vector3d pos = transform.getPosition();
+                        Vector3f rot = transform.getRotation();
+                        action.location = worldUuid.toString() + ":" + pos.x + "," + pos.y + "," + pos.z
+                                + "," + rot.x + "," + rot.y + "," + rot.z;
+                    } else {
+                        action.location = "";
                     }
-                } else {
-                    Punishment punishment = new Punishment(0, playerData.id(), "JAIL", context.issuerUuid().toString(),
-                            finalApiPunishment.reason(),
-                            System.currentTimeMillis(), finalExpiresAt, true, null);
-                    plugin.getStorageManager().insertPunishment(punishment);
-                }
-                
-                plugin.getEventBus().dispatch(new PunishmentAppliedEvent(apiPunishment));
-
-                String durationStr = finalDuration > 0 ? TimeUtils.formatDuration(finalDuration) : "permanent";
-                if (finalDuration > 0) {
-                     plugin.notifyStaff(plugin.getLanguageManager().translateToMessage("staff.jail.notify_duration", null, Map.of("issuer", context.issuerName(), "target", resolvedName, "duration", durationStr)));
-                } else {
-                     plugin.notifyStaff(plugin.getLanguageManager().translateToMessage("staff.jail.notify", null, Map.of("issuer", context.issuerName(), "target", resolvedName)));
-                }
-                return true;
-            } catch (Exception e) {
-                e.printStackTrace();
-                return false;
+
+                    double[] jailLoc = plugin.getConfigManager().getJailLocation();
+                    Vector3d jailPos = new Vector3d(jailLoc[0], jailLoc[1], jailLoc[2]);
+                    Vector3f jailRot = new Vector3f(0, 0, 0);
+
+                    Teleport teleport = new Teleport(jailPos, jailRot);
+                    ref.getReference().getStore().addComponent(ref.getReference(),
+                            Teleport.getComponentType(), teleport);
+
+                    plugin.addJailedPlayer(targetUuid, jailPos, action.expiresAt);
+                    plugin.addFrozenPlayer(targetUuid, jailPos);
+
+                    EventTitleUtil.showEventTitleToPlayer(
+                            ref,
+                            plugin.getLanguageManager().translateToMessage("player.jail.entry", ref.getUuid()),
+                            plugin.getLanguageManager().translateToMessage("player.warned", ref.getUuid(), Map.of("reason", action.punishment.reason())),
+                            true);
+                }
+                return action;
+            }, (Executor) world);
+        }).thenApplyAsync(step(action -> {
+            if (action == null) return null;
+            Punishment punishment = new Punishment(0, action.playerId, "JAIL", context.issuerUuid().toString(),
+                    action.punishment.reason(),
+                    System.currentTimeMillis(), action.expiresAt, true, action.location);
+            plugin.getStorageManager().insertPunishment(punishment);
+            return action;
+        }), executor).thenCompose(this::applied).thenApplyAsync(action -> {
+            if (action == null) return false;
+            if (action.duration > 0) {
+                 String durationStr = TimeUtils.formatDuration(action.duration);
+                 plugin.notifyStaff(plugin.getLanguageManager().translateToMessage("staff.jail.notify_duration", null, Map.of("issuer", context.issuerName(), "target", action.name, "duration", durationStr)));
+            } else {
+                 plugin.notifyStaff(plugin.getLanguageManager().translateToMessage("staff.jail.notify", null, Map.of("issuer", context.issuerName(), "target", action.name)));
             }
-        });
+            return true;
+        }, executor).exceptionally(this::failed));
     }
 
     public CompletableFuture<Boolean> unjail(UUID targetUuid, String targetName, ExecutionContext context) {
-        return CompletableFuture.supplyAsync(() -> {
-            try {
-                String resolvedName = targetName;
-                PlayerRef ref = Universe.get().getPlayer(targetUuid);
-                if (ref != null && ref.isValid()) {
-                    resolvedName = ref.getUsername();
-                }
+        return serial(targetUuid, () -> executor.supply(step(() -> {
+            PlayerData playerData = plugin.getStorageManager().getPlayerByUUID(targetUuid);
+            if (playerData == null)
+                return null;
+
+            Action action = new Action();
+            action.name = targetName;
+            action.ref = Universe.get().getPlayer(targetUuid);
+            if (action.ref != null && action.ref.isValid()) {
+                action.name = action.ref.getUsername();
+            }
 
-                PlayerData playerData = plugin.getStorageManager().getPlayerByUUID(targetUuid);
-                if (playerData == null)
-                    return false;
+            List<Punishment> jails = plugin.getStorageManager().getActivePunishmentsByType(playerData.id(), "JAIL");
+            if (!jails.isEmpty()) {
+                action.location = jails.get(0).extraData();
+            }
 
-                List<Punishment> jails = plugin.getStorageManager().getActivePunishmentsByType(playerData.id(), "JAIL");
-                String restoreLocData = null;
-                if (!jails.isEmpty()) {
-                    restoreLocData = jails.get(0).extraData();
-                }
+            int deactivated = plugin.getStorageManager().deactivatePunishmentsByType(playerData.id(), "JAIL");
+            if (deactivated == 0)
+                return null;
 
-                int deactivated = plugin.getStorageManager().deactivatePunishmentsByType(playerData.id(), "JAIL");
-                if (deactivated == 0)
-                    return false;
-                    
-                me.almana.moderationplus.api.punishment.Punishment apiPunishment = new me.almana.moderationplus.api.punishment.Punishment(
-                        UUID.randomUUID(), targetUuid, context.issuerUuid(), DefaultPunishmentTypes.JAIL, null, "Unjailed", false
-                );
-                dispatchSync(new PunishmentExpiredEvent(apiPunishment));
-
-                plugin.removeJailedPlayer(targetUuid);
-                plugin.removeFrozenPlayer(targetUuid);
-
-                if (restoreLocData != null && !restoreLocData.isEmpty() && ref != null && ref.isValid()) {
-                    try {
-                        String[] parts = restoreLocData.split(":");
-                        if (parts.length == 2) {
-                            UUID worldUuid = UUID.fromString(parts[0]);
-                            String[] coords = parts[1].split(",");
-                            if (coords.length >= 6) {
-                                double x = Double.parseDouble(coords[0]);
-                                double y = Double.parseDouble(coords[1]);
-                                double z = Double.parseDouble(coords[2]);
-                                float yaw = Float.parseFloat(coords[3]);
-                                float pitch = Float.parseFloat(coords[4]);
-
-                                World world = Universe.get().getWorld(worldUuid);
-                                if (world != null) {
-                                    Vector3d targetPos = new Vector3d(x, y, z);
-                                    Vector3f targetRot = new Vector3f(yaw, pitch, 0);
-                                    ((Executor) world).execute(() -> {
-                                        if (ref.isValid()) {
-                                            Teleport teleport = new Teleport(targetPos, targetRot);
-                                            ref.getReference().getStore().addComponent(ref.getReference(),
-                                                    Teleport.getComponentType(), teleport);
-
-                                            EventTitleUtil.showEventTitleToPlayer(
-                                                    ref,
-                                                    plugin.getLanguageManager().translateToMessage("player.jail.exit", ref.getUuid()),
-                                                    Message.raw(""),
-                                                    true);
-                                        }
-                                    });
-                                }
-                            }
-                        }
-                    } catch (Exception e) {
-                    }
-                }
+            action.punishment = punishment(targetUuid, context, DefaultPunishmentTypes.JAIL, null, "Unjailed");
+            return action;
+        })).thenCompose(this::expired).thenApplyAsync(action -> {
+            if (action == null) return false;
+            plugin.removeJailedPlayer(targetUuid);
+            plugin.removeFrozenPlayer(targetUuid);
 
-                plugin.notifyStaff(plugin.getLanguageManager().translateToMessage("staff.unjail.notify", null, Map.of("issuer", context.issuerName(), "target", resolvedName)));
-                return true;
-            } catch (Exception e) {
-                e.printStackTrace();
-                return false;
-            }
-        });
+            restoreJailLocation(action.ref, action.location);
+
+            plugin.notifyStaff(plugin.getLanguageManager().translateToMessage("staff.unjail.notify", null, Map.of("issuer", context.issuerName(), "target", action.name)));
+            return true;
+        }, executor).exceptionally(this::failed));
     }
 
-    public CompletableFuture<Boolean> freeze(UUID targetUuid, String targetName, ExecutionContext context) {
-        return CompletableFuture.supplyAsync(() -> {
-            try {
-                if (PermissionsModule.get().hasPermission(targetUuid,
-                        "moderation.freeze.bypass")) {
-                    return false;
-                }
+    // Teleports a released player back to where they were jailed from ("world:x,y,z,yaw,pitch,roll")
+    private void restoreJailLocation(PlayerRef ref, String restoreLocData) {
+        if (restoreLocData == null || restoreLocData.isEmpty() || ref == null || !ref.isValid()) {
+            return;
+        }
+        try {
+            String[] parts = restoreLocData.split(":");
+            if (parts.length == 2) {
+                UUID worldUuid = UUID.fromString(parts[0]);
+                String[] coords = parts[1].split(",");
+                if (coords.length >= 6) {
+                    double x = Double.parseDouble(coords[0]);
+                    double y = Double.parseDouble(coords[1]);
+                    double z = Double.parseDouble(coords[2]);
+                    float yaw = Float.parseFloat(coords[3]);
+                    float pitch = Float.parseFloat(coords[4]);
 
-                PlayerRef ref = Universe.get().getPlayer(targetUuid);
-                if (ref == null || !ref.isValid())
-                    return false;
-
-                String resolvedName = ref.getUsername();
-
-                me.almana.moderationplus.api.punishment.Punishment apiPunishment = new me.almana.moderationplus.api.punishment.Punishment(
-                        UUID.randomUUID(), targetUuid, context.issuerUuid(), DefaultPunishmentTypes.FREEZE, null, "Frozen", false
-                );
-                PunishmentPreApplyEvent preEvent = new PunishmentPreApplyEvent(apiPunishment);
-                dispatchSync(preEvent);
-                if (preEvent.isCancelled()) return false;
-                
-                // Freeze doesn't store permanent record in DB in original code, so just notify staff and apply effect
-                
-                UUID worldUuid = ref.getWorldUuid();
-                if (worldUuid != null) {
                     World world = Universe.get().getWorld(worldUuid);
                     if (world != null) {
+                        Vector3d targetPos = new Vector3d(x, y, z);
+                        Vector3f targetRot = new Vector3f(yaw, pitch, 0);
                         ((Executor) world).execute(() -> {
                             if (ref.isValid()) {
-                                TransformComponent transform = ref.getReference().getStore()
-                                        .getComponent(ref.getReference(), TransformComponent.getComponentType());
-                                if (transform != null) {
-                                    plugin.addFrozenPlayer(targetUuid, transform.getPosition());
-                                } else {
-                                    plugin.addFrozenPlayer(targetUuid, new Vector3d(0, 100, 0));
-                                }
-                                ref.sendMessage(plugin.getLanguageManager().translateToMessage("player.frozen", ref.getUuid()));
-                                
+                                Teleport teleport = new Teleport(targetPos, targetRot);
+                                ref.getReference().getStore().addComponent(ref.getReference(),
+                                        Teleport.getComponentType(), teleport);
+
                                 EventTitleUtil.showEventTitleToPlayer(
                                         ref,
-                                        plugin.getLanguageManager().translateToMessage("player.frozen", ref.getUuid()),
+                                        plugin.getLanguageManager().translateToMessage("player.jail.exit", ref.getUuid()),
                                         Message.raw(""),
                                         true);
                             }
                         });
                     }
                 }
-                
-                dispatchSync(new PunishmentAppliedEvent(apiPunishment));
+            }
+        } catch (Exception e) {
+        }
+    }
 
-                plugin.notifyStaff(plugin.getLanguageManager().translateToMessage("staff.freeze.notify", null, Map.of("issuer", context.issuerName(), "target", resolvedName)));
-                return true;
-            } catch (Exception e) {
-                e.printStackTrace();
-                return false;
+    // Called by the expiry scheduler once a temporary punishment has been deactivated in storage
+    public CompletableFuture<Void> handleExpiredPunishment(UUID uuid, Punishment punishment) {
+        me.almana.moderationplus.api.punishment.PunishmentType type = switch (punishment.type()) {
+            case "BAN" -> DefaultPunishmentTypes.BAN;
+            case "MUTE" -> DefaultPunishmentTypes.MUTE;
+            case "JAIL" -> DefaultPunishmentTypes.JAIL;
+            default -> null;
+        };
+        if (type == null) {
+            return CompletableFuture.completedFuture(null);
+        }
+
+        return serial(uuid, () -> executor.supply(step(() -> {
+            Action action = new Action();
+            action.ref = Universe.get().getPlayer(uuid);
+            boolean isOnline = action.ref != null && action.ref.isValid();
+            action.name = isOnline ? action.ref.getUsername() : uuid.toString();
+            if (!isOnline) {
+                PlayerData data = plugin.getStorageManager().getPlayerByUUID(uuid);
+                if (data != null && data.username() != null) {
+                    action.name = data.username();
+                }
             }
-        });
+            action.punishment = punishment(uuid, ExecutionContext.console(), type, null, "Expired");
+            return action;
+        })).thenCompose(this::expired).thenAcceptAsync(action -> {
+            PlayerRef ref = action.ref;
+            String name = action.name;
+            switch (punishment.type()) {
+                case "MUTE" -> {
+                    plugin.notifyStaff(plugin.getLanguageManager().translateToMessage("staff.unmute.notify", null, Map.of("issuer", "System", "target", name)));
+                    if (ref != null && ref.isValid()) {
+                        ref.sendMessage(plugin.getLanguageManager().translateToMessage("player.unmuted", ref.getUuid()));
+                    }
+                }
+                case "BAN" -> plugin.notifyStaff(plugin.getLanguageManager().translateToMessage("staff.unban.notify", null, Map.of("issuer", "System", "target", name)));
+                case "JAIL" -> {
+                    plugin.removeJailedPlayer(uuid);
+                    plugin.removeFrozenPlayer(uuid);
+                    restoreJailLocation(ref, punishment.extraData());
+                    plugin.notifyStaff(plugin.getLanguageManager().translateToMessage("staff.unjail.notify", null, Map.of("issuer", "System", "target", name)));
+                }
+                default -> {
+                }
+            }
+        }, executor).exceptionally(e -> {
+            e.printStackTrace();
+            return null;
+        }));
+    }
+
+    public CompletableFuture<Boolean> freeze(UUID targetUuid, String targetName, ExecutionContext context) {
+        return serial(targetUuid, () -> executor.supply(step(() -> {
+            if (PermissionsModule.get().hasPermission(targetUuid,
+                    "moderation.freeze.bypass")) {
+                return null;
+            }
+
+            PlayerRef ref = Universe.get().getPlayer(targetUuid);
+            if (ref == null || !ref.isValid())
+                return null;
+
+            // Freeze doesn't store a record in the DB, so there is no player row to resolve
+            Action action = new Action();
+            action.ref = ref;
+            action.name = ref.getUsername();
+            action.punishment = punishment(targetUuid, context, DefaultPunishmentTypes.FREEZE, null, "Frozen");
+            return action;
+        })).thenCompose(this::preApply).thenCompose(action -> {
+            if (action == null) return CompletableFuture.completedFuture(null);
+            PlayerRef ref = action.ref;
+            UUID worldUuid = ref.getWorldUuid();
+            if (worldUuid != null) {
+                World world = Universe.get().getWorld(worldUuid);
+                if (world != null) {
+                    ((Executor) world).execute(() -> {
+                        if (ref.isValid()) {
+                            TransformComponent transform = ref.getReference().getStore()
+                                    .getComponent(ref.getReference(), TransformComponent.getComponentType());
+                            if (transform != null) {
+                                plugin.addFrozenPlayer(targetUuid, transform.getPosition());
+                            } else {
+                                plugin.addFrozenPlayer(targetUuid, new Vector3d(0, 100, 0));
+                            }
+                            ref.sendMessage(plugin.getLanguageManager().translateToMessage("player.frozen", ref.getUuid()));
+
+                            EventTitleUtil.showEventTitleToPlayer(
+                                    ref,
+                                    plugin.getLanguageManager().translateToMessage("player.frozen", ref.getUuid()),
+                                    Message.raw(""),
+                                    true);
+                        }
+                    });
+                }
+            }
+            return applied(action);
+        }).thenApplyAsync(action -> {
+            if (action == null) return false;
+            plugin.notifyStaff(plugin.getLanguageManager().translateToMessage("staff.freeze.notify", null, Map.of("issuer", context.issuerName(), "target", action.name)));
+            return true;
+        }, executor).exceptionally(this::failed));
     }
 
     public CompletableFuture<Boolean> unfreeze(UUID targetUuid, String targetName, ExecutionContext context) {
-        return plugin.removeFrozenPlayer(targetUuid).thenApply(wasFrozen -> {
-            if (wasFrozen) {
-                me.almana.moderationplus.api.punishment.Punishment apiPunishment = new me.almana.moderationplus.api.punishment.Punishment(
-                        UUID.randomUUID(), targetUuid, context.issuerUuid(), DefaultPunishmentTypes.FREEZE, null, "Unfrozen", false
-                );
-                dispatchSync(new PunishmentExpiredEvent(apiPunishment));
-                
+        return serial(targetUuid, () -> plugin.removeFrozenPlayer(targetUuid).thenCompose(wasFrozen -> {
+            if (!wasFrozen) {
+                return CompletableFuture.completedFuture(false);
+            }
+            return fire(new PunishmentExpiredEvent(punishment(targetUuid, context, DefaultPunishmentTypes.FREEZE, null, "Unfrozen")))
+                    .thenApplyAsync(event -> {
                 plugin.notifyStaff(plugin.getLanguageManager().translateToMessage("staff.unfreeze.notify", null, Map.of("issuer", context.issuerName(), "target", targetName)));
-                
+
                 PlayerRef ref = Universe.get().getPlayer(targetUuid);
                 if (ref != null && ref.isValid() && ref.getWorldUuid() != null) {
                     World world = Universe.get().getWorld(ref.getWorldUuid());
@@ -751,13 +754,12 @@ public class ModerationService {
                     }
                 }
                 return true;
-            }
-            return false;
-        });
+            }, executor);
+        }).exceptionally(this::failed));
     }
 
     public CompletableFuture<Boolean> toggleVanish(UUID playerUuid, String playerName, ExecutionContext context) {
-        return CompletableFuture.supplyAsync(() -> {
+        return executor.supply(() -> {
             if (plugin.isVanished(playerUuid)) {
                 plugin.removeVanishedPlayer(playerUuid);
                 Universe.get().getPlayers().forEach(observer -> {
@@ -790,12 +792,11 @@ public class ModerationService {
     }
     public Optional<Punishment> getActiveMute(UUID uuid, String username) {
         try {
-            PlayerData playerData = plugin.getStorageManager().getOrCreatePlayer(uuid, username);
-            List<Punishment> mutes = plugin.getStorageManager().getActivePunishmentsByType(playerData.id(), "MUTE");
+            // Answered from the in-memory index; expiry itself is handled by PunishmentExpiryScheduler
+            List<Punishment> mutes = plugin.getStorageManager().getActivePunishmentIndex().get(uuid, "MUTE");
             for (Punishment p : mutes) {
+                // Past its expiry but not yet swept by the expiry scheduler
                 if (p.expiresAt() > 0 && System.currentTimeMillis() > p.expiresAt()) {
-                    plugin.getStorageManager().deactivatePunishment(p.id());
-                    plugin.notifyStaff(plugin.getLanguageManager().translateToMessage("staff.unmute.notify", null, Map.of("issuer", "System", "target", username)));
                     continue;
                 }
                 return Optional.of(p);
@@ -808,31 +809,27 @@ public class ModerationService {
 
     public void handleJoinPunishmentChecks(UUID uuid, String username) {
         try {
-            // Check Mutes (Trigger auto-expire)
-            getActiveMute(uuid, username);
-
-            // Check Bans (Trigger auto-expire)
-            PlayerData playerData = plugin.getStorageManager().getOrCreatePlayer(uuid, username);
-            List<Punishment> bans = plugin.getStorageManager().getActivePunishmentsByType(playerData.id(), "BAN");
-            for (Punishment p : bans) {
-                if (p.expiresAt() > 0 && System.currentTimeMillis() > p.expiresAt()) {
-                    plugin.getStorageManager().deactivatePunishment(p.id());
-                    plugin.notifyStaff(plugin.getLanguageManager().translateToMessage("staff.unban.notify", null, java.util.Map.of("issuer", "System", "target", username)));
-                }
+            // The only last_seen write of the session; queued so the connect thread never waits on the database.
+            // The upserted row carries the locale, so translations never read it back later.
+            plugin.getStorageManager().recordJoin(uuid, username)
+                    .thenAccept(data -> plugin.getLanguageManager().primeLocale(uuid, data.locale()));
+            ActivePunishmentIndex index = plugin.getStorageManager().getActivePunishmentIndex();
+
+            // Nearly every player has nothing active and is done here
+            if (!index.hasAny(uuid)) {
+                return;
             }
+            ((CoreModerationStateService) plugin.getModerationStateService()).load(uuid, index);
+
+            // Mute and ban expiry is handled by PunishmentExpiryScheduler
 
             // Check Jails
-            List<Punishment> jails = plugin.getStorageManager().getActivePunishmentsByType(playerData.id(), "JAIL");
+            List<Punishment> jails = index.get(uuid, "JAIL");
             Punishment activeJail = jails.isEmpty() ? null : jails.get(0);
             
             if (activeJail != null) {
+                // Expired but not yet swept; the scheduler releases it within a tick
                 if (activeJail.expiresAt() > 0 && System.currentTimeMillis() > activeJail.expiresAt()) {
-                     plugin.getStorageManager().deactivatePunishment(activeJail.id());
-                     // Trigger unjail logic (restore location)
-                     // Since we are in join handler, we can assume player is here or connecting.
-                     // But unjail is ASYNC. We should call unjail.
-                     ExecutionContext ctx = ExecutionContext.console();
-                     unjail(uuid, username, ctx); 
                      return;
                 }
 
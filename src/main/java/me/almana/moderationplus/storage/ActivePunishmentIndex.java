@@ -0,0 +1,119 @@
+package me.almana.moderationplus.storage;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.BiConsumer;
+
+/**
+ * In-memory view of every active punishment, keyed by player UUID and type.
+ * Maintained by StorageManager so chat and join checks never hit the database.
+ */
+public class ActivePunishmentIndex {
+
+    private final Map<Key, List<Punishment>> active = new ConcurrentHashMap<>();
+    private final Map<Integer, Key> keysById = new ConcurrentHashMap<>();
+    private final Map<Integer, UUID> playerUuids = new ConcurrentHashMap<>();
+    // Active punishments per player, so the join path can rule a player out with one lookup
+    private final Map<UUID, Integer> counts = new ConcurrentHashMap<>();
+    private volatile BiConsumer<UUID, Punishment> addListener;
+
+    public List<Punishment> get(UUID uuid, String type) {
+        List<Punishment> list = active.get(new Key(uuid, type));
+        return list != null ? list : Collections.emptyList();
+    }
+
+    public boolean hasActive(UUID uuid, String type) {
+        return active.containsKey(new Key(uuid, type));
+    }
+
+    public boolean hasAny(UUID uuid) {
+        return counts.containsKey(uuid);
+    }
+
+    public boolean contains(int punishmentId) {
+        return keysById.containsKey(punishmentId);
+    }
+
+    // Told about every punishment that becomes active, including the ones loaded at startup
+    public void setAddListener(BiConsumer<UUID, Punishment> listener) {
+        this.addListener = listener;
+    }
+
+    public int size() {
+        return keysById.size();
+    }
+
+    // Snapshot of every indexed punishment id
+    java.util.Set<Integer> ids() {
+        return new java.util.HashSet<>(keysById.keySet());
+    }
+
+    UUID getPlayerUuid(int playerId) {
+        return playerUuids.get(playerId);
+    }
+
+    void rememberPlayer(int playerId, UUID uuid) {
+        playerUuids.put(playerId, uuid);
+    }
+
+    void add(UUID uuid, Punishment punishment) {
+        Key key = new Key(uuid, punishment.type());
+        playerUuids.put(punishment.playerId(), uuid);
+        keysById.put(punishment.id(), key);
+        counts.merge(uuid, 1, Integer::sum);
+        // Lists are replaced, never mutated, so readers can iterate without locking
+        active.compute(key, (k, list) -> {
+            List<Punishment> next = list != null ? new ArrayList<>(list) : new ArrayList<>(1);
+            next.add(punishment);
+            return Collections.unmodifiableList(next);
+        });
+        BiConsumer<UUID, Punishment> listener = addListener;
+        if (listener != null) {
+            listener.accept(uuid, punishment);
+        }
+    }
+
+    void remove(int punishmentId) {
+        Key key = keysById.remove(punishmentId);
+        if (key == null) {
+            return;
+        }
+        decrement(key.uuid(), 1);
+        active.computeIfPresent(key, (k, list) -> {
+            List<Punishment> next = new ArrayList<>(list.size());
+            for (Punishment p : list) {
+                if (p.id() != punishmentId) {
+                    next.add(p);
+                }
+            }
+            return next.isEmpty() ? null : Collections.unmodifiableList(next);
+        });
+    }
+
+    void removeAll(UUID uuid, String type) {
+        List<Punishment> removed = active.remove(new Key(uuid, type));
+        if (removed != null) {
+            for (Punishment p : removed) {
+                keysById.remove(p.id());
+            }
+            decrement(uuid, removed.size());
+        }
+    }
+
+    void clear() {
+        active.clear();
+        keysById.clear();
+        counts.clear();
+    }
+
+    private void decrement(UUID uuid, int by) {
+        counts.computeIfPresent(uuid, (k, count) -> count > by ? count - by : null);
+    }
+
+    private record Key(UUID uuid, String type) {
+    }
+}
@@ -0,0 +1,186 @@
+package me.almana.moderationplus.storage;
+
+import com.hypixel.hytale.logger.HytaleLogger;
+import com.hypixel.hytale.server.core.HytaleServer;
+import me.almana.moderationplus.ModerationPlus;
+import me.almana.moderationplus.config.ConfigManager;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.logging.Level;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Scheduled online backups of the SQLite database into mods/data/backups.
+ * The copy is taken a few pages at a time with a pause between steps, then gzipped; only the
+ * newest backup.keep files are kept. Shared databases are left to their own server's backups.
+ */
+public class DatabaseBackupService {
+
+    private static final HytaleLogger logger = HytaleLogger.forEnclosingClass();
+    private static final Path BACKUP_DIR = Paths.get("mods", "data", "backups");
+    private static final String PREFIX = "moderation-";
+    private static final String SUFFIX = ".db.gz";
+    private static final DateTimeFormatter STAMP = DateTimeFormatter.ofPattern("yyyyMMdd-HHmmss");
+    private static final long MIN_INITIAL_DELAY_MINUTES = 5;
+    private static final int BUFFER_SIZE = 1 << 16;
+
+    private final ModerationPlus plugin;
+    private final AtomicBoolean running = new AtomicBoolean();
+    private final LongAdder completed;
+    private final LongAdder failed;
+    private volatile long progressPercent;
+    private volatile long lastDurationMillis;
+    private volatile long lastSizeBytes;
+    private ScheduledFuture<?> task;
+
+    public DatabaseBackupService(ModerationPlus plugin) {
+        this.plugin = plugin;
+        this.completed = plugin.getMetrics().counter("backup.completed");
+        this.failed = plugin.getMetrics().counter("backup.failed");
+        plugin.getMetrics().gauge("backup.progress_percent", () -> progressPercent);
+        plugin.getMetrics().gauge("backup.last_duration_ms", () -> lastDurationMillis);
+        plugin.getMetrics().gauge("backup.last_size_bytes", () -> lastSizeBytes);
+    }
+
+    public void start() {
+        if (plugin.getStorageManager().isShared()) {
+            logger.at(Level.INFO).log("Online backup skipped: shared databases are backed up by their own server");
+            return;
+        }
+        long intervalHours = plugin.getConfigManager().getBackupIntervalHours();
+        if (intervalHours <= 0) {
+            logger.at(Level.INFO).log("Online backup disabled");
+            return;
+        }
+
+        // Pick up the schedule where the newest backup left it, so frequent restarts still back up
+        long intervalMinutes = TimeUnit.HOURS.toMinutes(intervalHours);
+        long sinceLast = minutesSinceNewestBackup();
+        long initialDelay = Math.max(MIN_INITIAL_DELAY_MINUTES, intervalMinutes - sinceLast);
+        task = HytaleServer.SCHEDULED_EXECUTOR.scheduleAtFixedRate(
+                () -> plugin.getExecutor().run(this::backup),
+                initialDelay, intervalMinutes, TimeUnit.MINUTES);
+        logger.at(Level.INFO).log("Online backup scheduled every %d hours, next in %d minutes",
+                intervalHours, initialDelay);
+    }
+
+    public void stop() {
+        if (task != null) {
+            task.cancel(false);
+            task = null;
+        }
+    }
+
+    public void backup() {
+        if (!running.compareAndSet(false, true)) {
+            return;
+        }
+        ConfigManager config = plugin.getConfigManager();
+        String name = PREFIX + LocalDateTime.now().format(STAMP);
+        Path raw = BACKUP_DIR.resolve(name + ".db.tmp");
+        Path compressed = BACKUP_DIR.resolve(name + SUFFIX + ".tmp");
+        long start = System.currentTimeMillis();
+        try {
+            Files.createDirectories(BACKUP_DIR);
+            long stepDelay = config.getBackupStepDelayMillis();
+            progressPercent = 0;
+            plugin.getStorageManager().backup(raw, config.getBackupPagesPerStep(), (remaining, pageCount) -> {
+                progressPercent = pageCount == 0 ? 100 : (pageCount - remaining) * 100L / pageCount;
+                // Only paced without WAL; a WAL copy holds its snapshot throughout and runs as one step
+                if (stepDelay > 0 && remaining > 0) {
+                    try {
+                        Thread.sleep(stepDelay);
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    }
+                }
+            });
+            progressPercent = 100;
+
+            gzip(raw, compressed);
+            Path target = BACKUP_DIR.resolve(name + SUFFIX);
+            // Only complete archives ever carry the final name
+            Files.move(compressed, target, StandardCopyOption.ATOMIC_MOVE);
+            lastSizeBytes = Files.size(target);
+            lastDurationMillis = System.currentTimeMillis() - start;
+            completed.increment();
+            logger.at(Level.INFO).log("Database backed up to %s (%d KiB) in %dms", target, lastSizeBytes / 1024,
+                    lastDurationMillis);
+
+            rotate(config.getBackupKeep());
+        } catch (Exception e) {
+            failed.increment();
+            logger.at(Level.SEVERE).withCause(e).log("Database backup failed");
+        } finally {
+            deleteQuietly(raw);
+            deleteQuietly(compressed);
+            running.set(false);
+        }
+    }
+
+    private static void gzip(Path source, Path target) throws IOException {
+        try (InputStream in = Files.newInputStream(source);
+                OutputStream out = new GZIPOutputStream(Files.newOutputStream(target), BUFFER_SIZE)) {
+            in.transferTo(out);
+        }
+    }
+
+    // Names sort by timestamp, so the oldest are first
+    private static List<Path> listBackups() throws IOException {
+        List<Path> backups = new ArrayList<>();
+        if (!Files.isDirectory(BACKUP_DIR)) {
+            return backups;
+        }
+        try (DirectoryStream<Path> stream = Files.newDirectoryStream(BACKUP_DIR, PREFIX + "*" + SUFFIX)) {
+            stream.forEach(backups::add);
+        }
+        Collections.sort(backups);
+        return backups;
+    }
+
+    private void rotate(int keep) throws IOException {
+        List<Path> backups = listBackups();
+        for (int i = 0; i < backups.size() - keep; i++) {
+            Files.deleteIfExists(backups.get(i));
+            logger.at(Level.FINE).log("Removed old backup %s", backups.get(i));
+        }
+    }
+
+    private long minutesSinceNewestBackup() {
+        try {
+            List<Path> backups = listBackups();
+            if (backups.isEmpty()) {
+                return Long.MAX_VALUE / 2;
+            }
+            long modified = Files.getLastModifiedTime(backups.get(backups.size() - 1)).toMillis();
+            return TimeUnit.MILLISECONDS.toMinutes(Math.max(0, System.currentTimeMillis() - modified));
+        } catch (IOException e) {
+            logger.at(Level.WARNING).withCause(e).log("Could not read existing backups");
+            return Long.MAX_VALUE / 2;
+        }
+    }
+
+    private static void deleteQuietly(Path path) {
+        try {
+            Files.deleteIfExists(path);
+        } catch (IOException e) {
+            logger.at(Level.WARNING).withCause(e).log("Could not delete %s", path);
+        }
+    }
+}
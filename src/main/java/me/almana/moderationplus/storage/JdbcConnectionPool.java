@@ -0,0 +1,182 @@
+package me.almana.moderationplus.storage;
+
+import com.hypixel.hytale.logger.HytaleLogger;
+import com.zaxxer.hikari.HikariConfig;
+import com.zaxxer.hikari.HikariDataSource;
+import me.almana.moderationplus.core.metrics.MetricsRegistry;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.concurrent.CompletableFuture;
+import java.util.logging.Level;
+
+/**
+ * Connection layer for a shared MySQL or PostgreSQL server.
+ * Reads borrow from a HikariCP pool and run in parallel. Writes still go through one writer thread
+ * per game server, which borrows a pooled connection per batch and group-commits it, so a batch
+ * costs one round trip to COMMIT instead of one per write.
+ */
+public class JdbcConnectionPool implements StorageBackend {
+
+    private static final HytaleLogger logger = HytaleLogger.forEnclosingClass();
+
+    public record Settings(String host, int port, String database, String username, String password, int poolSize,
+            int writeQueueCapacity, long writeQueueTimeoutMillis, int writeBatchSize, long writeBatchWindowMillis) {
+    }
+
+    private final SqlDialect dialect;
+    private final Settings settings;
+    // Set only by tests, which point the pool at an embedded stand-in instead of the vendor driver
+    private final String jdbcUrl;
+    private final WriteQueue writer;
+    private HikariDataSource dataSource;
+
+    public JdbcConnectionPool(SqlDialect dialect, Settings settings) {
+        this(dialect, settings, null);
+    }
+
+    JdbcConnectionPool(SqlDialect dialect, Settings settings, String jdbcUrl) {
+        if (dialect == SqlDialect.SQLITE) {
+            throw new IllegalArgumentException("SQLite uses SqliteConnectionPool");
+        }
+        this.dialect = dialect;
+        this.settings = settings;
+        this.jdbcUrl = jdbcUrl;
+        this.writer = new WriteQueue("ModerationPlus-DB-Writer", new WriteQueue.ConnectionSource() {
+            @Override
+            public Connection acquire() throws SQLException {
+                return dataSource.getConnection();
+            }
+
+            @Override
+            public void release(Connection connection) {
+                closeQuietly(connection);
+            }
+        }, settings.writeQueueCapacity(), settings.writeQueueTimeoutMillis(), settings.writeBatchSize(),
+                settings.writeBatchWindowMillis());
+    }
+
+    @Override
+    public void open() throws SQLException {
+        int port = settings.port() > 0 ? settings.port() : dialect.defaultPort();
+
+        HikariConfig config = new HikariConfig();
+        config.setPoolName("ModerationPlus");
+        if (jdbcUrl != null) {
+            // A stand-in driver would reject the vendor properties
+            config.setJdbcUrl(jdbcUrl);
+        } else {
+            config.setDriverClassName(dialect.driverClass());
+            config.setJdbcUrl(dialect.jdbcPrefix() + settings.host() + ":" + port + "/" + settings.database());
+            addDriverProperties(config);
+        }
+        config.setUsername(settings.username());
+        config.setPassword(settings.password());
+        // One extra connection so the writer never waits behind a burst of reads
+        config.setMaximumPoolSize(Math.max(1, settings.poolSize()) + 1);
+
+        try {
+            dataSource = new HikariDataSource(config);
+        } catch (RuntimeException e) {
+            throw new SQLException("Failed to connect to " + dialect + " at " + settings.host() + ":" + port, e);
+        }
+        writer.start();
+
+        logger.at(Level.INFO).log("Database opened (%s at %s:%d/%s, pool=%d)",
+                dialect, settings.host(), port, settings.database(), config.getMaximumPoolSize());
+    }
+
+    // Statements are re-prepared per borrow, so the driver keeps the server-side cache instead
+    private void addDriverProperties(HikariConfig config) {
+        if (dialect == SqlDialect.MYSQL) {
+            config.addDataSourceProperty("cachePrepStmts", "true");
+            config.addDataSourceProperty("prepStmtCacheSize", "250");
+            config.addDataSourceProperty("prepStmtCacheSqlLimit", "2048");
+            config.addDataSourceProperty("useServerPrepStmts", "true");
+            config.addDataSourceProperty("rewriteBatchedStatements", "true");
+        } else {
+            config.addDataSourceProperty("reWriteBatchedInserts", "true");
+        }
+    }
+
+    @Override
+    public SqlDialect dialect() {
+        return dialect;
+    }
+
+    // Hikari closes every statement opened on a connection when it goes back to the pool
+    @Override
+    public PreparedStatement prepare(Connection connection, String sql) throws SQLException {
+        return connection.prepareStatement(sql);
+    }
+
+    @Override
+    public PreparedStatement prepareReturningKeys(Connection connection, String sql) throws SQLException {
+        return connection.prepareStatement(sql, Statement.RETURN_GENERATED_KEYS);
+    }
+
+    @Override
+    public <T> T read(SqlWork<T> work) throws SQLException {
+        // Reads issued from inside a write see the writer's own state
+        if (writer.isWriterThread()) {
+            return work.apply(writer.currentConnection());
+        }
+        try (Connection connection = dataSource.getConnection()) {
+            return work.apply(connection);
+        }
+    }
+
+    @Override
+    public <T> T write(SqlWork<T> work) throws SQLException {
+        return writer.write(work);
+    }
+
+    @Override
+    public <T> T writeOutsideTransaction(SqlWork<T> work) throws SQLException {
+        return writer.writeOutsideTransaction(work);
+    }
+
+    @Override
+    public <T> CompletableFuture<T> submit(SqlWork<T> work) {
+        return writer.submit(work);
+    }
+
+    @Override
+    public void afterCommit(Runnable action) {
+        writer.afterCommit(action);
+    }
+
+    // The server manages its own log
+    @Override
+    public void checkpoint() {
+    }
+
+    @Override
+    public void registerMetrics(MetricsRegistry metrics) {
+        metrics.gauge("storage.pool.active", () -> dataSource.getHikariPoolMXBean().getActiveConnections());
+        metrics.gauge("storage.pool.idle", () -> dataSource.getHikariPoolMXBean().getIdleConnections());
+        metrics.gauge("storage.pool.waiting", () -> dataSource.getHikariPoolMXBean().getThreadsAwaitingConnection());
+        metrics.gauge("storage.write_queue.pending", writer::pending);
+        metrics.gauge("storage.write_queue.rejected", writer::rejectedWrites);
+        metrics.gauge("storage.write_batches", writer::committedBatches);
+        metrics.gauge("storage.writes_committed", writer::committedWrites);
+    }
+
+    @Override
+    public void close() {
+        writer.close();
+        if (dataSource != null) {
+            dataSource.close();
+        }
+    }
+
+    private void closeQuietly(Connection connection) {
+        try {
+            connection.close();
+        } catch (SQLException e) {
+            logger.at(Level.SEVERE).withCause(e).log("Failed to return database connection to the pool");
+        }
+    }
+}
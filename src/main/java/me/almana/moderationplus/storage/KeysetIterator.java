@@ -0,0 +1,56 @@
+package me.almana.moderationplus.storage;
+
+import java.sql.SQLException;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+/**
+ * Walks a keyset-paginated query one page at a time, so only a single page is ever in memory
+ * and no database connection is held between pages.
+ */
+public class KeysetIterator<T> implements Iterator<T> {
+
+    @FunctionalInterface
+    public interface PageFetcher<T> {
+        Page<T> fetch(Page.Cursor after) throws SQLException;
+    }
+
+    private final PageFetcher<T> fetcher;
+    private Iterator<T> current = Collections.emptyIterator();
+    private Page.Cursor next;
+    private boolean exhausted;
+    private boolean started;
+
+    public KeysetIterator(PageFetcher<T> fetcher) {
+        this.fetcher = fetcher;
+    }
+
+    @Override
+    public boolean hasNext() {
+        while (!current.hasNext()) {
+            if (exhausted) {
+                return false;
+            }
+            Page<T> page;
+            try {
+                page = fetcher.fetch(started ? next : null);
+            } catch (SQLException e) {
+                throw new RuntimeException("Database error while paging", e);
+            }
+            started = true;
+            current = page.items().iterator();
+            next = page.next();
+            exhausted = next == null;
+        }
+        return true;
+    }
+
+    @Override
+    public T next() {
+        if (!hasNext()) {
+            throw new NoSuchElementException();
+        }
+        return current.next();
+    }
+}
@@ -0,0 +1,15 @@
+package me.almana.moderationplus.storage;
+
+import java.util.List;
+
+// One keyset page, newest first; next is null on the last page
+public record Page<T>(List<T> items, Cursor next) {
+
+    public boolean hasMore() {
+        return next != null;
+    }
+
+    // Position after the last row of a page: rows strictly older than (createdAt, id) come next
+    public record Cursor(long createdAt, int id) {
+    }
+}
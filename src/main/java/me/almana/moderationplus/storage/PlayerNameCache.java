@@ -0,0 +1,81 @@
+package me.almana.moderationplus.storage;
+
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Bounded UUID to username cache with case-insensitive reverse lookups.
+ * The least recently used UUID is evicted together with its name entry. A name always maps to
+ * the UUID it was most recently seen with, so renames and reused names resolve like the database.
+ */
+public final class PlayerNameCache {
+
+    private final int capacity;
+    private final Map<UUID, String> names;
+    private final Map<String, UUID> uuids = new HashMap<>();
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+
+    public PlayerNameCache(int capacity) {
+        this.capacity = capacity;
+        this.names = new LinkedHashMap<>(capacity, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<UUID, String> eldest) {
+                if (size() <= PlayerNameCache.this.capacity) {
+                    return false;
+                }
+                uuids.remove(key(eldest.getValue()), eldest.getKey());
+                return true;
+            }
+        };
+    }
+
+    public synchronized void put(UUID uuid, String username) {
+        if (uuid == null || username == null) {
+            return;
+        }
+        String previous = names.put(uuid, username);
+        if (previous != null && !previous.equalsIgnoreCase(username)) {
+            uuids.remove(key(previous), uuid);
+        }
+        uuids.put(key(username), uuid);
+    }
+
+    public synchronized String getName(UUID uuid) {
+        String name = names.get(uuid);
+        (name != null ? hits : misses).increment();
+        return name;
+    }
+
+    public synchronized UUID getUuid(String username) {
+        UUID uuid = uuids.get(key(username));
+        if (uuid != null) {
+            // Touch the forward entry so names in use are not evicted
+            names.get(uuid);
+            hits.increment();
+        } else {
+            misses.increment();
+        }
+        return uuid;
+    }
+
+    public synchronized int size() {
+        return names.size();
+    }
+
+    public long hits() {
+        return hits.sum();
+    }
+
+    public long misses() {
+        return misses.sum();
+    }
+
+    private static String key(String username) {
+        return username.toLowerCase(Locale.ROOT);
+    }
+}
@@ -0,0 +1,69 @@
+package me.almana.moderationplus.storage;
+
+import com.hypixel.hytale.logger.HytaleLogger;
+import com.hypixel.hytale.server.core.HytaleServer;
+import me.almana.moderationplus.ModerationPlus;
+
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.logging.Level;
+
+/**
+ * Keeps the live punishments table small by moving inactive rows older than
+ * database.archive_after_days into punishments_archive. Active checks never read the archive;
+ * history pages read both.
+ */
+public class PunishmentArchiver {
+
+    private static final HytaleLogger logger = HytaleLogger.forEnclosingClass();
+    private static final int BATCH_SIZE = 500;
+    private static final long INITIAL_DELAY_MINUTES = 1;
+    private static final long INTERVAL_MINUTES = 60;
+
+    private final ModerationPlus plugin;
+    private final LongAdder archived;
+    private ScheduledFuture<?> task;
+
+    public PunishmentArchiver(ModerationPlus plugin) {
+        this.plugin = plugin;
+        this.archived = plugin.getMetrics().counter("storage.archived");
+    }
+
+    public void start() {
+        int days = plugin.getConfigManager().getDatabaseArchiveAfterDays();
+        if (days <= 0) {
+            logger.at(Level.INFO).log("Punishment archiving disabled");
+            return;
+        }
+        task = HytaleServer.SCHEDULED_EXECUTOR.scheduleAtFixedRate(
+                () -> plugin.getExecutor().run(() -> archive(days)),
+                INITIAL_DELAY_MINUTES, INTERVAL_MINUTES, TimeUnit.MINUTES);
+    }
+
+    public void stop() {
+        if (task != null) {
+            task.cancel(false);
+            task = null;
+        }
+    }
+
+    private void archive(int days) {
+        long cutoff = System.currentTimeMillis() - TimeUnit.DAYS.toMillis(days);
+        int total = 0;
+        try {
+            int moved;
+            // Small batches keep each write short so the writer queue never stalls behind the move
+            do {
+                moved = plugin.getStorageManager().archivePunishments(cutoff, BATCH_SIZE);
+                total += moved;
+                archived.add(moved);
+            } while (moved == BATCH_SIZE);
+        } catch (Exception e) {
+            logger.at(Level.SEVERE).withCause(e).log("Failed to archive punishments");
+        }
+        if (total > 0) {
+            logger.at(Level.INFO).log("Archived %d inactive punishments older than %d days.", total, days);
+        }
+    }
+}
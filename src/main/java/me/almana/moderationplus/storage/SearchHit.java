@@ -0,0 +1,10 @@
+package me.almana.moderationplus.storage;
+
+// One full-text match; excerpt is the matched text with the hits in [brackets]
+public record SearchHit(
+        int id,
+        String player,
+        String type,
+        String excerpt,
+        long createdAt) {
+}
@@ -0,0 +1,87 @@
+package me.almana.moderationplus.storage;
+
+/**
+ * The places where SQLite, MySQL and PostgreSQL disagree on SQL.
+ * Everything else StorageManager writes is shared between them.
+ */
+public enum SqlDialect {
+    SQLITE,
+    MYSQL,
+    POSTGRESQL;
+
+    // MySQL has no RETURNING clause, so callers fall back to a follow-up select
+    public boolean supportsReturning() {
+        return this != MYSQL;
+    }
+
+    public String identityColumn() {
+        return switch (this) {
+            case SQLITE -> "INTEGER PRIMARY KEY AUTOINCREMENT";
+            case MYSQL -> "INT AUTO_INCREMENT PRIMARY KEY";
+            case POSTGRESQL -> "SERIAL PRIMARY KEY";
+        };
+    }
+
+    // Case-insensitive username match; MySQL's default collation already ignores case
+    public String usernameMatch() {
+        return switch (this) {
+            case SQLITE -> "username = ? COLLATE NOCASE";
+            case MYSQL -> "username = ?";
+            case POSTGRESQL -> "LOWER(username) = LOWER(?)";
+        };
+    }
+
+    // Insert-or-refresh keyed on players.uuid; parameters are uuid, username, first_seen, last_seen
+    public String upsertPlayer() {
+        String insert = "INSERT INTO players (uuid, username, first_seen, last_seen) VALUES (?, ?, ?, ?) ";
+        return switch (this) {
+            case SQLITE, POSTGRESQL -> insert
+                    + "ON CONFLICT(uuid) DO UPDATE SET username = excluded.username, last_seen = excluded.last_seen";
+            case MYSQL -> insert
+                    + "ON DUPLICATE KEY UPDATE username = VALUES(username), last_seen = VALUES(last_seen)";
+        };
+    }
+
+    // Insert that silently does nothing when the primary key already exists
+    public String insertIgnore(String table, String columns, int valueCount) {
+        String values = String.join(", ", java.util.Collections.nCopies(valueCount, "?"));
+        return switch (this) {
+            case SQLITE -> "INSERT OR IGNORE INTO " + table + " (" + columns + ") VALUES (" + values + ")";
+            case MYSQL -> "INSERT IGNORE INTO " + table + " (" + columns + ") VALUES (" + values + ")";
+            case POSTGRESQL -> "INSERT INTO " + table + " (" + columns + ") VALUES (" + values + ") ON CONFLICT DO NOTHING";
+        };
+    }
+
+    // Deletes at most limit matching rows; MySQL rejects LIMIT inside an IN subquery but allows it on DELETE
+    public String limitedDelete(String table, String key, String condition, int limit) {
+        if (this == MYSQL) {
+            return "DELETE FROM " + table + " WHERE " + condition + " LIMIT " + limit;
+        }
+        return "DELETE FROM " + table + " WHERE " + key + " IN (SELECT " + key + " FROM " + table
+                + " WHERE " + condition + " LIMIT " + limit + ")";
+    }
+
+    public String jdbcPrefix() {
+        return switch (this) {
+            case SQLITE -> "jdbc:sqlite:";
+            case MYSQL -> "jdbc:mysql://";
+            case POSTGRESQL -> "jdbc:postgresql://";
+        };
+    }
+
+    public String driverClass() {
+        return switch (this) {
+            case SQLITE -> "org.sqlite.JDBC";
+            case MYSQL -> "com.mysql.cj.jdbc.Driver";
+            case POSTGRESQL -> "org.postgresql.Driver";
+        };
+    }
+
+    public int defaultPort() {
+        return switch (this) {
+            case SQLITE -> 0;
+            case MYSQL -> 3306;
+            case POSTGRESQL -> 5432;
+        };
+    }
+}
@@ -0,0 +1,273 @@
+package me.almana.moderationplus.storage;
+
+import com.hypixel.hytale.logger.HytaleLogger;
+import me.almana.moderationplus.core.metrics.MetricsRegistry;
+import org.sqlite.SQLiteConnection;
+import org.sqlite.core.Codes;
+import org.sqlite.core.DB;
+
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Level;
+
+/**
+ * Connection layer for the SQLite database.
+ * Reads borrow one of a fixed set of read-only connections and run in parallel under WAL.
+ * Writes are funnelled through a single writer thread that owns the only read-write connection,
+ * which groups queued writes into one transaction per batch window.
+ */
+public class SqliteConnectionPool implements StorageBackend {
+
+    private static final HytaleLogger logger = HytaleLogger.forEnclosingClass();
+    private static final long BORROW_TIMEOUT_SECONDS = 30;
+    private static final int STATEMENT_CACHE_SIZE = 64;
+    private static final int BACKUP_BUSY_SLEEP_MILLIS = 100;
+    private static final int BACKUP_BUSY_RETRIES = 50;
+
+    public record Settings(String journalMode, String synchronous, int busyTimeoutMillis, int cacheSize,
+            long mmapSize, int readerPoolSize, int writeQueueCapacity, long writeQueueTimeoutMillis,
+            int writeBatchSize, long writeBatchWindowMillis, long checkpointIntervalSeconds,
+            long maxCheckpointIntervalSeconds, long checkpointRestartFrames, long checkpointTruncateBytes) {
+    }
+
+    private final String url;
+    private final Settings settings;
+    private final BlockingQueue<Connection> readers;
+    private final List<Connection> allReaders = new ArrayList<>();
+    private final StatementCache statements = new StatementCache(STATEMENT_CACHE_SIZE);
+    private final WriteQueue writer;
+    private Connection writeConnection;
+    private WalCheckpointer checkpointer;
+
+    public SqliteConnectionPool(String url, Settings settings) {
+        this.url = url;
+        this.settings = settings;
+        this.readers = new ArrayBlockingQueue<>(Math.max(1, settings.readerPoolSize()));
+        // The writer keeps the one read-write connection for its whole life
+        this.writer = new WriteQueue("ModerationPlus-DB-Writer", new WriteQueue.ConnectionSource() {
+            @Override
+            public Connection acquire() {
+                return writeConnection;
+            }
+
+            @Override
+            public void release(Connection connection) {
+            }
+        }, settings.writeQueueCapacity(), settings.writeQueueTimeoutMillis(), settings.writeBatchSize(),
+                settings.writeBatchWindowMillis());
+    }
+
+    @Override
+    public void open() throws SQLException {
+        try {
+            Class.forName("org.sqlite.JDBC");
+        } catch (ClassNotFoundException e) {
+            throw new IllegalStateException("SQLite JDBC driver not found", e);
+        }
+
+        // The writer connection sets the persistent journal mode before any reader opens
+        writeConnection = DriverManager.getConnection(url);
+        writeConnection.setAutoCommit(true);
+        try (Statement stmt = writeConnection.createStatement()) {
+            stmt.execute("PRAGMA journal_mode = " + settings.journalMode() + ";");
+            stmt.execute("PRAGMA foreign_keys = ON;");
+        }
+        applyConnectionPragmas(writeConnection);
+
+        int poolSize = Math.max(1, settings.readerPoolSize());
+        for (int i = 0; i < poolSize; i++) {
+            Connection reader = DriverManager.getConnection(url);
+            applyConnectionPragmas(reader);
+            try (Statement stmt = reader.createStatement()) {
+                stmt.execute("PRAGMA query_only = ON;");
+            }
+            allReaders.add(reader);
+            readers.add(reader);
+        }
+
+        writer.start();
+
+        // Other journal modes have no WAL to checkpoint
+        if (settings.journalMode().equals("WAL")) {
+            Path walFile = Paths.get(url.substring(SqlDialect.SQLITE.jdbcPrefix().length()) + "-wal");
+            checkpointer = new WalCheckpointer(url, walFile, settings.busyTimeoutMillis(),
+                    settings.checkpointIntervalSeconds(),
+                    TimeUnit.SECONDS.toMillis(settings.maxCheckpointIntervalSeconds()),
+                    settings.checkpointRestartFrames(), settings.checkpointTruncateBytes(), writer::committedWrites);
+            checkpointer.start();
+        }
+
+        logger.at(Level.INFO).log("Database opened (journal_mode=%s, synchronous=%s, readers=%d)",
+                settings.journalMode(), settings.synchronous(), poolSize);
+    }
+
+    private void applyConnectionPragmas(Connection connection) throws SQLException {
+        try (Statement stmt = connection.createStatement()) {
+            stmt.execute("PRAGMA busy_timeout = " + settings.busyTimeoutMillis() + ";");
+            stmt.execute("PRAGMA synchronous = " + settings.synchronous() + ";");
+            stmt.execute("PRAGMA cache_size = " + settings.cacheSize() + ";");
+            stmt.execute("PRAGMA mmap_size = " + settings.mmapSize() + ";");
+        }
+    }
+
+    @Override
+    public SqlDialect dialect() {
+        return SqlDialect.SQLITE;
+    }
+
+    // Only valid inside read/write work, on the connection that work was handed
+    @Override
+    public PreparedStatement prepare(Connection connection, String sql) throws SQLException {
+        return statements.prepare(connection, sql, false);
+    }
+
+    @Override
+    public PreparedStatement prepareReturningKeys(Connection connection, String sql) throws SQLException {
+        return statements.prepare(connection, sql, true);
+    }
+
+    public StatementCache getStatementCache() {
+        return statements;
+    }
+
+    @Override
+    public <T> T read(SqlWork<T> work) throws SQLException {
+        // Reads issued from inside a write see the writer's own state
+        if (writer.isWriterThread()) {
+            return work.apply(writeConnection);
+        }
+
+        Connection connection;
+        try {
+            connection = readers.poll(BORROW_TIMEOUT_SECONDS, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new SQLException("Interrupted while waiting for a database connection", e);
+        }
+        if (connection == null) {
+            throw new SQLException("Timed out waiting for a database connection");
+        }
+        try {
+            return work.apply(connection);
+        } finally {
+            readers.offer(connection);
+        }
+    }
+
+    @Override
+    public <T> T write(SqlWork<T> work) throws SQLException {
+        return writer.write(work);
+    }
+
+    // SQLite refuses checkpoint and vacuum inside a transaction
+    @Override
+    public <T> T writeOutsideTransaction(SqlWork<T> work) throws SQLException {
+        return writer.writeOutsideTransaction(work);
+    }
+
+    @Override
+    public <T> CompletableFuture<T> submit(SqlWork<T> work) {
+        return writer.submit(work);
+    }
+
+    @Override
+    public void afterCommit(Runnable action) {
+        writer.afterCommit(action);
+    }
+
+    @Override
+    public void checkpoint() throws SQLException {
+        writeOutsideTransaction(connection -> {
+            try (Statement stmt = connection.createStatement()) {
+                stmt.execute("PRAGMA wal_checkpoint(FULL);");
+            }
+            return null;
+        });
+    }
+
+    /**
+     * Copies the live database to destination with the SQLite online backup API, pagesPerStep pages
+     * at a time. Runs on its own connection, so readers and the writer are never blocked. Without
+     * WAL, writes in between steps restart the copy. Under WAL the copy reads one snapshot for its
+     * whole run, which pins the WAL until it ends, so it is made in a single step with no pauses.
+     */
+    public void backup(Path destination, int pagesPerStep, DB.ProgressObserver observer) throws SQLException {
+        try (Connection source = DriverManager.getConnection(url)) {
+            try (Statement stmt = source.createStatement()) {
+                stmt.execute("PRAGMA busy_timeout = " + settings.busyTimeoutMillis() + ";");
+            }
+            boolean snapshot = settings.journalMode().equals("WAL");
+            if (snapshot) {
+                source.setAutoCommit(false);
+                try (Statement stmt = source.createStatement();
+                        ResultSet rs = stmt.executeQuery("SELECT COUNT(*) FROM sqlite_master")) {
+                    rs.next();
+                }
+            }
+            try {
+                int rc = source.unwrap(SQLiteConnection.class).getDatabase()
+                        .backup("main", destination.toString(), observer, BACKUP_BUSY_SLEEP_MILLIS,
+                                BACKUP_BUSY_RETRIES, snapshot ? -1 : pagesPerStep);
+                if (rc != Codes.SQLITE_OK) {
+                    throw new SQLException("Backup to " + destination + " failed with code " + rc);
+                }
+            } finally {
+                if (snapshot) {
+                    source.rollback();
+                }
+            }
+        }
+    }
+
+    @Override
+    public void registerMetrics(MetricsRegistry metrics) {
+        metrics.gauge("storage.statement_cache.hits", statements::hits);
+        metrics.gauge("storage.statement_cache.misses", statements::misses);
+        metrics.gauge("storage.statement_cache.evictions", statements::evictions);
+        metrics.gauge("storage.write_queue.pending", writer::pending);
+        metrics.gauge("storage.write_queue.rejected", writer::rejectedWrites);
+        metrics.gauge("storage.write_batches", writer::committedBatches);
+        metrics.gauge("storage.writes_committed", writer::committedWrites);
+        if (checkpointer != null) {
+            checkpointer.registerMetrics(metrics);
+        }
+    }
+
+    @Override
+    public void close() {
+        if (checkpointer != null) {
+            checkpointer.stop();
+        }
+        writer.close();
+
+        for (Connection reader : allReaders) {
+            closeQuietly(reader);
+        }
+        allReaders.clear();
+        readers.clear();
+        if (writeConnection != null) {
+            closeQuietly(writeConnection);
+        }
+    }
+
+    private void closeQuietly(Connection connection) {
+        statements.close(connection);
+        try {
+            connection.close();
+        } catch (SQLException e) {
+            logger.at(Level.SEVERE).withCause(e).log("Failed to close database connection");
+        }
+    }
+}
@@ -0,0 +1,107 @@
+package me.almana.moderationplus.storage;
+
+import com.hypixel.hytale.logger.HytaleLogger;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.logging.Level;
+
+/**
+ * Compiled statements kept per connection and SQL shape.
+ * A connection is only ever used by one thread at a time, so the per-connection maps need no locking.
+ * Callers must not close the statements they get back, only their result sets.
+ */
+public class StatementCache {
+
+    private static final HytaleLogger logger = HytaleLogger.forEnclosingClass();
+
+    private final int capacity;
+    private final Map<Connection, Map<Key, PreparedStatement>> statements = new ConcurrentHashMap<>();
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+
+    public StatementCache(int capacity) {
+        this.capacity = Math.max(1, capacity);
+    }
+
+    public PreparedStatement prepare(Connection connection, String sql, boolean returnKeys) throws SQLException {
+        Map<Key, PreparedStatement> cache = statements.computeIfAbsent(connection, c -> newLru());
+        Key key = new Key(sql, returnKeys);
+        PreparedStatement stmt = cache.get(key);
+        if (stmt != null && !stmt.isClosed()) {
+            hits.increment();
+            stmt.clearParameters();
+            return stmt;
+        }
+
+        misses.increment();
+        stmt = returnKeys
+                ? connection.prepareStatement(sql, Statement.RETURN_GENERATED_KEYS)
+                : connection.prepareStatement(sql);
+        cache.put(key, stmt);
+        return stmt;
+    }
+
+    public long hits() {
+        return hits.sum();
+    }
+
+    public long misses() {
+        return misses.sum();
+    }
+
+    public long evictions() {
+        return evictions.sum();
+    }
+
+    public int size() {
+        int total = 0;
+        for (Map<Key, PreparedStatement> cache : statements.values()) {
+            total += cache.size();
+        }
+        return total;
+    }
+
+    public void close(Connection connection) {
+        Map<Key, PreparedStatement> cache = statements.remove(connection);
+        if (cache == null) {
+            return;
+        }
+        for (PreparedStatement stmt : cache.values()) {
+            closeQuietly(stmt);
+        }
+        cache.clear();
+    }
+
+    private Map<Key, PreparedStatement> newLru() {
+        return new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Key, PreparedStatement> eldest) {
+                if (size() > capacity) {
+                    evictions.increment();
+                    closeQuietly(eldest.getValue());
+                    return true;
+                }
+                return false;
+            }
+        };
+    }
+
+    private void closeQuietly(PreparedStatement stmt) {
+        try {
+            stmt.close();
+        } catch (SQLException e) {
+            logger.at(Level.WARNING).withCause(e).log("Failed to close cached statement");
+        }
+    }
+
+    private record Key(String sql, boolean returnKeys) {
+    }
+}
@@ -0,0 +1,60 @@
+package me.almana.moderationplus.storage;
+
+import me.almana.moderationplus.core.metrics.MetricsRegistry;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Connection layer behind {@link StorageManager}.
+ * Implementations own connection setup, pooling and the writer thread; StorageManager owns the SQL
+ * and asks {@link #dialect()} wherever the databases disagree.
+ */
+public interface StorageBackend {
+
+    @FunctionalInterface
+    interface SqlWork<T> {
+        T apply(Connection connection) throws SQLException;
+    }
+
+    void open() throws SQLException;
+
+    SqlDialect dialect();
+
+    <T> T read(SqlWork<T> work) throws SQLException;
+
+    // Blocking write; the operation still shares a group commit with whatever else is queued
+    <T> T write(SqlWork<T> work) throws SQLException;
+
+    // Runs alone in autocommit mode, for maintenance statements that cannot run inside a transaction
+    <T> T writeOutsideTransaction(SqlWork<T> work) throws SQLException;
+
+    /**
+     * Queues a write and returns immediately. The future completes once the batch holding the
+     * operation has committed, or exceptionally if the operation or the commit failed.
+     * Operations commit in submission order.
+     */
+    <T> CompletableFuture<T> submit(SqlWork<T> work);
+
+    /**
+     * From inside write work: runs action once that write has committed, and never if it rolls back.
+     * In-memory copies of table state change here, so they cannot get ahead of the database.
+     * Called anywhere else, action runs immediately.
+     */
+    void afterCommit(Runnable action);
+
+    // Only valid inside read/write work, on the connection that work was handed; callers must not close it
+    PreparedStatement prepare(Connection connection, String sql) throws SQLException;
+
+    PreparedStatement prepareReturningKeys(Connection connection, String sql) throws SQLException;
+
+    // Flushes the backend's log to durable storage, where the backend has one
+    void checkpoint() throws SQLException;
+
+    void registerMetrics(MetricsRegistry metrics);
+
+    // Stops accepting writes, drains everything already queued, then closes every connection
+    void close();
+}
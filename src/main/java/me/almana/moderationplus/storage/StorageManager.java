@@ -1,11 +1,13 @@
 package me.almana.moderationplus.storage;
 
 import com.hypixel.hytale.logger.HytaleLogger;
+import me.almana.moderationplus.config.ConfigManager;
+import me.almana.moderationplus.core.metrics.MetricsRegistry;
 import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
 import java.util.logging.Level;
 import java.io.File;
 import java.sql.Connection;
-import java.sql.DriverManager;
 import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.SQLException;
@@ -16,16 +18,81 @@ public class StorageManager {
 
     private static final HytaleLogger logger = HytaleLogger.forEnclosingClass();
     private static final String DB_PATH = "mods/data/moderation.db";
+    private static final int NAME_CACHE_CAPACITY = 4096;
+    // Stemmed and case/accent-insensitive, so "banned" also finds "ban"
+    private static final String FTS_TOKENIZER = "tokenize = 'porter unicode61 remove_diacritics 2'";
     private static final int CURRENT_DB_VERSION = 2;
+    // Most ids bound into one IN (...) list
+    private static final int IN_LIST_CHUNK_SIZE = 500;
+    private static final String PUNISHMENT_SELECT = "SELECT p.id, p.player_id, pt.name as type, p.issuer_uuid, p.reason, p.created_at, p.expires_at, p.active, p.extra_data "
+            +
+            "FROM punishments p " +
+            "JOIN punishment_types pt ON p.type_id = pt.id " +
+            "WHERE p.player_id = ?";
+    private static final String PLAYER_COLUMNS = "id, uuid, username, first_seen, last_seen, locale";
+    private static final String ACTIVE_PUNISHMENTS_WITH_UUID = "SELECT p.id, p.player_id, pl.uuid, pt.name as type, p.issuer_uuid, p.reason, p.created_at, p.expires_at, p.active, p.extra_data "
+            +
+            "FROM punishments p " +
+            "JOIN punishment_types pt ON p.type_id = pt.id " +
+            "JOIN players pl ON p.player_id = pl.id " +
+            "WHERE p.active = 1";
+    private static final String PUNISHMENT_COLUMNS = "id, player_id, type_id, issuer_uuid, reason, created_at, expires_at, active, extra_data";
+    private static final String HISTORY_SELECT = "SELECT p.id, p.player_id, pt.name as type, p.issuer_uuid, p.reason, p.created_at, p.expires_at, p.active, p.extra_data FROM ";
+    // Fixed query shapes so each one compiles once per connection.
+    // Active lookups only read the live table; full history also reads punishments_archive.
+    private static final String PUNISHMENTS_ALL = HISTORY_SELECT + liveAndArchived("player_id = ?")
+            + " JOIN punishment_types pt ON p.type_id = pt.id";
+    private static final String PUNISHMENTS_ACTIVE = PUNISHMENT_SELECT + " AND p.active = 1";
+    static final String PUNISHMENTS_ACTIVE_BY_TYPE = PUNISHMENT_SELECT + " AND p.active = 1 AND pt.name = ?";
+    // Keyset pages, newest first; each branch walks its own (player_id, created_at, id) index and SQLite merges them
+    static final String PUNISHMENTS_PAGE_FIRST = PUNISHMENTS_ALL
+            + " ORDER BY p.created_at DESC, p.id DESC LIMIT ?";
+    static final String PUNISHMENTS_PAGE_AFTER = HISTORY_SELECT
+            + liveAndArchived("player_id = ? AND (created_at, id) < (?, ?)")
+            + " JOIN punishment_types pt ON p.type_id = pt.id ORDER BY p.created_at DESC, p.id DESC LIMIT ?";
+    // Whole history in id order, with the owning player's UUID and name; archived rows keep their ids
+    private static final String TRANSFER_PAGE = "SELECT p.id, pl.uuid, pl.username, pt.name as type, p.issuer_uuid, p.reason, p.created_at, p.expires_at, p.active, p.extra_data "
+            +
+            "FROM " + liveAndArchived("id > ?") + " " +
+            "JOIN punishment_types pt ON p.type_id = pt.id " +
+            "JOIN players pl ON p.player_id = pl.id " +
+            "ORDER BY p.id LIMIT ?";
+    private static final String NOTE_SELECT = "SELECT id, player_id, issuer_uuid, message, created_at FROM staff_notes WHERE player_id = ?";
+    private static final String NOTES_PAGE_FIRST = NOTE_SELECT + " ORDER BY created_at DESC, id DESC LIMIT ?";
+    static final String NOTES_PAGE_AFTER = NOTE_SELECT
+            + " AND (created_at, id) < (?, ?) ORDER BY created_at DESC, id DESC LIMIT ?";
+
+    // Every filter parameter appears once per branch, so callers bind it twice
+    private static String liveAndArchived(String filter) {
+        return "(SELECT " + PUNISHMENT_COLUMNS + " FROM punishments WHERE " + filter
+                + " UNION ALL SELECT " + PUNISHMENT_COLUMNS + " FROM punishments_archive WHERE " + filter + ") p";
+    }
 
-    private Connection connection;
+    private final ConfigManager configManager;
+    private final MetricsRegistry metrics;
+    private final ActivePunishmentIndex activePunishments = new ActivePunishmentIndex();
+    private final java.util.Map<UUID, Integer> playerIds = new java.util.concurrent.ConcurrentHashMap<>();
+    private final java.util.Map<String, Integer> punishmentTypeIds = new java.util.concurrent.ConcurrentHashMap<>();
+    private final PlayerNameCache names = new PlayerNameCache(NAME_CACHE_CAPACITY);
+    private StorageBackend pool;
+
+    public StorageManager(ConfigManager configManager, MetricsRegistry metrics) {
+        this.configManager = configManager;
+        this.metrics = metrics;
+        metrics.gauge("storage.name_cache.hits", names::hits);
+        metrics.gauge("storage.name_cache.misses", names::misses);
+        metrics.gauge("storage.name_cache.size", names::size);
+    }
 
     public void init() {
         try {
-            ensureDataFolderExists();
             connect();
-            setupDatabase();
-            runMigrations();
+            pool.write(connection -> {
+                setupDatabase(connection);
+                runMigrations(connection);
+                loadActivePunishments(connection);
+                return null;
+            });
             logger.at(Level.INFO).log("StorageManager initialized successfully.");
         } catch (SQLException e) {
             logger.at(Level.SEVERE).withCause(e).log("Failed to initialize StorageManager");
@@ -33,19 +100,21 @@ public class StorageManager {
         }
     }
 
+    // Drains queued writes before the connections close
     public void close() {
-        if (connection != null) {
-            try {
-                connection.close();
-                logger.at(Level.INFO).log("Database connection closed.");
-            } catch (SQLException e) {
-                logger.at(Level.SEVERE).withCause(e).log("Failed to close database connection");
-            }
+        if (pool != null) {
+            pool.close();
+            logger.at(Level.INFO).log("Database connection closed.");
         }
     }
 
-    public Connection getConnection() {
-        return connection;
+    public ActivePunishmentIndex getActivePunishmentIndex() {
+        return activePunishments;
+    }
+
+    // True when other game servers write to the same database
+    public boolean isShared() {
+        return pool.dialect() != SqlDialect.SQLITE;
     }
 
     private void ensureDataFolderExists() {
@@ -55,57 +124,114 @@ public class StorageManager {
         }
     }
 
+    // Tests hand in a backend of their own; the plugin builds one from the config in connect()
+    StorageManager(StorageBackend backend, MetricsRegistry metrics) {
+        this((ConfigManager) null, metrics);
+        this.pool = backend;
+    }
+
     private void connect() throws SQLException {
-        try {
-            Class.forName("org.sqlite.JDBC");
-        } catch (ClassNotFoundException e) {
-            throw new IllegalStateException("SQLite JDBC driver not found", e);
+        if (pool == null) {
+            pool = createBackend();
         }
-        connection = DriverManager.getConnection("jdbc:sqlite:" + DB_PATH);
-        connection.setAutoCommit(true);
+        pool.open();
+
+        pool.registerMetrics(metrics);
+        metrics.gauge("storage.active_punishments", activePunishments::size);
     }
 
-    private void setupDatabase() throws SQLException {
-        try (Statement stmt = connection.createStatement()) {
-            stmt.execute("PRAGMA foreign_keys = ON;");
+    private StorageBackend createBackend() {
+        SqlDialect dialect = SqlDialect.valueOf(configManager.getDatabaseType());
+        if (dialect == SqlDialect.SQLITE) {
+            ensureDataFolderExists();
+            SqliteConnectionPool.Settings settings = new SqliteConnectionPool.Settings(
+                    configManager.getDatabaseJournalMode(),
+                    configManager.getDatabaseSynchronous(),
+                    configManager.getDatabaseBusyTimeoutMillis(),
+                    configManager.getDatabaseCacheSize(),
+                    configManager.getDatabaseMmapSize(),
+                    configManager.getDatabaseReaderPoolSize(),
+                    configManager.getDatabaseWriteQueueCapacity(),
+                    configManager.getDatabaseWriteQueueTimeoutMillis(),
+                    configManager.getDatabaseWriteBatchSize(),
+                    configManager.getDatabaseWriteBatchWindowMillis(),
+                    configManager.getDatabaseCheckpointIntervalSeconds(),
+                    configManager.getDatabaseFlushIntervalSeconds(),
+                    configManager.getDatabaseCheckpointRestartFrames(),
+                    configManager.getDatabaseCheckpointTruncateMegabytes() * 1024L * 1024L);
+            return new SqliteConnectionPool(dialect.jdbcPrefix() + DB_PATH, settings);
+        }
+        JdbcConnectionPool.Settings settings = new JdbcConnectionPool.Settings(
+                configManager.getDatabaseHost(),
+                configManager.getDatabasePort(),
+                configManager.getDatabaseName(),
+                configManager.getDatabaseUsername(),
+                configManager.getDatabasePassword(),
+                configManager.getDatabasePoolSize(),
+                configManager.getDatabaseWriteQueueCapacity(),
+                configManager.getDatabaseWriteQueueTimeoutMillis(),
+                configManager.getDatabaseWriteBatchSize(),
+                configManager.getDatabaseWriteBatchWindowMillis());
+        return new JdbcConnectionPool(dialect, settings);
+    }
 
+    private void setupDatabase(Connection connection) throws SQLException {
+        try (Statement stmt = connection.createStatement()) {
             stmt.execute("CREATE TABLE IF NOT EXISTS migrations (" +
                     "version INTEGER PRIMARY KEY, " +
-                    "applied_at INTEGER NOT NULL" +
-                    ");");
+                    "applied_at BIGINT NOT NULL" +
+                    ")");
         }
     }
 
-    private void runMigrations() throws SQLException {
-        int currentVersion = getAppliedMigrationVersion();
+    private void runMigrations(Connection connection) throws SQLException {
+        int currentVersion = getAppliedMigrationVersion(connection);
+
+        // Shared databases start at the schema SQLite reaches after migration 9
+        if (currentVersion < 9 && pool.dialect() != SqlDialect.SQLITE) {
+            applyBaselineSchema(connection);
+            currentVersion = 9;
+        }
 
         if (currentVersion < 1) {
-            applyMigration1();
+            applyMigration1(connection);
         }
         if (currentVersion < 2) {
-            applyMigration2();
+            applyMigration2(connection);
         }
         if (currentVersion < 3) {
-            applyMigration3();
+            applyMigration3(connection);
         }
         if (currentVersion < 4) {
-            applyMigration4();
+            applyMigration4(connection);
         }
         if (currentVersion < 5) {
-            applyMigration5();
+            applyMigration5(connection);
         }
         if (currentVersion < 6) {
-            applyMigration6();
+            applyMigration6(connection);
         }
         if (currentVersion < 7) {
-            applyMigration7();
+            applyMigration7(connection);
         }
         if (currentVersion < 8) {
-            applyMigration8();
+            applyMigration8(connection);
+        }
+        if (currentVersion < 9) {
+            applyMigration9(connection);
+        }
+        if (currentVersion < 10) {
+            applyMigration10(connection);
+        }
+        if (currentVersion < 11) {
+            applyMigration11(connection);
+        }
+        if (currentVersion < 12) {
+            applyMigration12(connection);
         }
     }
 
-    private int getAppliedMigrationVersion() throws SQLException {
+    private int getAppliedMigrationVersion(Connection connection) throws SQLException {
         try (Statement stmt = connection.createStatement();
                 ResultSet rs = stmt.executeQuery("SELECT MAX(version) FROM migrations")) {
             if (rs.next()) {
@@ -115,7 +241,141 @@ public class StorageManager {
         }
     }
 
-    private void applyMigration1() throws SQLException {
+    private void loadActivePunishments(Connection connection) throws SQLException {
+        activePunishments.clear();
+        try (Statement stmt = connection.createStatement();
+                ResultSet rs = stmt.executeQuery(ACTIVE_PUNISHMENTS_WITH_UUID)) {
+            while (rs.next()) {
+                activePunishments.add(UUID.fromString(rs.getString("uuid")), readPunishment(rs));
+            }
+        }
+        logger.at(Level.INFO).log("Loaded %d active punishments into memory.", activePunishments.size());
+    }
+
+    /**
+     * Brings the in-memory index in line with the table: punishments issued or lifted on other
+     * servers sharing the database, or rows that arrived through a bulk import. Rows newer than the
+     * snapshot's high-water mark were written here after the read, so they are left alone rather than dropped.
+     */
+    public void syncActivePunishments() throws SQLException {
+        java.util.Map<Integer, Punishment> rows = new java.util.HashMap<>();
+        java.util.Map<Integer, UUID> owners = new java.util.HashMap<>();
+        int highWater = pool.read(connection -> {
+            int max;
+            try (Statement stmt = connection.createStatement();
+                    ResultSet rs = stmt.executeQuery("SELECT MAX(id) FROM punishments")) {
+                max = rs.next() ? rs.getInt(1) : 0;
+            }
+            try (Statement stmt = connection.createStatement();
+                    ResultSet rs = stmt.executeQuery(ACTIVE_PUNISHMENTS_WITH_UUID)) {
+                while (rs.next()) {
+                    Punishment p = readPunishment(rs);
+                    rows.put(p.id(), p);
+                    owners.put(p.id(), UUID.fromString(rs.getString("uuid")));
+                }
+            }
+            return max;
+        });
+
+        java.util.Set<Integer> known = activePunishments.ids();
+        int added = 0;
+        int removed = 0;
+        for (Punishment p : rows.values()) {
+            if (!known.contains(p.id())) {
+                activePunishments.add(owners.get(p.id()), p);
+                added++;
+            }
+        }
+        for (int id : known) {
+            if (id <= highWater && !rows.containsKey(id)) {
+                activePunishments.remove(id);
+                removed++;
+            }
+        }
+        if (added > 0 || removed > 0) {
+            logger.at(Level.FINE).log("Synced active punishments: %d added, %d lifted elsewhere", added, removed);
+        }
+    }
+
+    // The whole current schema in one step, for MySQL and PostgreSQL
+    private void applyBaselineSchema(Connection connection) throws SQLException {
+        SqlDialect dialect = pool.dialect();
+        String id = dialect.identityColumn();
+        logger.at(Level.INFO).log("Creating %s schema...", dialect);
+
+        try (Statement stmt = connection.createStatement()) {
+            stmt.execute("CREATE TABLE players (" +
+                    "id " + id + ", " +
+                    "uuid VARCHAR(36) UNIQUE NOT NULL, " +
+                    "username VARCHAR(64), " +
+                    "first_seen BIGINT, " +
+                    "last_seen BIGINT, " +
+                    "locale VARCHAR(16)" +
+                    ")");
+
+            stmt.execute("CREATE TABLE punishment_types (" +
+                    "id " + id + ", " +
+                    "name VARCHAR(32) UNIQUE NOT NULL" +
+                    ")");
+            stmt.execute("INSERT INTO punishment_types (name) VALUES ('BAN'), ('KICK'), ('MUTE'), ('WARN'), ('JAIL')");
+
+            stmt.execute("CREATE TABLE punishments (" +
+                    "id " + id + ", " +
+                    "player_id INT NOT NULL, " +
+                    "type_id INT NOT NULL, " +
+                    "issuer_uuid VARCHAR(64), " +
+                    "reason TEXT, " +
+                    "created_at BIGINT NOT NULL, " +
+                    "expires_at BIGINT, " +
+                    "active INT NOT NULL, " +
+                    "extra_data TEXT, " +
+                    "FOREIGN KEY(player_id) REFERENCES players(id), " +
+                    "FOREIGN KEY(type_id) REFERENCES punishment_types(id)" +
+                    ")");
+
+            stmt.execute("CREATE TABLE staff_notes (" +
+                    "id " + id + ", " +
+                    "player_id INT NOT NULL, " +
+                    "issuer_uuid VARCHAR(64) NOT NULL, " +
+                    "message TEXT NOT NULL, " +
+                    "created_at BIGINT NOT NULL, " +
+                    "FOREIGN KEY(player_id) REFERENCES players(id)" +
+                    ")");
+
+            stmt.execute("CREATE TABLE server_identity (" +
+                    "id INT PRIMARY KEY CHECK (id = 1), " +
+                    "server_id VARCHAR(64) NOT NULL, " +
+                    "server_secret VARCHAR(128) NOT NULL, " +
+                    "is_claimed INT DEFAULT 0, " +
+                    "claim_token VARCHAR(64)" +
+                    ")");
+
+            stmt.execute("CREATE TABLE web_commands_log (" +
+                    "id VARCHAR(128) PRIMARY KEY, " +
+                    "processed_at BIGINT NOT NULL" +
+                    ")");
+
+            // Same lookups as migration 9; neither server has SQLite's partial or NOCASE indexes
+            stmt.execute("CREATE INDEX idx_punishments_player_active_type ON punishments (player_id, active, type_id)");
+            stmt.execute("CREATE INDEX idx_punishments_player_created ON punishments (player_id, created_at, id)");
+            stmt.execute("CREATE INDEX idx_punishments_active_expires ON punishments (active, expires_at)");
+            stmt.execute(dialect == SqlDialect.POSTGRESQL
+                    ? "CREATE INDEX idx_players_username_lower ON players (LOWER(username))"
+                    : "CREATE INDEX idx_players_username ON players (username)");
+            stmt.execute("CREATE INDEX idx_staff_notes_player_created ON staff_notes (player_id, created_at)");
+
+            try (PreparedStatement recordStmt = connection.prepareStatement(
+                    "INSERT INTO migrations (version, applied_at) VALUES (?, ?)")) {
+                recordStmt.setInt(1, 9);
+                recordStmt.setLong(2, System.currentTimeMillis());
+                recordStmt.executeUpdate();
+            }
+        }
+
+        logger.at(Level.INFO).log("%s schema created at version 9.", dialect);
+    }
+
+    private void applyMigration1(Connection connection) throws SQLException {
         logger.at(Level.INFO).log("Applying migration 1...");
 
         try (Statement stmt = connection.createStatement()) {
@@ -139,7 +399,7 @@ public class StorageManager {
         logger.at(Level.INFO).log("Migration 1 applied successfully.");
     }
 
-    private void applyMigration2() throws SQLException {
+    private void applyMigration2(Connection connection) throws SQLException {
         logger.at(Level.INFO).log("Applying migration 2...");
 
         try (Statement stmt = connection.createStatement()) {
@@ -176,7 +436,7 @@ public class StorageManager {
         logger.at(Level.INFO).log("Migration 2 applied successfully.");
     }
 
-    private void applyMigration3() throws SQLException {
+    private void applyMigration3(Connection connection) throws SQLException {
         logger.at(Level.INFO).log("Applying migration 3...");
 
         try (Statement stmt = connection.createStatement()) {
@@ -201,7 +461,7 @@ public class StorageManager {
         logger.at(Level.INFO).log("Migration 3 applied successfully.");
     }
 
-    private void applyMigration4() throws SQLException {
+    private void applyMigration4(Connection connection) throws SQLException {
         logger.at(Level.INFO).log("Applying migration 4...");
 
         try (Statement stmt = connection.createStatement()) {
@@ -219,7 +479,7 @@ public class StorageManager {
         logger.at(Level.INFO).log("Migration 4 applied successfully.");
     }
 
-    private void applyMigration5() throws SQLException {
+    private void applyMigration5(Connection connection) throws SQLException {
         try (Statement stmt = connection.createStatement()) {
             stmt.execute("CREATE TABLE server_identity (" +
                     "id INTEGER PRIMARY KEY CHECK (id = 1), " +
@@ -236,7 +496,7 @@ public class StorageManager {
         }
     }
 
-    private void applyMigration6() throws SQLException {
+    private void applyMigration6(Connection connection) throws SQLException {
         try (Statement stmt = connection.createStatement()) {
             stmt.execute("ALTER TABLE server_identity ADD COLUMN is_claimed INTEGER DEFAULT 0;");
             stmt.execute("ALTER TABLE server_identity ADD COLUMN claim_token TEXT;");
@@ -251,86 +511,207 @@ public class StorageManager {
     }
 
     public UUID getUuidByUsername(String username) {
-        String query = "SELECT uuid FROM players WHERE username = ? COLLATE NOCASE";
-        try (PreparedStatement stmt = connection.prepareStatement(query)) {
-            stmt.setString(1, username);
-            try (ResultSet rs = stmt.executeQuery()) {
-                if (rs.next()) {
-                    return UUID.fromString(rs.getString("uuid"));
+        UUID cached = names.getUuid(username);
+        if (cached != null) {
+            return cached;
+        }
+        String query = "SELECT uuid, username FROM players WHERE " + pool.dialect().usernameMatch();
+        try {
+            return pool.read(connection -> {
+                PreparedStatement stmt = pool.prepare(connection, query);
+                stmt.setString(1, username);
+                try (ResultSet rs = stmt.executeQuery()) {
+                    if (rs.next()) {
+                        UUID uuid = UUID.fromString(rs.getString("uuid"));
+                        names.put(uuid, rs.getString("username"));
+                        return uuid;
+                    }
                 }
-            }
+                return null;
+            });
         } catch (SQLException e) {
             logger.at(Level.SEVERE).withCause(e).log("Failed to getUuidByUsername for %s", username);
         }
         return null;
     }
 
+    // Creates the player or refreshes username/last_seen, in one statement
     public PlayerData getOrCreatePlayer(UUID uuid, String username) {
         try {
-            PlayerData existing = getPlayerByUUID(uuid);
-            if (existing != null) {
-                logger.at(Level.INFO).log("Player found (reuse): %s (%s)", username, uuid);
-                updatePlayerLastSeen(uuid, username);
-                return getPlayerByUUID(uuid);
-            } else {
-                logger.at(Level.INFO).log("Creating new player: %s (%s)", username, uuid);
-                return createPlayer(uuid, username);
-            }
+            return pool.write(connection -> upsertPlayer(connection, uuid, username));
         } catch (SQLException e) {
             logger.at(Level.SEVERE).withCause(e).log("Failed to getOrCreatePlayer for %s", uuid);
             throw new RuntimeException("Database error in getOrCreatePlayer", e);
         }
     }
 
-    public PlayerData getPlayerByUUID(UUID uuid) throws SQLException {
-        String query = "SELECT id, uuid, username, first_seen, last_seen, locale FROM players WHERE uuid = ?";
-        try (PreparedStatement stmt = connection.prepareStatement(query)) {
-            stmt.setString(1, uuid.toString());
+    // Records a join without waiting; the upsert is queued behind whatever else is being written
+    public CompletableFuture<PlayerData> recordJoin(UUID uuid, String username) {
+        names.put(uuid, username);
+        return pool.submit(connection -> upsertPlayer(connection, uuid, username)).whenComplete((data, e) -> {
+            if (e != null) {
+                logger.at(Level.SEVERE).withCause(e).log("Failed to record join for %s", uuid);
+            }
+        });
+    }
+
+    private PlayerData upsertPlayer(Connection connection, UUID uuid, String username) throws SQLException {
+        SqlDialect dialect = pool.dialect();
+        String upsert = dialect.supportsReturning()
+                ? dialect.upsertPlayer() + " RETURNING " + PLAYER_COLUMNS
+                : dialect.upsertPlayer();
+        PreparedStatement stmt = pool.prepare(connection, upsert);
+        long now = System.currentTimeMillis();
+        stmt.setString(1, uuid.toString());
+        stmt.setString(2, username);
+        stmt.setLong(3, now);
+        stmt.setLong(4, now);
+        PlayerData data;
+        if (dialect.supportsReturning()) {
             try (ResultSet rs = stmt.executeQuery()) {
-                if (rs.next()) {
-                    String locale = rs.getString("locale");
-                    return new PlayerData(
-                            rs.getInt("id"),
-                            UUID.fromString(rs.getString("uuid")),
-                            rs.getString("username"),
-                            rs.getLong("first_seen"),
-                            rs.getLong("last_seen"),
-                            locale != null && !locale.isEmpty() ? java.util.Optional.of(locale) : java.util.Optional.empty());
+                if (!rs.next()) {
+                    throw new SQLException("Upserting player failed, no row returned.");
                 }
+                data = readPlayer(rs);
+            }
+        } else {
+            stmt.executeUpdate();
+            data = getPlayerByUUID(connection, uuid);
+            if (data == null) {
+                throw new SQLException("Upserting player failed, no row found.");
             }
         }
-        return null;
+        logger.at(Level.FINE).log("Player upserted: %s (%s) id=%d", username, uuid, data.id());
+        rememberPlayer(data.id(), uuid, data.username());
+        return data;
     }
 
-    public PlayerData createPlayer(UUID uuid, String username) throws SQLException {
-        String insert = "INSERT INTO players (uuid, username, first_seen, last_seen) VALUES (?, ?, ?, ?)";
-        long now = System.currentTimeMillis();
+    // For callers that only need the row id; known players never touch the database
+    public int getOrCreatePlayerId(UUID uuid, String username) {
+        Integer cached = playerIds.get(uuid);
+        if (cached != null) {
+            return cached;
+        }
+        try {
+            PlayerData existing = getPlayerByUUID(uuid);
+            if (existing != null) {
+                return existing.id();
+            }
+        } catch (SQLException e) {
+            logger.at(Level.SEVERE).withCause(e).log("Failed to look up player id for %s", uuid);
+            throw new RuntimeException("Database error in getOrCreatePlayerId", e);
+        }
+        return getOrCreatePlayer(uuid, username).id();
+    }
 
-        try (PreparedStatement stmt = connection.prepareStatement(insert, Statement.RETURN_GENERATED_KEYS)) {
-            stmt.setString(1, uuid.toString());
-            stmt.setString(2, username);
-            stmt.setLong(3, now);
-            stmt.setLong(4, now);
-            stmt.executeUpdate();
+    // Cached once the row is committed, so a rolled-back insert never leaves a phantom id behind
+    private void rememberPlayer(int id, UUID uuid, String username) {
+        pool.afterCommit(() -> {
+            playerIds.put(uuid, id);
+            activePunishments.rememberPlayer(id, uuid);
+            if (username != null) {
+                names.put(uuid, username);
+            }
+        });
+    }
 
-            try (ResultSet generatedKeys = stmt.getGeneratedKeys()) {
-                if (generatedKeys.next()) {
-                    int id = generatedKeys.getInt(1);
-                    return new PlayerData(id, uuid, username, now, now, java.util.Optional.empty());
-                } else {
-                    throw new SQLException("Creating player failed, no ID obtained.");
+    private PlayerData readPlayer(ResultSet rs) throws SQLException {
+        String locale = rs.getString("locale");
+        return new PlayerData(
+                rs.getInt("id"),
+                UUID.fromString(rs.getString("uuid")),
+                rs.getString("username"),
+                rs.getLong("first_seen"),
+                rs.getLong("last_seen"),
+                locale != null && !locale.isEmpty() ? java.util.Optional.of(locale) : java.util.Optional.empty());
+    }
+
+    /**
+     * Usernames for a set of UUIDs, from the name cache where possible and one IN query per
+     * chunk for the rest. UUIDs without a players row are left out of the result.
+     */
+    public java.util.Map<UUID, String> getUsernames(java.util.Collection<UUID> uuids) throws SQLException {
+        java.util.Map<UUID, String> resolved = new java.util.HashMap<>();
+        java.util.List<UUID> missing = new java.util.ArrayList<>();
+        for (UUID uuid : new java.util.LinkedHashSet<>(uuids)) {
+            String cached = names.getName(uuid);
+            if (cached != null) {
+                resolved.put(uuid, cached);
+            } else {
+                missing.add(uuid);
+            }
+        }
+        if (missing.isEmpty()) {
+            return resolved;
+        }
+
+        pool.read(connection -> {
+            for (int from = 0; from < missing.size(); from += IN_LIST_CHUNK_SIZE) {
+                java.util.List<UUID> chunk = missing.subList(from, Math.min(from + IN_LIST_CHUNK_SIZE, missing.size()));
+                String placeholders = String.join(",", java.util.Collections.nCopies(chunk.size(), "?"));
+                try (PreparedStatement stmt = connection.prepareStatement(
+                        "SELECT uuid, username FROM players WHERE uuid IN (" + placeholders + ")")) {
+                    for (int i = 0; i < chunk.size(); i++) {
+                        stmt.setString(i + 1, chunk.get(i).toString());
+                    }
+                    try (ResultSet rs = stmt.executeQuery()) {
+                        while (rs.next()) {
+                            UUID uuid = UUID.fromString(rs.getString("uuid"));
+                            String username = rs.getString("username");
+                            if (username != null) {
+                                names.put(uuid, username);
+                                resolved.put(uuid, username);
+                            }
+                        }
+                    }
                 }
             }
+            return null;
+        });
+        return resolved;
+    }
+
+    public PlayerData getPlayerByUUID(UUID uuid) throws SQLException {
+        return pool.read(connection -> getPlayerByUUID(connection, uuid));
+    }
+
+    private PlayerData getPlayerByUUID(Connection connection, UUID uuid) throws SQLException {
+        String query = "SELECT " + PLAYER_COLUMNS + " FROM players WHERE uuid = ?";
+        PreparedStatement stmt = pool.prepare(connection, query);
+        stmt.setString(1, uuid.toString());
+        try (ResultSet rs = stmt.executeQuery()) {
+            if (rs.next()) {
+                PlayerData data = readPlayer(rs);
+                rememberPlayer(data.id(), uuid, data.username());
+                return data;
+            }
         }
+        return null;
     }
 
-    private void updatePlayerLastSeen(UUID uuid, String username) throws SQLException {
-        String update = "UPDATE players SET username = ?, last_seen = ? WHERE uuid = ?";
-        try (PreparedStatement stmt = connection.prepareStatement(update)) {
-            stmt.setString(1, username);
-            stmt.setLong(2, System.currentTimeMillis());
-            stmt.setString(3, uuid.toString());
-            stmt.executeUpdate();
+    public PlayerData createPlayer(UUID uuid, String username) throws SQLException {
+        return pool.write(connection -> createPlayer(connection, uuid, username));
+    }
+
+    private PlayerData createPlayer(Connection connection, UUID uuid, String username) throws SQLException {
+        String insert = "INSERT INTO players (uuid, username, first_seen, last_seen) VALUES (?, ?, ?, ?)";
+        long now = System.currentTimeMillis();
+
+        PreparedStatement stmt = pool.prepareReturningKeys(connection, insert);
+        stmt.setString(1, uuid.toString());
+        stmt.setString(2, username);
+        stmt.setLong(3, now);
+        stmt.setLong(4, now);
+        stmt.executeUpdate();
+
+        try (ResultSet generatedKeys = stmt.getGeneratedKeys()) {
+            if (generatedKeys.next()) {
+                int id = generatedKeys.getInt(1);
+                rememberPlayer(id, uuid, username);
+                return new PlayerData(id, uuid, username, now, now, java.util.Optional.empty());
+            } else {
+                throw new SQLException("Creating player failed, no ID obtained.");
+            }
         }
     }
 
@@ -343,7 +724,8 @@ public class StorageManager {
                 +
                 "VALUES (?, (SELECT id FROM punishment_types WHERE name = ?), ?, ?, ?, ?, ?, ?)";
 
-        try (PreparedStatement stmt = connection.prepareStatement(query)) {
+        pool.write(connection -> {
+            PreparedStatement stmt = pool.prepareReturningKeys(connection, query);
             stmt.setInt(1, punishment.playerId());
             stmt.setString(2, punishment.type());
             stmt.setString(3, punishment.issuerUuid());
@@ -352,52 +734,85 @@ public class StorageManager {
             if (punishment.expiresAt() > 0) {
                 stmt.setLong(6, punishment.expiresAt());
             } else {
-                stmt.setObject(6, null);
+                stmt.setNull(6, Types.BIGINT);
             }
             stmt.setInt(7, punishment.active() ? 1 : 0);
             stmt.setString(8, punishment.extraData());
             stmt.executeUpdate();
+            indexCreatedPunishment(connection, stmt, punishment);
+            return null;
+        });
+    }
+
+    private void indexCreatedPunishment(Connection connection, PreparedStatement stmt, Punishment punishment)
+            throws SQLException {
+        if (!punishment.active()) {
+            return;
+        }
+        try (ResultSet generatedKeys = stmt.getGeneratedKeys()) {
+            if (!generatedKeys.next()) {
+                return;
+            }
+            UUID uuid = resolvePlayerUuid(connection, punishment.playerId());
+            if (uuid != null) {
+                Punishment created = new Punishment(
+                        generatedKeys.getInt(1),
+                        punishment.playerId(),
+                        punishment.type(),
+                        punishment.issuerUuid(),
+                        punishment.reason(),
+                        punishment.createdAt(),
+                        Math.max(punishment.expiresAt(), 0),
+                        true,
+                        punishment.extraData());
+                pool.afterCommit(() -> activePunishments.add(uuid, created));
+            }
         }
     }
 
-    public java.util.List<Punishment> getPunishmentsForPlayer(int playerId) throws SQLException {
-        return getPunishments(playerId, false, null);
+    private UUID resolvePlayerUuid(Connection connection, int playerId) throws SQLException {
+        UUID cached = activePunishments.getPlayerUuid(playerId);
+        if (cached != null) {
+            return cached;
+        }
+        PreparedStatement stmt = pool.prepare(connection, "SELECT uuid FROM players WHERE id = ?");
+        stmt.setInt(1, playerId);
+        try (ResultSet rs = stmt.executeQuery()) {
+            if (rs.next()) {
+                UUID uuid = UUID.fromString(rs.getString("uuid"));
+                rememberPlayer(playerId, uuid, null);
+                return uuid;
+            }
+        }
+        return null;
     }
 
     public java.util.List<Punishment> getActivePunishments(int playerId) throws SQLException {
-        return getPunishments(playerId, true, null);
+        return getActivePunishments(playerId, null);
     }
 
     public java.util.List<Punishment> getActivePunishmentsByType(int playerId, String type) throws SQLException {
-        return getPunishments(playerId, true, type);
+        return getActivePunishments(playerId, type);
     }
 
     public void deactivatePunishment(int id) throws SQLException {
         String query = "UPDATE punishments SET active = 0 WHERE id = ?";
-        try (PreparedStatement stmt = connection.prepareStatement(query)) {
+        pool.write(connection -> {
+            PreparedStatement stmt = pool.prepare(connection, query);
             stmt.setInt(1, id);
             stmt.executeUpdate();
-        }
+            pool.afterCommit(() -> activePunishments.remove(id));
+            return null;
+        });
     }
 
-    private java.util.List<Punishment> getPunishments(int playerId, boolean activeOnly, String typeFilter)
+    private java.util.List<Punishment> getActivePunishments(int playerId, String typeFilter)
             throws SQLException {
-        StringBuilder query = new StringBuilder(
-                "SELECT p.id, p.player_id, pt.name as type, p.issuer_uuid, p.reason, p.created_at, p.expires_at, p.active, p.extra_data "
-                        +
-                        "FROM punishments p " +
-                        "JOIN punishment_types pt ON p.type_id = pt.id " +
-                        "WHERE p.player_id = ?");
+        String query = typeFilter != null ? PUNISHMENTS_ACTIVE_BY_TYPE : PUNISHMENTS_ACTIVE;
 
-        if (activeOnly) {
-            query.append(" AND p.active = 1");
-        }
-        if (typeFilter != null) {
-            query.append(" AND pt.name = ?");
-        }
-
-        java.util.List<Punishment> results = new java.util.ArrayList<>();
-        try (PreparedStatement stmt = connection.prepareStatement(query.toString())) {
+        return pool.read(connection -> {
+            java.util.List<Punishment> results = new java.util.ArrayList<>();
+            PreparedStatement stmt = pool.prepare(connection, query);
             stmt.setInt(1, playerId);
             if (typeFilter != null) {
                 stmt.setString(2, typeFilter);
@@ -405,59 +820,434 @@ public class StorageManager {
 
             try (ResultSet rs = stmt.executeQuery()) {
                 while (rs.next()) {
-                    results.add(new Punishment(
-                            rs.getInt("id"),
-                            rs.getInt("player_id"),
-                            rs.getString("type"),
-                            rs.getString("issuer_uuid"),
-                            rs.getString("reason"),
-                            rs.getLong("created_at"),
-                            rs.getLong("expires_at"),
-                            rs.getInt("active") == 1,
-                            rs.getString("extra_data")));
+                    results.add(readPunishment(rs));
                 }
             }
-        }
-        return results;
+            return results;
+        });
+    }
+
+    private Punishment readPunishment(ResultSet rs) throws SQLException {
+        return new Punishment(
+                rs.getInt("id"),
+                rs.getInt("player_id"),
+                rs.getString("type"),
+                rs.getString("issuer_uuid"),
+                rs.getString("reason"),
+                rs.getLong("created_at"),
+                rs.getLong("expires_at"),
+                rs.getInt("active") == 1,
+                rs.getString("extra_data"));
     }
 
     public void createStaffNote(StaffNote note) throws SQLException {
         String query = "INSERT INTO staff_notes (player_id, issuer_uuid, message, created_at) VALUES (?, ?, ?, ?)";
-        try (PreparedStatement stmt = connection.prepareStatement(query)) {
+        pool.write(connection -> {
+            PreparedStatement stmt = pool.prepare(connection, query);
             stmt.setInt(1, note.playerId());
             stmt.setString(2, note.issuerUuid());
             stmt.setString(3, note.message());
             stmt.setLong(4, note.createdAt());
             stmt.executeUpdate();
+            return null;
+        });
+    }
+
+    private StaffNote readStaffNote(ResultSet rs) throws SQLException {
+        return new StaffNote(
+                rs.getInt("id"),
+                rs.getInt("player_id"),
+                rs.getString("issuer_uuid"),
+                rs.getString("message"),
+                rs.getLong("created_at"));
+    }
+
+    // Pass null for the first page, then the previous page's next cursor
+    public Page<Punishment> getPunishmentPage(int playerId, Page.Cursor after, int limit) throws SQLException {
+        return pool.read(connection -> {
+            PreparedStatement stmt = bindPage(connection,
+                    after == null ? PUNISHMENTS_PAGE_FIRST : PUNISHMENTS_PAGE_AFTER, playerId, after, limit, 2);
+            java.util.List<Punishment> items = new java.util.ArrayList<>(limit);
+            try (ResultSet rs = stmt.executeQuery()) {
+                while (rs.next()) {
+                    items.add(readPunishment(rs));
+                }
+            }
+            return toPage(items, limit, p -> new Page.Cursor(p.createdAt(), p.id()));
+        });
+    }
+
+    public Page<StaffNote> getStaffNotePage(int playerId, Page.Cursor after, int limit) throws SQLException {
+        return pool.read(connection -> {
+            PreparedStatement stmt = bindPage(connection,
+                    after == null ? NOTES_PAGE_FIRST : NOTES_PAGE_AFTER, playerId, after, limit, 1);
+            java.util.List<StaffNote> items = new java.util.ArrayList<>(limit);
+            try (ResultSet rs = stmt.executeQuery()) {
+                while (rs.next()) {
+                    items.add(readStaffNote(rs));
+                }
+            }
+            return toPage(items, limit, n -> new Page.Cursor(n.createdAt(), n.id()));
+        });
+    }
+
+    // Streams a whole history page by page without materializing it
+    public java.util.Iterator<Punishment> iteratePunishments(int playerId, int batchSize) {
+        return new KeysetIterator<>(after -> getPunishmentPage(playerId, after, batchSize));
+    }
+
+    public java.util.Iterator<StaffNote> iterateStaffNotes(int playerId, int batchSize) {
+        return new KeysetIterator<>(after -> getStaffNotePage(playerId, after, batchSize));
+    }
+
+    public int countPunishments(int playerId) throws SQLException {
+        return count("SELECT (SELECT COUNT(*) FROM punishments WHERE player_id = ?) "
+                + "+ (SELECT COUNT(*) FROM punishments_archive WHERE player_id = ?)", playerId, 2);
+    }
+
+    // The FTS5 indexes behind search only exist on SQLite
+    public boolean supportsSearch() {
+        return pool.dialect() == SqlDialect.SQLITE;
+    }
+
+    /**
+     * Punishments whose reason matches every word of query, best match first. Live and archived
+     * punishments are both searched. A trailing * on a word matches it as a prefix.
+     */
+    public java.util.List<SearchHit> searchPunishments(String query, int offset, int limit) throws SQLException {
+        return search("SELECT s.rowid, snippet(punishments_fts, 0, '[', ']', '...', 12), " +
+                "COALESCE(p.created_at, a.created_at), pt.name, pl.username " +
+                "FROM punishments_fts s " +
+                "LEFT JOIN punishments p ON p.id = s.rowid " +
+                "LEFT JOIN punishments_archive a ON a.id = s.rowid " +
+                "JOIN punishment_types pt ON pt.id = COALESCE(p.type_id, a.type_id) " +
+                "JOIN players pl ON pl.id = COALESCE(p.player_id, a.player_id) " +
+                "WHERE punishments_fts MATCH ? ORDER BY s.rank LIMIT ? OFFSET ?", query, offset, limit);
+    }
+
+    public java.util.List<SearchHit> searchStaffNotes(String query, int offset, int limit) throws SQLException {
+        return search("SELECT s.rowid, snippet(staff_notes_fts, 0, '[', ']', '...', 12), n.created_at, 'NOTE', pl.username " +
+                "FROM staff_notes_fts s " +
+                "JOIN staff_notes n ON n.id = s.rowid " +
+                "JOIN players pl ON pl.id = n.player_id " +
+                "WHERE staff_notes_fts MATCH ? ORDER BY s.rank LIMIT ? OFFSET ?", query, offset, limit);
+    }
+
+    public int countPunishmentMatches(String query) throws SQLException {
+        return countMatches("SELECT COUNT(*) FROM punishments_fts WHERE punishments_fts MATCH ?", query);
+    }
+
+    public int countStaffNoteMatches(String query) throws SQLException {
+        return countMatches("SELECT COUNT(*) FROM staff_notes_fts WHERE staff_notes_fts MATCH ?", query);
+    }
+
+    private java.util.List<SearchHit> search(String sql, String query, int offset, int limit) throws SQLException {
+        String match = toMatchExpression(query);
+        if (match == null) {
+            return java.util.List.of();
         }
+        return pool.read(connection -> {
+            java.util.List<SearchHit> hits = new java.util.ArrayList<>();
+            PreparedStatement stmt = pool.prepare(connection, sql);
+            stmt.setString(1, match);
+            stmt.setInt(2, limit);
+            stmt.setInt(3, offset);
+            try (ResultSet rs = stmt.executeQuery()) {
+                while (rs.next()) {
+                    hits.add(new SearchHit(rs.getInt(1), rs.getString(5), rs.getString(4), rs.getString(2),
+                            rs.getLong(3)));
+                }
+            }
+            return hits;
+        });
     }
 
-    public java.util.List<StaffNote> getStaffNotes(int playerId) throws SQLException {
-        String query = "SELECT id, player_id, issuer_uuid, message, created_at FROM staff_notes " +
-                "WHERE player_id = ? ORDER BY created_at DESC";
-        java.util.List<StaffNote> results = new java.util.ArrayList<>();
+    private int countMatches(String sql, String query) throws SQLException {
+        String match = toMatchExpression(query);
+        if (match == null) {
+            return 0;
+        }
+        return pool.read(connection -> {
+            PreparedStatement stmt = pool.prepare(connection, sql);
+            stmt.setString(1, match);
+            try (ResultSet rs = stmt.executeQuery()) {
+                return rs.next() ? rs.getInt(1) : 0;
+            }
+        });
+    }
 
-        try (PreparedStatement stmt = connection.prepareStatement(query)) {
-            stmt.setInt(1, playerId);
+    // Quotes each word so user input can never be read as FTS5 syntax (x-ray, AND, col:term)
+    private static String toMatchExpression(String query) {
+        java.util.StringJoiner match = new java.util.StringJoiner(" ");
+        for (String word : query.trim().split("\\s+")) {
+            boolean prefix = word.endsWith("*");
+            String term = prefix ? word.substring(0, word.length() - 1) : word;
+            if (term.isEmpty()) {
+                continue;
+            }
+            match.add("\"" + term.replace("\"", "\"\"") + "\"" + (prefix ? "*" : ""));
+        }
+        return match.length() > 0 ? match.toString() : null;
+    }
+
+    public int countStaffNotes(int playerId) throws SQLException {
+        return count("SELECT COUNT(*) FROM staff_notes WHERE player_id = ?", playerId, 1);
+    }
+
+    // Cursor that starts a page after skipping the newest rows; walks the index only, never the rows
+    public Page.Cursor findPunishmentCursor(int playerId, int skip) throws SQLException {
+        return findCursor("SELECT created_at, id FROM punishments WHERE player_id = ? " +
+                "UNION ALL SELECT created_at, id FROM punishments_archive WHERE player_id = ? " +
+                "ORDER BY created_at DESC, id DESC LIMIT 1 OFFSET ?", playerId, skip, 2);
+    }
+
+    public Page.Cursor findStaffNoteCursor(int playerId, int skip) throws SQLException {
+        return findCursor("SELECT created_at, id FROM staff_notes WHERE player_id = ? " +
+                "ORDER BY created_at DESC, id DESC LIMIT 1 OFFSET ?", playerId, skip, 1);
+    }
+
+    // branches is how many times the player/cursor filter repeats in the query
+    private PreparedStatement bindPage(Connection connection, String query, int playerId, Page.Cursor after,
+            int limit, int branches) throws SQLException {
+        PreparedStatement stmt = pool.prepare(connection, query);
+        int index = 1;
+        for (int i = 0; i < branches; i++) {
+            stmt.setInt(index++, playerId);
+            if (after != null) {
+                stmt.setLong(index++, after.createdAt());
+                stmt.setInt(index++, after.id());
+            }
+        }
+        // One extra row tells us whether another page exists
+        stmt.setInt(index, limit + 1);
+        return stmt;
+    }
+
+    private <T> Page<T> toPage(java.util.List<T> items, int limit, java.util.function.Function<T, Page.Cursor> cursorOf) {
+        if (items.size() <= limit) {
+            return new Page<>(items, null);
+        }
+        items.remove(items.size() - 1);
+        return new Page<>(items, cursorOf.apply(items.get(items.size() - 1)));
+    }
+
+    private int count(String query, int playerId, int branches) throws SQLException {
+        return pool.read(connection -> {
+            PreparedStatement stmt = pool.prepare(connection, query);
+            for (int i = 1; i <= branches; i++) {
+                stmt.setInt(i, playerId);
+            }
+            try (ResultSet rs = stmt.executeQuery()) {
+                return rs.next() ? rs.getInt(1) : 0;
+            }
+        });
+    }
+
+    private Page.Cursor findCursor(String query, int playerId, int skip, int branches) throws SQLException {
+        if (skip <= 0) {
+            return null;
+        }
+        return pool.read(connection -> {
+            PreparedStatement stmt = pool.prepare(connection, query);
+            for (int i = 1; i <= branches; i++) {
+                stmt.setInt(i, playerId);
+            }
+            stmt.setInt(branches + 1, skip - 1);
+            try (ResultSet rs = stmt.executeQuery()) {
+                return rs.next() ? new Page.Cursor(rs.getLong(1), rs.getInt(2)) : null;
+            }
+        });
+    }
+
+    // Every punishment in id order, one page at a time; only the cursor's id is used
+    public java.util.Iterator<TransferRecord> iterateAllPunishments(int batchSize) {
+        return new KeysetIterator<>(after -> getTransferPage(after, batchSize));
+    }
+
+    private Page<TransferRecord> getTransferPage(Page.Cursor after, int limit) throws SQLException {
+        int afterId = after != null ? after.id() : 0;
+        return pool.read(connection -> {
+            PreparedStatement stmt = pool.prepare(connection, TRANSFER_PAGE);
+            stmt.setInt(1, afterId);
+            stmt.setInt(2, afterId);
+            stmt.setInt(3, limit + 1);
+
+            java.util.List<TransferRecord> items = new java.util.ArrayList<>(limit);
+            int lastId = 0;
+            boolean more = false;
             try (ResultSet rs = stmt.executeQuery()) {
                 while (rs.next()) {
-                    results.add(new StaffNote(
-                            rs.getInt("id"),
-                            rs.getInt("player_id"),
+                    if (items.size() == limit) {
+                        more = true;
+                        break;
+                    }
+                    lastId = rs.getInt("id");
+                    items.add(new TransferRecord(
+                            UUID.fromString(rs.getString("uuid")),
+                            rs.getString("username"),
+                            rs.getString("type"),
                             rs.getString("issuer_uuid"),
-                            rs.getString("message"),
-                            rs.getLong("created_at")));
+                            rs.getString("reason"),
+                            rs.getLong("created_at"),
+                            rs.getLong("expires_at"),
+                            rs.getInt("active") == 1,
+                            rs.getString("extra_data")));
+                }
+            }
+            return new Page<>(items, more ? new Page.Cursor(0, lastId) : null);
+        });
+    }
+
+    /**
+     * Inserts one chunk of imported punishments in a single transaction. Players are resolved in
+     * bulk (creating any that are missing) and the rows go in as one JDBC batch.
+     * Rows with an unknown type are skipped. Returns the number of rows inserted.
+     * The in-memory index is not touched; call {@link #syncActivePunishments()} once the import is done.
+     */
+    public int importPunishments(java.util.List<TransferRecord> records) throws SQLException {
+        if (records.isEmpty()) {
+            return 0;
+        }
+        return pool.write(connection -> {
+            java.util.Map<UUID, Integer> ids = resolvePlayerIds(connection, records);
+            java.util.Map<String, Integer> types = getPunishmentTypeIds(connection);
+
+            PreparedStatement stmt = pool.prepare(connection,
+                    "INSERT INTO punishments (player_id, type_id, issuer_uuid, reason, created_at, expires_at, active, extra_data) "
+                            + "VALUES (?, ?, ?, ?, ?, ?, ?, ?)");
+            int batched = 0;
+            for (TransferRecord record : records) {
+                Integer typeId = record.type() != null ? types.get(record.type().toUpperCase(java.util.Locale.ROOT)) : null;
+                Integer playerId = ids.get(record.uuid());
+                if (typeId == null || playerId == null) {
+                    continue;
+                }
+                stmt.setInt(1, playerId);
+                stmt.setInt(2, typeId);
+                stmt.setString(3, record.issuerUuid());
+                stmt.setString(4, record.reason());
+                stmt.setLong(5, record.createdAt());
+                if (record.expiresAt() > 0) {
+                    stmt.setLong(6, record.expiresAt());
+                } else {
+                    stmt.setNull(6, Types.BIGINT);
+                }
+                stmt.setInt(7, record.active() ? 1 : 0);
+                stmt.setString(8, record.extraData());
+                stmt.addBatch();
+                batched++;
+            }
+            if (batched > 0) {
+                stmt.executeBatch();
+            }
+            return batched;
+        });
+    }
+
+    // Looks up every player in the chunk with one IN query, inserting the ones that do not exist yet
+    private java.util.Map<UUID, Integer> resolvePlayerIds(Connection connection, java.util.List<TransferRecord> records)
+            throws SQLException {
+        java.util.Map<UUID, Integer> resolved = new java.util.HashMap<>();
+        java.util.Map<UUID, TransferRecord> missing = new java.util.LinkedHashMap<>();
+        for (TransferRecord record : records) {
+            Integer cached = playerIds.get(record.uuid());
+            if (cached != null) {
+                resolved.put(record.uuid(), cached);
+            } else {
+                missing.putIfAbsent(record.uuid(), record);
+            }
+        }
+        if (missing.isEmpty()) {
+            return resolved;
+        }
+
+        PreparedStatement insert = pool.prepare(connection,
+                pool.dialect().insertIgnore("players", "uuid, username, first_seen, last_seen", 4));
+        for (TransferRecord record : missing.values()) {
+            insert.setString(1, record.uuid().toString());
+            insert.setString(2, record.username());
+            insert.setLong(3, record.createdAt());
+            insert.setLong(4, record.createdAt());
+            insert.addBatch();
+        }
+        insert.executeBatch();
+
+        java.util.List<UUID> pending = new java.util.ArrayList<>(missing.keySet());
+        for (int from = 0; from < pending.size(); from += IN_LIST_CHUNK_SIZE) {
+            java.util.List<UUID> chunk = pending.subList(from, Math.min(from + IN_LIST_CHUNK_SIZE, pending.size()));
+            String placeholders = String.join(",", java.util.Collections.nCopies(chunk.size(), "?"));
+            try (PreparedStatement select = connection.prepareStatement(
+                    "SELECT id, uuid FROM players WHERE uuid IN (" + placeholders + ")")) {
+                for (int i = 0; i < chunk.size(); i++) {
+                    select.setString(i + 1, chunk.get(i).toString());
+                }
+                try (ResultSet rs = select.executeQuery()) {
+                    while (rs.next()) {
+                        int id = rs.getInt("id");
+                        UUID uuid = UUID.fromString(rs.getString("uuid"));
+                        rememberPlayer(id, uuid, null);
+                        resolved.put(uuid, id);
+                    }
+                }
+            }
+        }
+        return resolved;
+    }
+
+    private java.util.Map<String, Integer> getPunishmentTypeIds(Connection connection) throws SQLException {
+        if (punishmentTypeIds.isEmpty()) {
+            try (Statement stmt = connection.createStatement();
+                    ResultSet rs = stmt.executeQuery("SELECT id, name FROM punishment_types")) {
+                while (rs.next()) {
+                    punishmentTypeIds.put(rs.getString("name"), rs.getInt("id"));
                 }
             }
         }
-        return results;
+        return punishmentTypeIds;
+    }
+
+    /**
+     * Moves up to batchSize inactive punishments created before the cutoff into punishments_archive,
+     * copy and delete in one transaction. Returns how many rows moved.
+     */
+    public int archivePunishments(long createdBefore, int batchSize) throws SQLException {
+        return pool.write(connection -> {
+            java.util.List<Integer> ids = new java.util.ArrayList<>(batchSize);
+            PreparedStatement select = pool.prepare(connection,
+                    "SELECT id FROM punishments WHERE active = 0 AND created_at < ? LIMIT ?");
+            select.setLong(1, createdBefore);
+            select.setInt(2, batchSize);
+            try (ResultSet rs = select.executeQuery()) {
+                while (rs.next()) {
+                    ids.add(rs.getInt(1));
+                }
+            }
+
+            for (int from = 0; from < ids.size(); from += IN_LIST_CHUNK_SIZE) {
+                java.util.List<Integer> chunk = ids.subList(from, Math.min(from + IN_LIST_CHUNK_SIZE, ids.size()));
+                String placeholders = String.join(",", java.util.Collections.nCopies(chunk.size(), "?"));
+                try (PreparedStatement copy = connection.prepareStatement(
+                        "INSERT INTO punishments_archive (" + PUNISHMENT_COLUMNS + ") SELECT " + PUNISHMENT_COLUMNS
+                                + " FROM punishments WHERE id IN (" + placeholders + ")")) {
+                    bindIds(copy, chunk);
+                    copy.executeUpdate();
+                }
+                try (PreparedStatement delete = connection.prepareStatement(
+                        "DELETE FROM punishments WHERE id IN (" + placeholders + ")")) {
+                    bindIds(delete, chunk);
+                    delete.executeUpdate();
+                }
+            }
+            return ids.size();
+        });
     }
 
     public void insertPunishment(Punishment punishment) throws SQLException {
         String query = "INSERT INTO punishments (player_id, type_id, issuer_uuid, reason, created_at, expires_at, active, extra_data) "
                 +
                 "SELECT ?, id, ?, ?, ?, ?, ?, ? FROM punishment_types WHERE name = ?";
-        try (PreparedStatement stmt = connection.prepareStatement(query)) {
+        pool.write(connection -> {
+            PreparedStatement stmt = pool.prepareReturningKeys(connection, query);
             stmt.setInt(1, punishment.playerId());
             stmt.setString(2, punishment.issuerUuid());
             stmt.setString(3, punishment.reason());
@@ -471,22 +1261,102 @@ public class StorageManager {
             stmt.setString(7, punishment.extraData());
             stmt.setString(8, punishment.type());
             stmt.executeUpdate();
-        }
+            indexCreatedPunishment(connection, stmt, punishment);
+            return null;
+        });
     }
 
     public int deactivatePunishmentsByType(int playerId, String type) throws SQLException {
         String query = "UPDATE punishments SET active = 0 " +
                 "WHERE player_id = ? AND type_id = (SELECT id FROM punishment_types WHERE name = ?) AND active = 1";
-        try (PreparedStatement stmt = connection.prepareStatement(query)) {
+        return pool.write(connection -> {
+            int rows;
+            PreparedStatement stmt = pool.prepare(connection, query);
             stmt.setInt(1, playerId);
             stmt.setString(2, type);
-            return stmt.executeUpdate();
+            rows = stmt.executeUpdate();
+            UUID uuid = resolvePlayerUuid(connection, playerId);
+            if (uuid != null) {
+                pool.afterCommit(() -> activePunishments.removeAll(uuid, type));
+            }
+            return rows;
+        });
+    }
+
+    // Deactivates a batch of due punishments in one statement; completes with the ids that were still active
+    public CompletableFuture<java.util.List<Integer>> expirePunishments(java.util.Collection<Integer> ids) {
+        return pool.submit(connection -> {
+            java.util.List<Integer> expired = new java.util.ArrayList<>(ids.size());
+            java.util.List<Integer> remaining = new java.util.ArrayList<>(ids);
+            for (int from = 0; from < remaining.size(); from += IN_LIST_CHUNK_SIZE) {
+                java.util.List<Integer> chunk = remaining.subList(from, Math.min(from + IN_LIST_CHUNK_SIZE, remaining.size()));
+                expireChunk(connection, chunk, expired);
+            }
+            pool.afterCommit(() -> {
+                for (int id : expired) {
+                    activePunishments.remove(id);
+                }
+            });
+            return expired;
+        });
+    }
+
+    private void expireChunk(Connection connection, java.util.List<Integer> chunk, java.util.List<Integer> expired)
+            throws SQLException {
+        String placeholders = String.join(",", java.util.Collections.nCopies(chunk.size(), "?"));
+        if (pool.dialect().supportsReturning()) {
+            String query = "UPDATE punishments SET active = 0 WHERE active = 1 AND id IN (" + placeholders + ") RETURNING id";
+            try (PreparedStatement stmt = connection.prepareStatement(query)) {
+                bindIds(stmt, chunk);
+                try (ResultSet rs = stmt.executeQuery()) {
+                    while (rs.next()) {
+                        expired.add(rs.getInt(1));
+                    }
+                }
+            }
+            return;
+        }
+
+        // No RETURNING: lock the rows that are still active, then flip exactly those
+        java.util.List<Integer> locked = new java.util.ArrayList<>(chunk.size());
+        try (PreparedStatement stmt = connection.prepareStatement(
+                "SELECT id FROM punishments WHERE active = 1 AND id IN (" + placeholders + ") FOR UPDATE")) {
+            bindIds(stmt, chunk);
+            try (ResultSet rs = stmt.executeQuery()) {
+                while (rs.next()) {
+                    locked.add(rs.getInt(1));
+                }
+            }
+        }
+        if (locked.isEmpty()) {
+            return;
+        }
+        try (PreparedStatement stmt = connection.prepareStatement("UPDATE punishments SET active = 0 WHERE id IN ("
+                + String.join(",", java.util.Collections.nCopies(locked.size(), "?")) + ")")) {
+            bindIds(stmt, locked);
+            stmt.executeUpdate();
         }
+        expired.addAll(locked);
+    }
+
+    private void bindIds(PreparedStatement stmt, java.util.List<Integer> ids) throws SQLException {
+        for (int i = 0; i < ids.size(); i++) {
+            stmt.setInt(i + 1, ids.get(i));
+        }
+    }
+
+    // Online copy of the SQLite file; a shared database is backed up on its own server
+    public void backup(java.nio.file.Path destination, int pagesPerStep, org.sqlite.core.DB.ProgressObserver observer)
+            throws SQLException {
+        if (!(pool instanceof SqliteConnectionPool sqlite)) {
+            throw new IllegalStateException("Online backup is only available on SQLite");
+        }
+        sqlite.backup(destination, pagesPerStep, observer);
     }
 
     public void flush() {
-        try (Statement stmt = connection.createStatement()) {
-            stmt.execute("PRAGMA wal_checkpoint(FULL);");
+        try {
+            pool.checkpoint();
             logger.at(Level.INFO).log("Database flushed (checkpointed).");
         } catch (SQLException e) {
             logger.at(Level.SEVERE).withCause(e).log("Failed to flush database");
@@ -497,9 +1367,37 @@ public class StorageManager {
     }
 
     public ServerIdentity getOrGenerateServerIdentity() throws SQLException {
-        try (Statement stmt = connection.createStatement();
-                ResultSet rs = stmt.executeQuery(
-                        "SELECT server_id, server_secret, is_claimed, claim_token FROM server_identity WHERE id = 1")) {
+        ServerIdentity existing = pool.read(this::readServerIdentity);
+        if (existing != null) {
+            return existing;
+        }
+
+        return pool.write(connection -> {
+            // Re-check on the writer in case another thread generated it first
+            ServerIdentity current = readServerIdentity(connection);
+            if (current != null) {
+                return current;
+            }
+
+            String sid = UUID.randomUUID().toString();
+            byte[] b = new byte[32];
+            new java.security.SecureRandom().nextBytes(b);
+            String sec = java.util.Base64.getEncoder().encodeToString(b);
+
+            try (PreparedStatement stmt = connection.prepareStatement(
+                    "INSERT INTO server_identity (id, server_id, server_secret, is_claimed) VALUES (1, ?, ?, 0)")) {
+                stmt.setString(1, sid);
+                stmt.setString(2, sec);
+                stmt.executeUpdate();
+            }
+            return new ServerIdentity(sid, sec, false, null);
+        });
+    }
+
+    private ServerIdentity readServerIdentity(Connection connection) throws SQLException {
+        PreparedStatement stmt = pool.prepare(connection,
+                "SELECT server_id, server_secret, is_claimed, claim_token FROM server_identity WHERE id = 1");
+        try (ResultSet rs = stmt.executeQuery()) {
             if (rs.next()) {
                 return new ServerIdentity(
                         rs.getString("server_id"),
@@ -508,61 +1406,50 @@ public class StorageManager {
                         rs.getString("claim_token"));
             }
         }
-
-        String sid = UUID.randomUUID().toString();
-        byte[] b = new byte[32];
-        new java.security.SecureRandom().nextBytes(b);
-        String sec = java.util.Base64.getEncoder().encodeToString(b);
-
-        try (PreparedStatement stmt = connection.prepareStatement(
-                "INSERT INTO server_identity (id, server_id, server_secret, is_claimed) VALUES (1, ?, ?, 0)")) {
-            stmt.setString(1, sid);
-            stmt.setString(2, sec);
-            stmt.executeUpdate();
-        }
-        return new ServerIdentity(sid, sec, false, null);
+        return null;
     }
 
     public String getOrGenerateClaimToken() throws SQLException {
-
-        try (Statement stmt = connection.createStatement();
-                ResultSet rs = stmt.executeQuery("SELECT claim_token, is_claimed FROM server_identity WHERE id = 1")) {
-            if (rs.next()) {
-                if (rs.getInt("is_claimed") == 1) {
-                    return null;
-                }
-                String existing = rs.getString("claim_token");
-                if (existing != null && !existing.isEmpty()) {
-                    return existing;
+        return pool.write(connection -> {
+            try (Statement stmt = connection.createStatement();
+                    ResultSet rs = stmt.executeQuery("SELECT claim_token, is_claimed FROM server_identity WHERE id = 1")) {
+                if (rs.next()) {
+                    if (rs.getInt("is_claimed") == 1) {
+                        return null;
+                    }
+                    String existing = rs.getString("claim_token");
+                    if (existing != null && !existing.isEmpty()) {
+                        return existing;
+                    }
                 }
             }
-        }
 
 
-        byte[] b = new byte[16];
-        new java.security.SecureRandom().nextBytes(b);
-        String token = java.util.Base64.getUrlEncoder().withoutPadding().encodeToString(b);
+            byte[] b = new byte[16];
+            new java.security.SecureRandom().nextBytes(b);
+            String token = java.util.Base64.getUrlEncoder().withoutPadding().encodeToString(b);
 
-        try (PreparedStatement stmt = connection.prepareStatement(
-                "UPDATE server_identity SET claim_token = ? WHERE id = 1")) {
-            stmt.setString(1, token);
-            stmt.executeUpdate();
-        }
-        return token;
+            try (PreparedStatement stmt = connection.prepareStatement(
+                    "UPDATE server_identity SET claim_token = ? WHERE id = 1")) {
+                stmt.setString(1, token);
+                stmt.executeUpdate();
+            }
+            return token;
+        });
     }
 
     public boolean completeClaim(String token) throws SQLException {
-        boolean success = false;
-        try (PreparedStatement stmt = connection.prepareStatement(
-                "UPDATE server_identity SET is_claimed = 1, claim_token = NULL WHERE id = 1 AND claim_token = ? AND is_claimed = 0")) {
-            stmt.setString(1, token);
-            int rows = stmt.executeUpdate();
-            success = rows > 0;
-        }
-        return success;
+        return pool.write(connection -> {
+            try (PreparedStatement stmt = connection.prepareStatement(
+                    "UPDATE server_identity SET is_claimed = 1, claim_token = NULL WHERE id = 1 AND claim_token = ? AND is_claimed = 0")) {
+                stmt.setString(1, token);
+                int rows = stmt.executeUpdate();
+                return rows > 0;
+            }
+        });
     }
 
-    private void applyMigration7() throws SQLException {
+    private void applyMigration7(Connection connection) throws SQLException {
         try (Statement stmt = connection.createStatement()) {
             stmt.execute("CREATE TABLE IF NOT EXISTS web_commands_log (" +
                     "id TEXT PRIMARY KEY, " +
@@ -578,32 +1465,49 @@ public class StorageManager {
         }
     }
 
-    public boolean hasWebCommandProcessed(String commandId) {
-        String query = "SELECT 1 FROM web_commands_log WHERE id = ?";
-        try (PreparedStatement stmt = connection.prepareStatement(query)) {
+    /**
+     * Records a web command id in one INSERT OR IGNORE. Completes with true when this call inserted
+     * the row, false when the id was already logged, so two polls can never both claim one command.
+     */
+    public CompletableFuture<Boolean> claimWebCommand(String commandId) {
+        String query = pool.dialect().insertIgnore("web_commands_log", "id, processed_at", 2);
+        return pool.submit(connection -> {
+            PreparedStatement stmt = pool.prepare(connection, query);
             stmt.setString(1, commandId);
-            try (ResultSet rs = stmt.executeQuery()) {
-                return rs.next();
-            }
-        } catch (SQLException e) {
-            logger.at(Level.SEVERE).withCause(e).log("Failed to check processed web command: %s", commandId);
-            return false;
-        }
+            stmt.setLong(2, System.currentTimeMillis());
+            return stmt.executeUpdate() == 1;
+        });
     }
 
-    public void markWebCommandProcessed(String commandId) {
-        String query = "INSERT OR IGNORE INTO web_commands_log (id, processed_at) VALUES (?, ?)";
-        try (PreparedStatement stmt = connection.prepareStatement(query)) {
-            stmt.setString(1, commandId);
-            stmt.setLong(2, System.currentTimeMillis());
-            stmt.executeUpdate();
+    // Streams every retained command id, for warming the in-memory dedupe filter
+    public void loadWebCommandIds(java.util.function.Consumer<String> sink) {
+        try {
+            pool.read(connection -> {
+                try (Statement stmt = connection.createStatement();
+                        ResultSet rs = stmt.executeQuery("SELECT id FROM web_commands_log")) {
+                    while (rs.next()) {
+                        sink.accept(rs.getString(1));
+                    }
+                }
+                return null;
+            });
         } catch (SQLException e) {
-            logger.at(Level.SEVERE).withCause(e).log("Failed to mark web command processed: %s", commandId);
+            logger.at(Level.SEVERE).withCause(e).log("Failed to load processed web command ids");
         }
     }
 
+    // Deletes one batch of log rows older than the cutoff; returns how many went
+    public int pruneWebCommands(long olderThan, int batchSize) throws SQLException {
+        String query = pool.dialect().limitedDelete("web_commands_log", "id", "processed_at < ?", batchSize);
+        return pool.write(connection -> {
+            PreparedStatement stmt = pool.prepare(connection, query);
+            stmt.setLong(1, olderThan);
+            return stmt.executeUpdate();
+        });
+    }
+
     // Add locale column to players table
-    private void applyMigration8() throws SQLException {
+    private void applyMigration8(Connection connection) throws SQLException {
         logger.at(Level.INFO).log("Applying migration 8...");
 
         try (Statement stmt = connection.createStatement()) {
@@ -620,16 +1524,147 @@ public class StorageManager {
         logger.at(Level.INFO).log("Migration 8 applied successfully.");
     }
 
+    // Secondary indexes for the player-scoped punishment, username and note lookups
+    private void applyMigration9(Connection connection) throws SQLException {
+        logger.at(Level.INFO).log("Applying migration 9...");
+
+        try (Statement stmt = connection.createStatement()) {
+            // getPunishments: player_id, then optional active / type filters
+            stmt.execute("CREATE INDEX IF NOT EXISTS idx_punishments_player_active_type " +
+                    "ON punishments (player_id, active, type_id);");
+            // History ordered newest first, with id as tie-breaker
+            stmt.execute("CREATE INDEX IF NOT EXISTS idx_punishments_player_created " +
+                    "ON punishments (player_id, created_at, id);");
+            // Expiry sweeps only ever look at active, temporary rows
+            stmt.execute("CREATE INDEX IF NOT EXISTS idx_punishments_active_expires " +
+                    "ON punishments (expires_at) WHERE active = 1 AND expires_at IS NOT NULL;");
+            // getUuidByUsername compares with COLLATE NOCASE, so the index must use it too
+            stmt.execute("CREATE INDEX IF NOT EXISTS idx_players_username_nocase " +
+                    "ON players (username COLLATE NOCASE);");
+            stmt.execute("CREATE INDEX IF NOT EXISTS idx_staff_notes_player_created " +
+                    "ON staff_notes (player_id, created_at);");
+            // Give the planner row counts for the new indexes
+            stmt.execute("ANALYZE;");
+
+            try (PreparedStatement recordStmt = connection.prepareStatement(
+                    "INSERT INTO migrations (version, applied_at) VALUES (?, ?)")) {
+                recordStmt.setInt(1, 9);
+                recordStmt.setLong(2, System.currentTimeMillis());
+                recordStmt.executeUpdate();
+            }
+        }
+
+        logger.at(Level.INFO).log("Migration 9 applied successfully.");
+    }
+
+    // Retention pruning scans web_commands_log by age
+    private void applyMigration10(Connection connection) throws SQLException {
+        logger.at(Level.INFO).log("Applying migration 10...");
+
+        try (Statement stmt = connection.createStatement()) {
+            stmt.execute("CREATE INDEX idx_web_commands_processed ON web_commands_log (processed_at)");
+
+            try (PreparedStatement recordStmt = connection.prepareStatement(
+                    "INSERT INTO migrations (version, applied_at) VALUES (?, ?)")) {
+                recordStmt.setInt(1, 10);
+                recordStmt.setLong(2, System.currentTimeMillis());
+                recordStmt.executeUpdate();
+            }
+        }
+
+        logger.at(Level.INFO).log("Migration 10 applied successfully.");
+    }
+
+    // Cold storage for old inactive punishments; rows keep their original ids
+    private void applyMigration11(Connection connection) throws SQLException {
+        logger.at(Level.INFO).log("Applying migration 11...");
+
+        try (Statement stmt = connection.createStatement()) {
+            stmt.execute("CREATE TABLE punishments_archive (" +
+                    "id INTEGER PRIMARY KEY, " +
+                    "player_id INTEGER NOT NULL, " +
+                    "type_id INTEGER NOT NULL, " +
+                    "issuer_uuid VARCHAR(64), " +
+                    "reason TEXT, " +
+                    "created_at BIGINT NOT NULL, " +
+                    "expires_at BIGINT, " +
+                    "active INTEGER NOT NULL, " +
+                    "extra_data TEXT, " +
+                    "FOREIGN KEY(player_id) REFERENCES players(id), " +
+                    "FOREIGN KEY(type_id) REFERENCES punishment_types(id)" +
+                    ")");
+            stmt.execute("CREATE INDEX idx_punishments_archive_player_created " +
+                    "ON punishments_archive (player_id, created_at, id)");
+            // Lets the archiver find old inactive rows without scanning the live table
+            stmt.execute("CREATE INDEX idx_punishments_active_created ON punishments (active, created_at)");
+
+            try (PreparedStatement recordStmt = connection.prepareStatement(
+                    "INSERT INTO migrations (version, applied_at) VALUES (?, ?)")) {
+                recordStmt.setInt(1, 11);
+                recordStmt.setLong(2, System.currentTimeMillis());
+                recordStmt.executeUpdate();
+            }
+        }
+
+        logger.at(Level.INFO).log("Migration 11 applied successfully.");
+    }
+
+    // Full-text indexes over punishment reasons and note messages, kept current by triggers (SQLite only)
+    private void applyMigration12(Connection connection) throws SQLException {
+        logger.at(Level.INFO).log("Applying migration 12...");
+
+        try (Statement stmt = connection.createStatement()) {
+            if (pool.dialect() == SqlDialect.SQLITE) {
+                stmt.execute("CREATE VIRTUAL TABLE punishments_fts USING fts5(reason, " + FTS_TOKENIZER + ")");
+                stmt.execute("CREATE VIRTUAL TABLE staff_notes_fts USING fts5(message, " + FTS_TOKENIZER + ")");
+
+                // Archiving keeps punishment ids, so index rows are never removed for punishments
+                stmt.execute("CREATE TRIGGER punishments_fts_insert AFTER INSERT ON punishments " +
+                        "WHEN new.reason IS NOT NULL BEGIN " +
+                        "INSERT INTO punishments_fts (rowid, reason) VALUES (new.id, new.reason); END");
+                stmt.execute("CREATE TRIGGER punishments_fts_update AFTER UPDATE OF reason ON punishments BEGIN " +
+                        "DELETE FROM punishments_fts WHERE rowid = old.id; " +
+                        "INSERT INTO punishments_fts (rowid, reason) SELECT new.id, new.reason WHERE new.reason IS NOT NULL; END");
+
+                stmt.execute("CREATE TRIGGER staff_notes_fts_insert AFTER INSERT ON staff_notes BEGIN " +
+                        "INSERT INTO staff_notes_fts (rowid, message) VALUES (new.id, new.message); END");
+                stmt.execute("CREATE TRIGGER staff_notes_fts_update AFTER UPDATE OF message ON staff_notes BEGIN " +
+                        "DELETE FROM staff_notes_fts WHERE rowid = old.id; " +
+                        "INSERT INTO staff_notes_fts (rowid, message) VALUES (new.id, new.message); END");
+                stmt.execute("CREATE TRIGGER staff_notes_fts_delete AFTER DELETE ON staff_notes BEGIN " +
+                        "DELETE FROM staff_notes_fts WHERE rowid = old.id; END");
+
+                stmt.execute("INSERT INTO punishments_fts (rowid, reason) " +
+                        "SELECT id, reason FROM punishments WHERE reason IS NOT NULL " +
+                        "UNION ALL SELECT id, reason FROM punishments_archive WHERE reason IS NOT NULL");
+                stmt.execute("INSERT INTO staff_notes_fts (rowid, message) SELECT id, message FROM staff_notes");
+            }
+
+            try (PreparedStatement recordStmt = connection.prepareStatement(
+                    "INSERT INTO migrations (version, applied_at) VALUES (?, ?)")) {
+                recordStmt.setInt(1, 12);
+                recordStmt.setLong(2, System.currentTimeMillis());
+                recordStmt.executeUpdate();
+            }
+        }
+
+        logger.at(Level.INFO).log("Migration 12 applied successfully.");
+    }
+
     // Get player locale by UUID
     public java.util.Optional<String> getPlayerLocale(UUID uuid) {
-        try (PreparedStatement stmt = connection.prepareStatement("SELECT locale FROM players WHERE uuid = ?")) {
-            stmt.setString(1, uuid.toString());
-            try (ResultSet rs = stmt.executeQuery()) {
-                if (rs.next()) {
-                    String locale = rs.getString("locale");
-                    return locale != null && !locale.isEmpty() ? java.util.Optional.of(locale) : java.util.Optional.empty();
+        try {
+            return pool.read(connection -> {
+                PreparedStatement stmt = pool.prepare(connection, "SELECT locale FROM players WHERE uuid = ?");
+                stmt.setString(1, uuid.toString());
+                try (ResultSet rs = stmt.executeQuery()) {
+                    if (rs.next()) {
+                        String locale = rs.getString("locale");
+                        return locale != null && !locale.isEmpty() ? java.util.Optional.of(locale) : java.util.Optional.<String>empty();
+                    }
                 }
-            }
+                return java.util.Optional.<String>empty();
+            });
         } catch (SQLException e) {
             logger.at(Level.SEVERE).withCause(e).log("Failed to get locale for %s", uuid);
         }
@@ -641,10 +1676,14 @@ public class StorageManager {
     // Set player locale by UUID
     // @deprecated Use LanguageManager.setPlayerLocale for caching support
     public void setPlayerLocale(UUID uuid, String locale) {
-        try (PreparedStatement stmt = connection.prepareStatement("UPDATE players SET locale = ? WHERE uuid = ?")) {
-            stmt.setObject(1, locale);
-            stmt.setString(2, uuid.toString());
-            stmt.executeUpdate();
+        try {
+            pool.write(connection -> {
+                PreparedStatement stmt = pool.prepare(connection, "UPDATE players SET locale = ? WHERE uuid = ?");
+                stmt.setString(1, locale);
+                stmt.setString(2, uuid.toString());
+                stmt.executeUpdate();
+                return null;
+            });
         } catch (SQLException e) {
             logger.at(Level.SEVERE).withCause(e).log("Failed to set locale for %s", uuid);
         }
@@ -0,0 +1,16 @@
+package me.almana.moderationplus.storage;
+
+import java.util.UUID;
+
+// One punishment as it appears in an import or export file, keyed by player UUID instead of row id
+public record TransferRecord(
+        UUID uuid,
+        String username,
+        String type,
+        String issuerUuid,
+        String reason,
+        long createdAt,
+        long expiresAt,
+        boolean active,
+        String extraData) {
+}
@@ -0,0 +1,205 @@
+package me.almana.moderationplus.storage;
+
+import com.hypixel.hytale.logger.HytaleLogger;
+import me.almana.moderationplus.core.metrics.MetricsRegistry;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.EnumMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.LongSupplier;
+import java.util.logging.Level;
+
+/**
+ * Checkpoints the SQLite WAL from its own connection and thread, choosing the mode from load.
+ * A PASSIVE checkpoint runs once writes pause (or after maxIntervalMillis of constant writes) and
+ * never blocks the writer. Only a backlog that readers keep pinned past restartFrames, or a WAL
+ * file past truncateBytes, escalates to RESTART or TRUNCATE, which hold writers off while they wait.
+ * Commit-time autocheckpoints still cover the WAL under sustained load.
+ */
+final class WalCheckpointer {
+
+    enum Mode {
+        PASSIVE,
+        RESTART,
+        TRUNCATE
+    }
+
+    private static final HytaleLogger logger = HytaleLogger.forEnclosingClass();
+    // A failed escalation usually means a long reader; give it time before blocking writers again
+    private static final long ESCALATION_COOLDOWN_MILLIS = 60_000;
+
+    private final String url;
+    private final Path walFile;
+    private final int busyTimeoutMillis;
+    private final long intervalSeconds;
+    private final long maxIntervalMillis;
+    private final long restartFrames;
+    private final long truncateBytes;
+    private final LongSupplier committedWrites;
+    private final Map<Mode, LongAdder> runs = new EnumMap<>(Mode.class);
+    private final LongAdder framesMoved = new LongAdder();
+    private final LongAdder totalMillis = new LongAdder();
+    private volatile long lastDurationMillis;
+    private volatile long maxDurationMillis;
+    private volatile long backlogFrames;
+    private ScheduledExecutorService executor;
+    private Connection connection;
+
+    // Only touched on the checkpointer thread
+    private long lastWrites;
+    private boolean dirty;
+    private long lastCheckpointAt = System.currentTimeMillis();
+    private long lastEscalationAt;
+    private long lastLogFrames;
+    private long lastCheckpointedFrames;
+
+    WalCheckpointer(String url, Path walFile, int busyTimeoutMillis, long intervalSeconds, long maxIntervalMillis,
+            long restartFrames, long truncateBytes, LongSupplier committedWrites) {
+        this.url = url;
+        this.walFile = walFile;
+        this.busyTimeoutMillis = busyTimeoutMillis;
+        this.intervalSeconds = intervalSeconds;
+        this.maxIntervalMillis = maxIntervalMillis;
+        this.restartFrames = restartFrames;
+        this.truncateBytes = truncateBytes;
+        this.committedWrites = committedWrites;
+        for (Mode mode : Mode.values()) {
+            runs.put(mode, new LongAdder());
+        }
+    }
+
+    void start() throws SQLException {
+        connection = DriverManager.getConnection(url);
+        try (Statement stmt = connection.createStatement()) {
+            stmt.execute("PRAGMA busy_timeout = " + busyTimeoutMillis + ";");
+        }
+        lastWrites = committedWrites.getAsLong();
+        executor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "ModerationPlus-DB-Checkpointer");
+            thread.setDaemon(true);
+            return thread;
+        });
+        executor.scheduleWithFixedDelay(this::tick, intervalSeconds, intervalSeconds, TimeUnit.SECONDS);
+    }
+
+    void stop() {
+        if (executor != null) {
+            executor.shutdown();
+            try {
+                executor.awaitTermination(busyTimeoutMillis + 1000L, TimeUnit.MILLISECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        if (connection != null) {
+            try {
+                connection.close();
+            } catch (SQLException e) {
+                logger.at(Level.SEVERE).withCause(e).log("Failed to close checkpoint connection");
+            }
+        }
+    }
+
+    void registerMetrics(MetricsRegistry metrics) {
+        for (Mode mode : Mode.values()) {
+            metrics.gauge("storage.checkpoint." + mode.name().toLowerCase(Locale.ROOT), runs.get(mode)::sum);
+        }
+        metrics.gauge("storage.checkpoint.frames", framesMoved::sum);
+        metrics.gauge("storage.checkpoint.total_ms", totalMillis::sum);
+        metrics.gauge("storage.checkpoint.last_ms", () -> lastDurationMillis);
+        metrics.gauge("storage.checkpoint.max_ms", () -> maxDurationMillis);
+        metrics.gauge("storage.checkpoint.backlog_frames", () -> backlogFrames);
+        metrics.gauge("storage.wal_bytes", this::walBytes);
+    }
+
+    private void tick() {
+        try {
+            long writes = committedWrites.getAsLong();
+            long newWrites = writes - lastWrites;
+            lastWrites = writes;
+            if (newWrites > 0) {
+                dirty = true;
+            }
+
+            long now = System.currentTimeMillis();
+            Mode mode = choose(newWrites, walBytes(), now);
+            if (mode != null) {
+                run(mode, now);
+            }
+        } catch (Exception e) {
+            logger.at(Level.SEVERE).withCause(e).log("WAL checkpoint failed");
+        }
+    }
+
+    private Mode choose(long newWrites, long walBytes, long now) {
+        boolean mayEscalate = now - lastEscalationAt >= ESCALATION_COOLDOWN_MILLIS;
+        if (mayEscalate && walBytes >= truncateBytes) {
+            return Mode.TRUNCATE;
+        }
+        if (!dirty) {
+            return null;
+        }
+        if (mayEscalate && backlogFrames >= restartFrames) {
+            return Mode.RESTART;
+        }
+        if (newWrites == 0 || now - lastCheckpointAt >= maxIntervalMillis) {
+            return Mode.PASSIVE;
+        }
+        return null;
+    }
+
+    private void run(Mode mode, long now) throws SQLException {
+        long start = System.nanoTime();
+        int busy;
+        long log;
+        long checkpointed;
+        try (Statement stmt = connection.createStatement();
+                ResultSet rs = stmt.executeQuery("PRAGMA wal_checkpoint(" + mode.name() + ");")) {
+            rs.next();
+            busy = rs.getInt(1);
+            log = rs.getLong(2);
+            checkpointed = rs.getLong(3);
+        }
+        long elapsed = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+
+        // Counts are per WAL generation; a smaller log means the WAL was reset in between
+        long moved = log >= lastLogFrames ? checkpointed - lastCheckpointedFrames : checkpointed;
+        framesMoved.add(Math.max(0, moved));
+        boolean reset = mode != Mode.PASSIVE && busy == 0;
+        lastLogFrames = reset ? 0 : log;
+        lastCheckpointedFrames = reset ? 0 : checkpointed;
+
+        runs.get(mode).increment();
+        totalMillis.add(elapsed);
+        lastDurationMillis = elapsed;
+        maxDurationMillis = Math.max(maxDurationMillis, elapsed);
+        backlogFrames = Math.max(0, log - checkpointed);
+        dirty = busy != 0 || backlogFrames > 0;
+        lastCheckpointAt = now;
+        if (mode != Mode.PASSIVE) {
+            lastEscalationAt = now;
+            logger.at(Level.INFO).log("WAL %s checkpoint: %d/%d frames in %dms%s", mode, checkpointed, log, elapsed,
+                    busy != 0 ? " (blocked by readers)" : "");
+        }
+    }
+
+    private long walBytes() {
+        try {
+            return Files.exists(walFile) ? Files.size(walFile) : 0;
+        } catch (IOException e) {
+            return 0;
+        }
+    }
+}
@@ -0,0 +1,394 @@
+package me.almana.moderationplus.storage;
+
+import com.hypixel.hytale.logger.HytaleLogger;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Savepoint;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.logging.Level;
+
+/**
+ * Single writer thread shared by every backend.
+ * Queued writes are grouped into one transaction per batch window, each under its own savepoint,
+ * and their futures complete only once the batch has committed. Work can register
+ * {@link #afterCommit(Runnable) after-commit actions} for in-memory state that must only change
+ * once its rows are durable.
+ */
+final class WriteQueue {
+
+    private static final HytaleLogger logger = HytaleLogger.forEnclosingClass();
+
+    // Where the writer gets its connection; SQLite keeps one open, pooled backends borrow per batch
+    interface ConnectionSource {
+        Connection acquire() throws SQLException;
+
+        void release(Connection connection);
+    }
+
+    private final String threadName;
+    private final ConnectionSource source;
+    private final BlockingQueue<PendingWrite<?>> queue;
+    private final long offerTimeoutMillis;
+    private final int batchSize;
+    private final long batchWindowMillis;
+    private final LongAdder committedBatches = new LongAdder();
+    private final LongAdder committedWrites = new LongAdder();
+    private final LongAdder rejectedWrites = new LongAdder();
+    private volatile Thread writerThread;
+    private volatile boolean closed;
+    // Only touched by the writer thread
+    private Connection current;
+    private PendingWrite<?> running;
+
+    WriteQueue(String threadName, ConnectionSource source, int capacity, long offerTimeoutMillis, int batchSize,
+            long batchWindowMillis) {
+        this.threadName = threadName;
+        this.source = source;
+        this.queue = new ArrayBlockingQueue<>(Math.max(1, capacity));
+        this.offerTimeoutMillis = offerTimeoutMillis;
+        this.batchSize = Math.max(1, batchSize);
+        this.batchWindowMillis = batchWindowMillis;
+    }
+
+    void start() {
+        Thread thread = new Thread(this::runWriter, threadName);
+        thread.setDaemon(true);
+        writerThread = thread;
+        thread.start();
+    }
+
+    boolean isWriterThread() {
+        return Thread.currentThread() == writerThread;
+    }
+
+    // The connection the writer is running work on; only meaningful from inside that work
+    Connection currentConnection() {
+        return current;
+    }
+
+    /**
+     * Runs action once the write currently running on this thread has committed, and drops it if the
+     * write or its batch rolls back. Anywhere else there is nothing pending, so it runs straight away.
+     */
+    void afterCommit(Runnable action) {
+        PendingWrite<?> op = running;
+        if (isWriterThread() && op != null) {
+            op.afterCommit(action);
+        } else {
+            action.run();
+        }
+    }
+
+    <T> T write(StorageBackend.SqlWork<T> work) throws SQLException {
+        if (isWriterThread()) {
+            return work.apply(current);
+        }
+        return await(submit(work));
+    }
+
+    <T> T writeOutsideTransaction(StorageBackend.SqlWork<T> work) throws SQLException {
+        if (isWriterThread()) {
+            return work.apply(current);
+        }
+        return await(enqueue(new PendingWrite<>(work, false)));
+    }
+
+    <T> CompletableFuture<T> submit(StorageBackend.SqlWork<T> work) {
+        if (isWriterThread()) {
+            try {
+                return CompletableFuture.completedFuture(work.apply(current));
+            } catch (SQLException e) {
+                return CompletableFuture.failedFuture(e);
+            }
+        }
+        return enqueue(new PendingWrite<>(work, true));
+    }
+
+    private <T> CompletableFuture<T> enqueue(PendingWrite<T> op) {
+        if (closed) {
+            op.future.completeExceptionally(new SQLException("Database writer is shut down"));
+            return op.future;
+        }
+        try {
+            // Bounded queue: callers wait here when the writer falls behind
+            if (!queue.offer(op, offerTimeoutMillis, TimeUnit.MILLISECONDS)) {
+                rejectedWrites.increment();
+                op.future.completeExceptionally(new SQLException("Database write queue is full"));
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            op.future.completeExceptionally(new SQLException("Interrupted while queueing a database write", e));
+        }
+        return op.future;
+    }
+
+    private <T> T await(CompletableFuture<T> future) throws SQLException {
+        try {
+            return future.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new SQLException("Interrupted while waiting for a database write", e);
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof SQLException sqlException) {
+                throw sqlException;
+            }
+            if (cause instanceof RuntimeException runtimeException) {
+                throw runtimeException;
+            }
+            throw new SQLException("Database write failed", cause);
+        }
+    }
+
+    private void runWriter() {
+        List<PendingWrite<?>> batch = new ArrayList<>(batchSize);
+        long windowNanos = TimeUnit.MILLISECONDS.toNanos(batchWindowMillis);
+
+        while (true) {
+            PendingWrite<?> first;
+            try {
+                first = queue.poll(200, TimeUnit.MILLISECONDS);
+            } catch (InterruptedException e) {
+                // close() only interrupts once its drain timeout has passed
+                closed = true;
+                first = queue.poll();
+            }
+            if (first == null) {
+                if (closed) {
+                    return;
+                }
+                continue;
+            }
+
+            if (!first.transactional) {
+                runAlone(first);
+                continue;
+            }
+
+            batch.add(first);
+            long deadline = System.nanoTime() + windowNanos;
+            while (batch.size() < batchSize) {
+                PendingWrite<?> next = queue.peek();
+                if (next == null) {
+                    long remaining = deadline - System.nanoTime();
+                    if (remaining <= 0 || closed) {
+                        break;
+                    }
+                    try {
+                        next = queue.poll(remaining, TimeUnit.NANOSECONDS);
+                    } catch (InterruptedException e) {
+                        closed = true;
+                        break;
+                    }
+                    if (next == null) {
+                        break;
+                    }
+                } else {
+                    queue.poll();
+                }
+                if (!next.transactional) {
+                    // Commit what we have first so the autocommit op still runs in order
+                    commitBatch(batch);
+                    batch.clear();
+                    runAlone(next);
+                    deadline = System.nanoTime() + windowNanos;
+                    continue;
+                }
+                batch.add(next);
+            }
+
+            commitBatch(batch);
+            batch.clear();
+        }
+    }
+
+    private void runAlone(PendingWrite<?> op) {
+        Connection connection;
+        try {
+            connection = source.acquire();
+        } catch (SQLException e) {
+            op.future.completeExceptionally(e);
+            return;
+        }
+        current = connection;
+        running = op;
+        try {
+            op.runAlone(connection);
+        } finally {
+            running = null;
+            current = null;
+            source.release(connection);
+        }
+    }
+
+    private void commitBatch(List<PendingWrite<?>> batch) {
+        if (batch.isEmpty()) {
+            return;
+        }
+        Connection connection;
+        try {
+            connection = source.acquire();
+        } catch (SQLException e) {
+            logger.at(Level.SEVERE).withCause(e).log("No connection for batch of %d database writes", batch.size());
+            for (PendingWrite<?> op : batch) {
+                op.future.completeExceptionally(e);
+            }
+            return;
+        }
+        current = connection;
+        try {
+            connection.setAutoCommit(false);
+            // Each op gets a savepoint so one bad write does not sink the rest of the batch
+            for (PendingWrite<?> op : batch) {
+                running = op;
+                op.runInSavepoint(connection);
+            }
+            running = null;
+            connection.commit();
+            committedBatches.increment();
+            committedWrites.add(batch.size());
+            for (PendingWrite<?> op : batch) {
+                op.publish();
+            }
+        } catch (SQLException e) {
+            logger.at(Level.SEVERE).withCause(e).log("Failed to commit batch of %d database writes", batch.size());
+            try {
+                connection.rollback();
+            } catch (SQLException rollbackError) {
+                logger.at(Level.SEVERE).withCause(rollbackError).log("Failed to roll back database write batch");
+            }
+            for (PendingWrite<?> op : batch) {
+                op.future.completeExceptionally(e);
+            }
+        } finally {
+            running = null;
+            try {
+                connection.setAutoCommit(true);
+            } catch (SQLException e) {
+                logger.at(Level.SEVERE).withCause(e).log("Failed to restore autocommit on writer connection");
+            }
+            current = null;
+            source.release(connection);
+        }
+    }
+
+    int pending() {
+        return queue.size();
+    }
+
+    long committedBatches() {
+        return committedBatches.sum();
+    }
+
+    long committedWrites() {
+        return committedWrites.sum();
+    }
+
+    long rejectedWrites() {
+        return rejectedWrites.sum();
+    }
+
+    // Stops accepting writes and drains everything already queued; the caller closes connections afterwards
+    void close() {
+        closed = true;
+        Thread thread = writerThread;
+        if (thread != null) {
+            try {
+                thread.join(TimeUnit.SECONDS.toMillis(10));
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            if (thread.isAlive()) {
+                logger.at(Level.WARNING).log("Database writer did not finish %d pending writes in time.", queue.size());
+                thread.interrupt();
+            }
+        }
+
+        PendingWrite<?> leftover;
+        while ((leftover = queue.poll()) != null) {
+            leftover.future.completeExceptionally(new SQLException("Database writer is shut down"));
+        }
+    }
+
+    private static final class PendingWrite<T> {
+        private final StorageBackend.SqlWork<T> work;
+        private final boolean transactional;
+        private final CompletableFuture<T> future = new CompletableFuture<>();
+        private List<Runnable> afterCommit;
+        private T result;
+        private SQLException failure;
+
+        private PendingWrite(StorageBackend.SqlWork<T> work, boolean transactional) {
+            this.work = work;
+            this.transactional = transactional;
+        }
+
+        private void afterCommit(Runnable action) {
+            if (afterCommit == null) {
+                afterCommit = new ArrayList<>(2);
+            }
+            afterCommit.add(action);
+        }
+
+        private void runInSavepoint(Connection connection) throws SQLException {
+            Savepoint savepoint = connection.setSavepoint();
+            try {
+                result = work.apply(connection);
+                connection.releaseSavepoint(savepoint);
+            } catch (SQLException | RuntimeException e) {
+                // Rolled back to the savepoint, so nothing this op registered may run
+                afterCommit = null;
+                connection.rollback(savepoint);
+                connection.releaseSavepoint(savepoint);
+                failure = e instanceof SQLException sqlException
+                        ? sqlException
+                        : new SQLException("Database write failed", e);
+            }
+        }
+
+        // Futures only complete after the commit, so callers never observe uncommitted data
+        private void publish() {
+            if (failure != null) {
+                future.completeExceptionally(failure);
+            } else {
+                runAfterCommit();
+                future.complete(result);
+            }
+        }
+
+        private void runAlone(Connection connection) {
+            T value;
+            try {
+                value = work.apply(connection);
+            } catch (SQLException | RuntimeException e) {
+                future.completeExceptionally(e);
+                return;
+            }
+            runAfterCommit();
+            future.complete(value);
+        }
+
+        // Before the future completes, so a caller that waited sees the in-memory state already updated
+        private void runAfterCommit() {
+            if (afterCommit == null) {
+                return;
+            }
+            for (Runnable action : afterCommit) {
+                try {
+                    action.run();
+                } catch (RuntimeException e) {
+                    logger.at(Level.SEVERE).withCause(e).log("After-commit action failed");
+                }
+            }
+            afterCommit = null;
+        }
+    }
+}
@@ -15,7 +15,6 @@ import com.hypixel.hytale.server.core.universe.world.storage.EntityStore;
 import me.almana.moderationplus.component.FrozenComponent;
 import me.almana.moderationplus.component.JailedComponent;
 import me.almana.moderationplus.ModerationPlus;
-import me.almana.moderationplus.service.ExecutionContext;
 
 import javax.annotation.Nonnull;
 import java.util.Iterator;
@@ -58,20 +57,7 @@ public class PlayerFreezeSystem extends EntityTickingSystem<EntityStore> {
         if (playerInput == null || transform == null)
             return;
 
-        if (jailed != null && jailed.getExpiresAt() > 0 && System.currentTimeMillis() > jailed.getExpiresAt()) {
-             commandBuffer.removeComponent(archetypeChunk.getReferenceTo(index), JailedComponent.getComponentType());
-             if (frozen != null) {
-                 commandBuffer.removeComponent(archetypeChunk.getReferenceTo(index), FrozenComponent.getComponentType());
-             }
-             
-             Player player = archetypeChunk.getComponent(index, Player.getComponentType());
-             if (player != null) {
-                 ExecutionContext ctx = ExecutionContext.console();
-                 plugin.getModerationService().unjail(player.getUuid(), player.getDisplayName(), ctx);
-             }
-             return;
-        }
-
+        // Jail expiry is driven by PunishmentExpiryScheduler, which removes these components
         if (frozen != null) {
             handleFreeze(frozen, playerInput, transform, archetypeChunk, index, commandBuffer);
         } else {
@@ -109,11 +95,6 @@ public class PlayerFreezeSystem extends EntityTickingSystem<EntityStore> {
     private void handleJail(JailedComponent jailed, TransformComponent transform, ArchetypeChunk<EntityStore> chunk,
             int index, CommandBuffer<EntityStore> commandBuffer) {
 
-        if (jailed.getExpiresAt() > 0 && System.currentTimeMillis() > jailed.getExpiresAt()) {
-            commandBuffer.removeComponent(chunk.getReferenceTo(index), JailedComponent.getComponentType());
-            return;
-        }
-
         Vector3d currentPos = transform.getPosition();
         Vector3d origin = jailed.getOrigin();
         double radius = jailed.getRadius();
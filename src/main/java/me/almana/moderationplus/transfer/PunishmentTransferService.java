@@ -0,0 +1,118 @@
+package me.almana.moderationplus.transfer;
+
+import com.hypixel.hytale.logger.HytaleLogger;
+import me.almana.moderationplus.storage.StorageManager;
+import me.almana.moderationplus.storage.TransferRecord;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.function.Consumer;
+import java.util.logging.Level;
+
+/**
+ * Streams punishments between the database and JSONL/CSV files in mods/data/transfer.
+ * Exports page through the table by id; imports read and insert fixed-size chunks.
+ * Neither side ever holds more than one page or chunk in memory.
+ */
+public class PunishmentTransferService {
+
+    private static final HytaleLogger logger = HytaleLogger.forEnclosingClass();
+    private static final Path TRANSFER_DIR = Paths.get("mods", "data", "transfer");
+    private static final int EXPORT_PAGE_SIZE = 5000;
+    private static final int IMPORT_CHUNK_SIZE = 1000;
+    private static final int PROGRESS_EVERY = 50_000;
+    private static final int BUFFER_SIZE = 1 << 16;
+
+    public record Result(int processed, int imported, int skipped, long elapsedMillis) {
+    }
+
+    private final StorageManager storage;
+
+    public PunishmentTransferService(StorageManager storage) {
+        this.storage = storage;
+    }
+
+    // Only bare file names inside the transfer folder, so a command can never write elsewhere
+    public Path resolve(String fileName) {
+        if (fileName.isEmpty() || fileName.contains("/") || fileName.contains("\\") || fileName.startsWith(".")) {
+            throw new IllegalArgumentException("File name must be a plain name inside " + TRANSFER_DIR);
+        }
+        if (TransferFormat.fromFileName(fileName) == null) {
+            throw new IllegalArgumentException("File must end in .jsonl or .csv");
+        }
+        return TRANSFER_DIR.resolve(fileName);
+    }
+
+    public Result export(String fileName, Consumer<String> progress) throws IOException {
+        Path file = resolve(fileName);
+        TransferFormat format = TransferFormat.fromFileName(fileName);
+        Files.createDirectories(TRANSFER_DIR);
+
+        long start = System.currentTimeMillis();
+        int written = 0;
+        try (BufferedWriter out = new BufferedWriter(
+                Files.newBufferedWriter(file, StandardCharsets.UTF_8, StandardOpenOption.CREATE,
+                        StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE),
+                BUFFER_SIZE)) {
+            TransferFormat.RecordWriter writer = format.writer(out);
+            Iterator<TransferRecord> records = storage.iterateAllPunishments(EXPORT_PAGE_SIZE);
+            while (records.hasNext()) {
+                writer.write(records.next());
+                written++;
+                if (written % PROGRESS_EVERY == 0) {
+                    progress.accept("Exported " + written + " punishments...");
+                }
+            }
+        }
+
+        long elapsed = System.currentTimeMillis() - start;
+        logger.at(Level.INFO).log("Exported %d punishments to %s in %dms", written, file, elapsed);
+        return new Result(written, written, 0, elapsed);
+    }
+
+    public Result importFile(String fileName, Consumer<String> progress) throws IOException, java.sql.SQLException {
+        Path file = resolve(fileName);
+        if (!Files.isRegularFile(file)) {
+            throw new IOException("No such file: " + file);
+        }
+        TransferFormat format = TransferFormat.fromFileName(fileName);
+
+        long start = System.currentTimeMillis();
+        int processed = 0;
+        int imported = 0;
+        try (BufferedReader in = new BufferedReader(Files.newBufferedReader(file, StandardCharsets.UTF_8), BUFFER_SIZE)) {
+            TransferFormat.RecordReader reader = format.reader(in);
+            List<TransferRecord> chunk = new ArrayList<>(IMPORT_CHUNK_SIZE);
+            TransferRecord record;
+            while ((record = reader.next()) != null) {
+                chunk.add(record);
+                processed++;
+                if (chunk.size() == IMPORT_CHUNK_SIZE) {
+                    // One transaction and one JDBC batch per chunk
+                    imported += storage.importPunishments(chunk);
+                    chunk.clear();
+                }
+                if (processed % PROGRESS_EVERY == 0) {
+                    progress.accept("Imported " + processed + " punishments...");
+                }
+            }
+            imported += storage.importPunishments(chunk);
+        }
+
+        // Imported active rows become enforceable (and schedule their expiry) once indexed
+        storage.syncActivePunishments();
+
+        long elapsed = System.currentTimeMillis() - start;
+        logger.at(Level.INFO).log("Imported %d of %d punishments from %s in %dms", imported, processed, file, elapsed);
+        return new Result(processed, imported, processed - imported, elapsed);
+    }
+}
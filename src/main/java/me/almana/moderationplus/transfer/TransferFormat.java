@@ -0,0 +1,204 @@
+package me.almana.moderationplus.transfer;
+
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+import me.almana.moderationplus.storage.TransferRecord;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * File formats for punishment import/export. Both are read and written one record at a time.
+ * JSONL is one object per line; CSV has a header row and RFC 4180 quoting.
+ */
+public enum TransferFormat {
+    JSONL,
+    CSV;
+
+    private static final String[] COLUMNS = {
+            "uuid", "username", "type", "issuer_uuid", "reason", "created_at", "expires_at", "active", "extra_data"
+    };
+
+    public interface RecordWriter {
+        void write(TransferRecord record) throws IOException;
+    }
+
+    public interface RecordReader {
+        // Null once the input is exhausted
+        TransferRecord next() throws IOException;
+    }
+
+    public static TransferFormat fromFileName(String fileName) {
+        String lower = fileName.toLowerCase(java.util.Locale.ROOT);
+        if (lower.endsWith(".jsonl") || lower.endsWith(".ndjson")) {
+            return JSONL;
+        }
+        if (lower.endsWith(".csv")) {
+            return CSV;
+        }
+        return null;
+    }
+
+    public RecordWriter writer(Writer out) throws IOException {
+        if (this == JSONL) {
+            return record -> {
+                JsonObject json = new JsonObject();
+                json.addProperty("uuid", record.uuid().toString());
+                json.addProperty("username", record.username());
+                json.addProperty("type", record.type());
+                json.addProperty("issuer_uuid", record.issuerUuid());
+                json.addProperty("reason", record.reason());
+                json.addProperty("created_at", record.createdAt());
+                json.addProperty("expires_at", record.expiresAt());
+                json.addProperty("active", record.active());
+                json.addProperty("extra_data", record.extraData());
+                out.write(json.toString());
+                out.write('\n');
+            };
+        }
+
+        out.write(String.join(",", COLUMNS));
+        out.write('\n');
+        return record -> {
+            writeCsvRow(out, record.uuid().toString(), record.username(), record.type(), record.issuerUuid(),
+                    record.reason(), Long.toString(record.createdAt()), Long.toString(record.expiresAt()),
+                    record.active() ? "1" : "0", record.extraData());
+        };
+    }
+
+    public RecordReader reader(BufferedReader in) throws IOException {
+        if (this == JSONL) {
+            return () -> {
+                String line;
+                while ((line = in.readLine()) != null) {
+                    if (line.isBlank()) {
+                        continue;
+                    }
+                    JsonObject json = JsonParser.parseString(line).getAsJsonObject();
+                    Map<String, String> fields = new HashMap<>();
+                    for (String column : COLUMNS) {
+                        JsonElement value = json.get(column);
+                        if (value != null && !value.isJsonNull()) {
+                            fields.put(column, value.getAsString());
+                        }
+                    }
+                    return toRecord(fields);
+                }
+                return null;
+            };
+        }
+
+        List<String> header = readCsvRow(in);
+        if (header == null) {
+            return () -> null;
+        }
+        return () -> {
+            List<String> row = readCsvRow(in);
+            if (row == null) {
+                return null;
+            }
+            Map<String, String> fields = new HashMap<>();
+            for (int i = 0; i < header.size() && i < row.size(); i++) {
+                String value = row.get(i);
+                if (!value.isEmpty()) {
+                    fields.put(header.get(i).trim().toLowerCase(java.util.Locale.ROOT), value);
+                }
+            }
+            return toRecord(fields);
+        };
+    }
+
+    private static TransferRecord toRecord(Map<String, String> fields) throws IOException {
+        String uuid = fields.get("uuid");
+        String createdAt = fields.get("created_at");
+        if (uuid == null || fields.get("type") == null || createdAt == null) {
+            throw new IOException("Record is missing uuid, type or created_at: " + fields);
+        }
+        try {
+            String active = fields.getOrDefault("active", "0");
+            return new TransferRecord(
+                    UUID.fromString(uuid),
+                    fields.get("username"),
+                    fields.get("type"),
+                    fields.get("issuer_uuid"),
+                    fields.get("reason"),
+                    Long.parseLong(createdAt),
+                    Long.parseLong(fields.getOrDefault("expires_at", "0")),
+                    active.equals("1") || active.equalsIgnoreCase("true"),
+                    fields.get("extra_data"));
+        } catch (IllegalArgumentException e) {
+            throw new IOException("Malformed record: " + fields, e);
+        }
+    }
+
+    private static void writeCsvRow(Writer out, String... values) throws IOException {
+        for (int i = 0; i < values.length; i++) {
+            if (i > 0) {
+                out.write(',');
+            }
+            String value = values[i];
+            if (value == null) {
+                continue;
+            }
+            if (value.indexOf(',') >= 0 || value.indexOf('"') >= 0 || value.indexOf('\n') >= 0
+                    || value.indexOf('\r') >= 0) {
+                out.write('"');
+                out.write(value.replace("\"", "\"\""));
+                out.write('"');
+            } else {
+                out.write(value);
+            }
+        }
+        out.write('\n');
+    }
+
+    // One logical row; quoted fields may contain commas, doubled quotes and line breaks
+    private static List<String> readCsvRow(BufferedReader in) throws IOException {
+        int c = in.read();
+        while (c == '\r' || c == '\n') {
+            c = in.read();
+        }
+        if (c == -1) {
+            return null;
+        }
+
+        List<String> row = new ArrayList<>();
+        StringBuilder field = new StringBuilder();
+        boolean quoted = false;
+        while (c != -1) {
+            if (quoted) {
+                if (c == '"') {
+                    in.mark(1);
+                    int next = in.read();
+                    if (next == '"') {
+                        field.append('"');
+                    } else {
+                        quoted = false;
+                        in.reset();
+                    }
+                } else {
+                    field.append((char) c);
+                }
+            } else if (c == '"') {
+                quoted = true;
+            } else if (c == ',') {
+                row.add(field.toString());
+                field.setLength(0);
+            } else if (c == '\n' || c == '\r') {
+                break;
+            } else {
+                field.append((char) c);
+            }
+            c = in.read();
+        }
+        row.add(field.toString());
+        return row;
+    }
+}
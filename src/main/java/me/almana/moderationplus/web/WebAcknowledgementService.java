@@ -7,7 +7,6 @@ import java.net.URI;
 import java.net.http.HttpClient;
 import java.net.http.HttpRequest;
 import java.net.http.HttpResponse;
-import java.util.concurrent.CompletableFuture;
 import java.util.logging.Level;
 
 public class WebAcknowledgementService {
@@ -31,7 +30,7 @@ public class WebAcknowledgementService {
             return;
         }
 
-        CompletableFuture.runAsync(() -> {
+        plugin.getExecutor().run(() -> {
             try {
                 me.almana.moderationplus.storage.StorageManager.ServerIdentity identity = plugin.getStorageManager()
                         .getOrGenerateServerIdentity();
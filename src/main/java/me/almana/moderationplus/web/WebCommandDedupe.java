@@ -0,0 +1,129 @@
+package me.almana.moderationplus.web;
+
+import com.hypixel.hytale.logger.HytaleLogger;
+import com.hypixel.hytale.server.core.HytaleServer;
+import me.almana.moderationplus.ModerationPlus;
+import me.almana.moderationplus.storage.StorageManager;
+import me.almana.moderationplus.utils.BloomFilter;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.logging.Level;
+
+/**
+ * Decides whether a web command id is new, in front of web_commands_log.
+ * Recent ids are answered from an LRU without touching the database. Anything else waits for the
+ * atomic insert, so a command only runs once its row is durable and a crash cannot replay it.
+ * If that insert fails, the Bloom filter decides: an id it has never seen (on a database no other
+ * server writes to) is certainly new and still runs, anything else is skipped.
+ * The log is pruned past its retention window in small batches, and the filter is rebuilt from
+ * what remains.
+ */
+public class WebCommandDedupe {
+
+    private static final HytaleLogger logger = HytaleLogger.forEnclosingClass();
+    private static final int RECENT_CAPACITY = 1024;
+    private static final int MIN_EXPECTED_IDS = 10_000;
+    private static final double FALSE_POSITIVE_RATE = 0.01;
+    private static final int PRUNE_BATCH_SIZE = 500;
+    private static final long PRUNE_INTERVAL_MINUTES = 60;
+
+    private final ModerationPlus plugin;
+    private final Map<String, Boolean> recent = new LinkedHashMap<>(RECENT_CAPACITY, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, Boolean> eldest) {
+            return size() > RECENT_CAPACITY;
+        }
+    };
+    private final LongAdder memoryHits;
+    private final LongAdder databaseChecks;
+    private BloomFilter filter = new BloomFilter(MIN_EXPECTED_IDS, FALSE_POSITIVE_RATE);
+    private ScheduledFuture<?> pruneTask;
+
+    public WebCommandDedupe(ModerationPlus plugin) {
+        this.plugin = plugin;
+        this.memoryHits = plugin.getMetrics().counter("web.dedupe.memory_hits");
+        this.databaseChecks = plugin.getMetrics().counter("web.dedupe.database_checks");
+    }
+
+    public void start() {
+        rebuildFilter();
+        pruneTask = HytaleServer.SCHEDULED_EXECUTOR.scheduleAtFixedRate(
+                () -> plugin.getExecutor().run(this::prune),
+                PRUNE_INTERVAL_MINUTES, PRUNE_INTERVAL_MINUTES, TimeUnit.MINUTES);
+    }
+
+    public void stop() {
+        if (pruneTask != null) {
+            pruneTask.cancel(false);
+            pruneTask = null;
+        }
+    }
+
+    // True exactly once per command id; every later call for the same id returns false
+    public boolean claim(String commandId) {
+        StorageManager storage = plugin.getStorageManager();
+        boolean provablyNew;
+        synchronized (this) {
+            if (recent.containsKey(commandId)) {
+                memoryHits.increment();
+                return false;
+            }
+            provablyNew = !filter.mightContain(commandId) && !storage.isShared();
+            // Reserve before any I/O so a concurrent poll sees the id straight away
+            recent.put(commandId, Boolean.TRUE);
+            filter.put(commandId);
+        }
+
+        databaseChecks.increment();
+        try {
+            return storage.claimWebCommand(commandId).join();
+        } catch (Exception e) {
+            logger.at(Level.SEVERE).withCause(e).log("Failed to claim web command: %s", commandId);
+            return provablyNew;
+        }
+    }
+
+    private void prune() {
+        long cutoff = System.currentTimeMillis()
+                - TimeUnit.HOURS.toMillis(plugin.getConfigManager().getWebPanelCommandLogRetentionHours());
+        int total = 0;
+        try {
+            int deleted;
+            // Small batches keep each write short so the writer queue never stalls behind the prune
+            do {
+                deleted = plugin.getStorageManager().pruneWebCommands(cutoff, PRUNE_BATCH_SIZE);
+                total += deleted;
+            } while (deleted == PRUNE_BATCH_SIZE);
+        } catch (Exception e) {
+            logger.at(Level.SEVERE).withCause(e).log("Failed to prune web command log");
+        }
+        if (total > 0) {
+            logger.at(Level.INFO).log("Pruned %d web command log entries.", total);
+            rebuildFilter();
+        }
+    }
+
+    // Sized to what the table holds now, so the false positive rate does not creep up over uptime
+    private void rebuildFilter() {
+        List<String> ids = new ArrayList<>();
+        plugin.getStorageManager().loadWebCommandIds(ids::add);
+
+        BloomFilter rebuilt = new BloomFilter(Math.max(MIN_EXPECTED_IDS, ids.size() * 2), FALSE_POSITIVE_RATE);
+        for (String id : ids) {
+            rebuilt.put(id);
+        }
+        synchronized (this) {
+            // Claims made during the load may not have reached the table yet
+            for (String id : recent.keySet()) {
+                rebuilt.put(id);
+            }
+            filter = rebuilt;
+        }
+    }
+}
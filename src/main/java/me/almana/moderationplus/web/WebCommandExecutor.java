@@ -14,10 +14,12 @@ public class WebCommandExecutor {
     private static final HytaleLogger logger = HytaleLogger.forEnclosingClass();
     private final ModerationPlus plugin;
     private final WebAcknowledgementService ackService;
+    private final WebCommandDedupe dedupe;
 
-    public WebCommandExecutor(ModerationPlus plugin, WebAcknowledgementService ackService) {
+    public WebCommandExecutor(ModerationPlus plugin, WebAcknowledgementService ackService, WebCommandDedupe dedupe) {
         this.plugin = plugin;
         this.ackService = ackService;
+        this.dedupe = dedupe;
     }
 
     public void processIntents(List<WebCommandIntent> intents) {
@@ -41,12 +43,12 @@ public class WebCommandExecutor {
             return;
         }
 
-        if (plugin.getStorageManager().hasWebCommandProcessed(intent.id())) {
+        // Check and mark in one step, so a command is only ever run once
+        if (!dedupe.claim(intent.id())) {
             ackService.sendAck(intent.id(), true, "Duplicate: Already processed");
             return;
         }
 
-        plugin.getStorageManager().markWebCommandProcessed(intent.id());
         logger.at(Level.INFO).log("Processing Web Command: %s (Action: %s)", intent.id(), intent.action());
 
         ExecutionContext context = new ExecutionContext(
@@ -24,6 +24,7 @@ public class WebPanelPollingService {
     private final ModerationPlus plugin;
     private final WebCommandExecutor commandExecutor;
     private final WebAcknowledgementService ackService;
+    private final WebCommandDedupe dedupe;
     private final HttpClient httpClient;
     private final Gson gson;
     private ScheduledFuture<?> pollingTask;
@@ -31,7 +32,8 @@ public class WebPanelPollingService {
     public WebPanelPollingService(ModerationPlus plugin) {
         this.plugin = plugin;
         this.ackService = new WebAcknowledgementService(plugin);
-        this.commandExecutor = new WebCommandExecutor(plugin, ackService);
+        this.dedupe = new WebCommandDedupe(plugin);
+        this.commandExecutor = new WebCommandExecutor(plugin, ackService, dedupe);
         this.httpClient = HttpClient.newBuilder()
                 .version(HttpClient.Version.HTTP_2)
                 .connectTimeout(Duration.ofSeconds(10))
@@ -51,6 +53,7 @@ public class WebPanelPollingService {
         }
 
         logger.at(Level.INFO).log("Starting Web Panel polling service (Interval: %ds)...", interval);
+        dedupe.start();
         pollingTask = HytaleServer.SCHEDULED_EXECUTOR.scheduleAtFixedRate(this::poll, interval, interval,
                 TimeUnit.SECONDS);
     }
@@ -61,6 +64,7 @@ public class WebPanelPollingService {
             pollingTask.cancel(false);
             pollingTask = null;
         }
+        dedupe.stop();
     }
 
     private void poll() {
@@ -0,0 +1,61 @@
+package me.almana.moderationplus.core.audit;
+
+import me.almana.moderationplus.api.event.EventPriority;
+import me.almana.moderationplus.api.event.audit.AuditEvent;
+import me.almana.moderationplus.api.event.audit.StaffActionAuditEvent;
+import me.almana.moderationplus.api.event.staff.StaffFreezeEvent;
+import me.almana.moderationplus.core.event.SyncEventBus;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class CoreAuditServiceTest {
+
+    private SyncEventBus bus;
+    // Stands in for the server's main thread
+    private ExecutorService main;
+
+    @BeforeEach
+    void setUp() {
+        bus = new SyncEventBus();
+        main = Executors.newSingleThreadExecutor(runnable -> new Thread(runnable, "test-main"));
+        new CoreAuditService(bus, main).init();
+    }
+
+    @AfterEach
+    void tearDown() {
+        bus.shutdown();
+        main.shutdownNow();
+    }
+
+    @Test
+    void syncAuditListenerRunsOnTheMainThread() throws Exception {
+        CompletableFuture<String> thread = new CompletableFuture<>();
+        bus.register(StaffActionAuditEvent.class, EventPriority.NORMAL,
+                event -> thread.complete(Thread.currentThread().getName()));
+
+        bus.dispatch(new StaffFreezeEvent(UUID.randomUUID(), UUID.randomUUID(), "test"));
+
+        assertEquals("test-main", thread.get(5, TimeUnit.SECONDS));
+    }
+
+    @Test
+    void asyncOnlyAuditListenerStaysOnItsLane() throws Exception {
+        CompletableFuture<String> thread = new CompletableFuture<>();
+        bus.registerAsync(AuditEvent.class, event -> thread.complete(Thread.currentThread().getName()));
+
+        bus.dispatch(new StaffFreezeEvent(UUID.randomUUID(), UUID.randomUUID(), "test"));
+
+        String name = thread.get(5, TimeUnit.SECONDS);
+        assertTrue(name.startsWith("ModerationPlus-Events-"), name);
+    }
+}
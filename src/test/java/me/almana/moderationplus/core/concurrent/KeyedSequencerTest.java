@@ -0,0 +1,96 @@
+package me.almana.moderationplus.core.concurrent;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class KeyedSequencerTest {
+
+    private final KeyedSequencer<String> sequencer = new KeyedSequencer<>();
+
+    @Test
+    void sameKeyActionsRunInSubmissionOrder() throws Exception {
+        List<String> ran = new ArrayList<>();
+        CompletableFuture<String> first = new CompletableFuture<>();
+
+        CompletableFuture<String> a = sequencer.submit("player", () -> {
+            ran.add("a");
+            return first;
+        });
+        CompletableFuture<String> b = sequencer.submit("player", () -> {
+            ran.add("b");
+            return CompletableFuture.completedFuture("b");
+        });
+        CompletableFuture<String> c = sequencer.submit("player", () -> {
+            ran.add("c");
+            return CompletableFuture.completedFuture("c");
+        });
+
+        // b and c wait for a, which has not finished yet
+        assertEquals(List.of("a"), ran);
+        assertFalse(b.isDone());
+
+        first.complete("a");
+
+        assertEquals("c", c.get(5, TimeUnit.SECONDS));
+        assertEquals("a", a.join());
+        assertEquals("b", b.join());
+        assertEquals(List.of("a", "b", "c"), ran);
+    }
+
+    @Test
+    void differentKeysRunConcurrently() throws Exception {
+        CompletableFuture<String> blocked = new CompletableFuture<>();
+        sequencer.submit("one", () -> blocked);
+
+        CompletableFuture<String> other = sequencer.submit("two", () -> CompletableFuture.completedFuture("two"));
+
+        // "two" finishes while "one" is still held open
+        assertEquals("two", other.get(5, TimeUnit.SECONDS));
+        assertFalse(blocked.isDone());
+        blocked.complete("one");
+    }
+
+    @Test
+    void failedActionStillReleasesTheNext() throws Exception {
+        CompletableFuture<String> failing = sequencer.submit("player",
+                () -> CompletableFuture.failedFuture(new IllegalStateException("boom")));
+        CompletableFuture<String> throwing = sequencer.submit("player", () -> {
+            throw new IllegalStateException("thrown");
+        });
+        CompletableFuture<String> next = sequencer.submit("player", () -> CompletableFuture.completedFuture("next"));
+
+        assertEquals("next", next.get(5, TimeUnit.SECONDS));
+        assertThrows(CompletionException.class, failing::join);
+        assertThrows(CompletionException.class, throwing::join);
+    }
+
+    @Test
+    void entryIsRemovedAfterTheLastAction() throws Exception {
+        CompletableFuture<String> first = new CompletableFuture<>();
+        CompletableFuture<String> second = new CompletableFuture<>();
+        CompletableFuture<String> a = sequencer.submit("player", () -> first);
+        CompletableFuture<String> b = sequencer.submit("player", () -> second);
+        sequencer.submit("other", () -> CompletableFuture.completedFuture("done")).get(5, TimeUnit.SECONDS);
+        assertEquals(1, sequencer.size());
+
+        first.complete("a");
+        a.get(5, TimeUnit.SECONDS);
+        // b is still running, so the key stays
+        assertEquals(1, sequencer.size());
+
+        second.complete("b");
+        b.get(5, TimeUnit.SECONDS);
+        assertEquals(0, sequencer.size());
+        assertTrue(b.isDone());
+    }
+}
@@ -0,0 +1,205 @@
+package me.almana.moderationplus.core.event;
+
+import me.almana.moderationplus.api.event.EventPriority;
+import me.almana.moderationplus.api.event.ModEvent;
+import me.almana.moderationplus.api.event.Subscribe;
+import me.almana.moderationplus.api.event.chat.StaffChatEvent;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import javax.tools.JavaCompiler;
+import javax.tools.ToolProvider;
+import java.io.IOException;
+import java.lang.invoke.MethodHandles;
+import java.net.URISyntaxException;
+import java.net.URLClassLoader;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class SyncEventBusTest {
+
+    // Compiled at test time so it exists only in its own class loader, like another plugin's listener
+    private static final String EXTERNAL_LISTENER = """
+            package external;
+
+            import java.lang.invoke.MethodHandles;
+            import java.util.ArrayList;
+            import java.util.List;
+            import me.almana.moderationplus.api.event.Subscribe;
+            import me.almana.moderationplus.api.event.chat.StaffChatEvent;
+
+            public class ExternalListener {
+                public final List<String> seen = new ArrayList<>();
+
+                public static MethodHandles.Lookup lookup() {
+                    return MethodHandles.lookup();
+                }
+
+                @Subscribe
+                private void onChat(StaffChatEvent event) {
+                    seen.add(event.getMessage());
+                }
+            }
+            """;
+
+    @TempDir
+    Path dir;
+
+    private SyncEventBus bus;
+    private URLClassLoader loader;
+
+    @BeforeEach
+    void setUp() {
+        bus = new SyncEventBus();
+    }
+
+    @AfterEach
+    void tearDown() throws IOException {
+        bus.shutdown();
+        if (loader != null) {
+            loader.close();
+        }
+    }
+
+    @Test
+    void subscribesListenerFromAnotherClassLoader() throws Exception {
+        Object listener = externalListener();
+
+        bus.subscribe(listener);
+        bus.dispatch(chat("hello"));
+
+        assertEquals(List.of("hello"), seen(listener));
+    }
+
+    @Test
+    void subscribesListenerFromAnotherClassLoaderWithItsOwnLookup() throws Exception {
+        Object listener = externalListener();
+        MethodHandles.Lookup lookup = (MethodHandles.Lookup) listener.getClass().getMethod("lookup").invoke(null);
+
+        bus.subscribe(listener, lookup);
+        bus.dispatch(chat("hello"));
+        bus.unsubscribe(listener);
+        bus.dispatch(chat("ignored"));
+
+        assertEquals(List.of("hello"), seen(listener));
+    }
+
+    @Test
+    void callsPrivateStaticAndOverridingMethods() {
+        Child listener = new Child();
+        Parent.statics.clear();
+
+        bus.subscribe(listener);
+        bus.dispatch(chat("hello"));
+
+        assertEquals(List.of("child hello", "private hello"), listener.seen);
+        assertEquals(List.of("static hello"), Parent.statics);
+    }
+
+    @Test
+    void fullAsyncLaneDropsInsteadOfRunningInline() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        Set<String> threads = ConcurrentHashMap.newKeySet();
+        bus.registerAsync(StaffChatEvent.class, event -> {
+            threads.add(Thread.currentThread().getName());
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        });
+
+        // One event blocks the lane's thread and 4096 fill its queue; the rest have nowhere to go
+        for (int i = 0; i < 4100; i++) {
+            bus.dispatch(chat("flood " + i));
+        }
+        release.countDown();
+
+        assertTrue(bus.droppedAsyncEvents() > 0);
+        assertFalse(threads.contains(Thread.currentThread().getName()), "async listener ran on the dispatcher");
+    }
+
+    @Test
+    void dispatchAfterShutdownIsDroppedQuietly() {
+        bus.registerAsync(StaffChatEvent.class, event -> {
+            throw new AssertionError("async listener ran after shutdown");
+        });
+        bus.shutdown();
+
+        bus.dispatch(chat("late"));
+
+        assertEquals(0, bus.droppedAsyncEvents());
+    }
+
+    static class Parent {
+        static final List<String> statics = new ArrayList<>();
+        final List<String> seen = new ArrayList<>();
+
+        @Subscribe(priority = EventPriority.LOW)
+        void onChat(StaffChatEvent event) {
+            seen.add("parent " + event.getMessage());
+        }
+
+        @Subscribe
+        private static void onChatStatic(StaffChatEvent event) {
+            statics.add("static " + event.getMessage());
+        }
+    }
+
+    static class Child extends Parent {
+        @Override
+        @Subscribe(priority = EventPriority.LOW)
+        void onChat(StaffChatEvent event) {
+            seen.add("child " + event.getMessage());
+        }
+
+        @Subscribe(priority = EventPriority.HIGH)
+        private void onChatPrivate(StaffChatEvent event) {
+            seen.add("private " + event.getMessage());
+        }
+    }
+
+    private Object externalListener() throws Exception {
+        Path source = dir.resolve("src/external/ExternalListener.java");
+        Files.createDirectories(source.getParent());
+        Files.writeString(source, EXTERNAL_LISTENER);
+        Path classes = Files.createDirectories(dir.resolve("classes"));
+
+        JavaCompiler javac = ToolProvider.getSystemJavaCompiler();
+        int status = javac.run(null, null, null, "-d", classes.toString(),
+                "-cp", locationOf(ModEvent.class).toString(), source.toString());
+        assertEquals(0, status, "listener source did not compile");
+
+        loader = new URLClassLoader(new java.net.URL[] { classes.toUri().toURL() },
+                SyncEventBusTest.class.getClassLoader());
+        Class<?> type = loader.loadClass("external.ExternalListener");
+        assertNotSame(SyncEventBusTest.class.getClassLoader(), type.getClassLoader());
+        return type.getConstructor().newInstance();
+    }
+
+    @SuppressWarnings("unchecked")
+    private static List<String> seen(Object listener) throws ReflectiveOperationException {
+        return (List<String>) listener.getClass().getField("seen").get(listener);
+    }
+
+    private static StaffChatEvent chat(String message) {
+        return new StaffChatEvent(UUID.randomUUID(), null, message);
+    }
+
+    private static Path locationOf(Class<?> type) throws URISyntaxException {
+        return Path.of(type.getProtectionDomain().getCodeSource().getLocation().toURI());
+    }
+}
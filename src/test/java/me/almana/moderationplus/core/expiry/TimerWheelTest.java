@@ -0,0 +1,102 @@
+package me.almana.moderationplus.core.expiry;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class TimerWheelTest {
+
+    private static final long LEVEL_1 = 64;
+    private static final long LEVEL_2 = 64 * 64;
+    private static final long LEVEL_3 = 64 * 64 * 64;
+    private static final long OVERFLOW = 64L * 64 * 64 * 64;
+
+    @Test
+    void everyDeadlineFiresOnceOnItsOwnTickFromAlignedStart() {
+        assertFiresExactlyOnTime(0);
+    }
+
+    @Test
+    void everyDeadlineFiresOnceOnItsOwnTickFromUnalignedStart() {
+        // Mid-slot at every level, so higher-level slots are placed relative to a partial digit
+        assertFiresExactlyOnTime(LEVEL_3 + 2 * LEVEL_2 + 2 * LEVEL_1 + 2);
+    }
+
+    @Test
+    void deadlineInTheSlotAlreadyVisitedAtItsLevel() {
+        long start = 2 * LEVEL_1 + 2;
+        TimerWheel<String> wheel = new TimerWheel<>(1, start);
+        // Same level-1 digit as the current tick, one full level-1 turn ahead
+        long level1 = (start & ~(LEVEL_1 - 1)) + LEVEL_2;
+        // Same level-2 digit as the current tick, one full level-2 turn ahead
+        long level2 = (start & ~(LEVEL_2 - 1)) + LEVEL_3;
+        wheel.schedule(level1, "level1");
+        wheel.schedule(level2, "level2");
+
+        assertTrue(wheel.advance(level1 - 1).isEmpty());
+        assertEquals(List.of("level1"), wheel.advance(level1));
+        assertTrue(wheel.advance(level2 - 1).isEmpty());
+        assertEquals(List.of("level2"), wheel.advance(level2));
+        assertEquals(0, wheel.size());
+    }
+
+    @Test
+    void pastDeadlinesFireOnTheNextAdvance() {
+        TimerWheel<String> wheel = new TimerWheel<>(1, 1_000);
+        wheel.schedule(999, "just missed");
+        wheel.schedule(0, "long gone");
+        wheel.schedule(1_000, "now");
+
+        assertEquals(List.of("just missed", "long gone", "now"), wheel.advance(1_000));
+        assertTrue(wheel.advance(1_000).isEmpty());
+        assertEquals(0, wheel.size());
+    }
+
+    @Test
+    void deadlinesBetweenTicksRoundUp() {
+        TimerWheel<String> wheel = new TimerWheel<>(1_000, 0);
+        wheel.schedule(1_001, "item");
+
+        assertTrue(wheel.advance(1_999).isEmpty());
+        assertEquals(List.of("item"), wheel.advance(2_000));
+    }
+
+    // Schedules one item per interesting offset and walks the wheel a tick at a time past the last
+    private static void assertFiresExactlyOnTime(long start) {
+        long[] offsets = {
+                0, 1, 63, 64, 65, 4095, 4096, 4097,
+                LEVEL_3 - 1, LEVEL_3, LEVEL_3 + 1,
+                OVERFLOW - 1, OVERFLOW, OVERFLOW + LEVEL_3 + 5,
+        };
+        TimerWheel<Long> wheel = new TimerWheel<>(1, start);
+        for (long offset : offsets) {
+            wheel.schedule(start + offset, start + offset);
+        }
+
+        Map<Long, Long> firedAt = new HashMap<>();
+        long end = start + offsets[offsets.length - 1];
+        for (long now = start; now <= end; now++) {
+            for (Long deadline : wheel.advance(now)) {
+                assertNull(firedAt.put(deadline, now), "fired twice: " + deadline);
+            }
+        }
+
+        List<Long> late = new ArrayList<>();
+        for (long offset : offsets) {
+            long deadline = start + offset;
+            // Stepping one tick at a time, anything but the deadline tick is early or late
+            if (!Long.valueOf(deadline).equals(firedAt.get(deadline))) {
+                late.add(offset);
+            }
+        }
+        assertEquals(List.of(), late, "offsets that did not fire on their tick");
+        assertEquals(0, wheel.size());
+    }
+}
@@ -0,0 +1,45 @@
+package me.almana.moderationplus.storage;
+
+import org.testcontainers.containers.JdbcDatabaseContainer;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.Statement;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Runs the contract against real MySQL and PostgreSQL servers. Each test gets its own database on
+ * a container shared by the subclass, which is skipped when no Docker daemon is available.
+ */
+abstract class ContainerStorageContractTest extends StorageContractTest {
+
+    private static final AtomicInteger DATABASES = new AtomicInteger();
+
+    private String database;
+
+    protected abstract JdbcDatabaseContainer<?> container();
+
+    protected abstract SqlDialect dialect();
+
+    protected abstract int port();
+
+    @Override
+    protected StorageBackend newBackend() throws Exception {
+        database = "contract_" + DATABASES.incrementAndGet();
+        JdbcDatabaseContainer<?> container = container();
+        try (Connection connection = DriverManager.getConnection(container.getJdbcUrl(),
+                container.getUsername(), container.getPassword());
+                Statement stmt = connection.createStatement()) {
+            stmt.execute("CREATE DATABASE " + database);
+        }
+        return reopen();
+    }
+
+    @Override
+    protected StorageBackend reopen() {
+        JdbcDatabaseContainer<?> container = container();
+        return new JdbcConnectionPool(dialect(), new JdbcConnectionPool.Settings(container.getHost(),
+                container.getMappedPort(port()), database, container.getUsername(), container.getPassword(),
+                4, 64, 1000, 16, 0));
+    }
+}
@@ -0,0 +1,27 @@
+package me.almana.moderationplus.storage;
+
+import java.util.UUID;
+
+/**
+ * Runs the MySQL dialect through {@link JdbcConnectionPool} against an in-memory H2 database in
+ * MySQL mode. MySQL has no RETURNING, so this covers the SELECT ... FOR UPDATE expiry branch and
+ * the INSERT IGNORE / ON DUPLICATE KEY upserts without needing a server.
+ */
+class H2MySqlStorageContractTest extends StorageContractTest {
+
+    private String url;
+
+    @Override
+    protected StorageBackend newBackend() {
+        // DB_CLOSE_DELAY keeps the database alive between pools, so reopen() sees the same tables
+        url = "jdbc:h2:mem:" + UUID.randomUUID() + ";MODE=MySQL;DATABASE_TO_LOWER=TRUE;"
+                + "CASE_INSENSITIVE_IDENTIFIERS=TRUE;IGNORECASE=TRUE;DB_CLOSE_DELAY=-1";
+        return reopen();
+    }
+
+    @Override
+    protected StorageBackend reopen() {
+        return new JdbcConnectionPool(SqlDialect.MYSQL,
+                new JdbcConnectionPool.Settings("localhost", 3306, "moderation", "sa", "", 4, 64, 1000, 16, 0), url);
+    }
+}
@@ -0,0 +1,29 @@
+package me.almana.moderationplus.storage;
+
+import org.testcontainers.containers.JdbcDatabaseContainer;
+import org.testcontainers.containers.MySQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+@Testcontainers(disabledWithoutDocker = true)
+class MySqlContainerStorageContractTest extends ContainerStorageContractTest {
+
+    // root so each test can create its own database
+    @Container
+    static final MySQLContainer<?> MYSQL = new MySQLContainer<>("mysql:8.4").withUsername("root");
+
+    @Override
+    protected JdbcDatabaseContainer<?> container() {
+        return MYSQL;
+    }
+
+    @Override
+    protected SqlDialect dialect() {
+        return SqlDialect.MYSQL;
+    }
+
+    @Override
+    protected int port() {
+        return MySQLContainer.MYSQL_PORT;
+    }
+}
@@ -0,0 +1,28 @@
+package me.almana.moderationplus.storage;
+
+import org.testcontainers.containers.JdbcDatabaseContainer;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+@Testcontainers(disabledWithoutDocker = true)
+class PostgresContainerStorageContractTest extends ContainerStorageContractTest {
+
+    @Container
+    static final PostgreSQLContainer<?> POSTGRES = new PostgreSQLContainer<>("postgres:16-alpine");
+
+    @Override
+    protected JdbcDatabaseContainer<?> container() {
+        return POSTGRES;
+    }
+
+    @Override
+    protected SqlDialect dialect() {
+        return SqlDialect.POSTGRESQL;
+    }
+
+    @Override
+    protected int port() {
+        return PostgreSQLContainer.POSTGRESQL_PORT;
+    }
+}
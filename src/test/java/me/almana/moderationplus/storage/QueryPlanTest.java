@@ -0,0 +1,127 @@
+package me.almana.moderationplus.storage;
+
+import me.almana.moderationplus.core.metrics.MetricsRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Runs every migration on a fresh SQLite file and checks with EXPLAIN QUERY PLAN that the hot
+ * queries are served by their indexes. A plan line starting with SCAN means a full table walk.
+ */
+class QueryPlanTest {
+
+    @TempDir
+    Path dir;
+
+    private SqliteConnectionPool pool;
+
+    @BeforeEach
+    void migrate() {
+        pool = new SqliteConnectionPool("jdbc:sqlite:" + dir.resolve("moderation.db"),
+                new SqliteConnectionPool.Settings("WAL", "NORMAL", 5000, -2000, 0, 2, 64, 1000, 16, 0,
+                        3600, 3600, 1000, 1 << 20));
+        new StorageManager(pool, new MetricsRegistry()).init();
+    }
+
+    @AfterEach
+    void close() {
+        pool.close();
+    }
+
+    @Test
+    void activeByPlayerUsesPlayerActiveTypeIndex() throws SQLException {
+        List<String> plan = plan(StorageManager.PUNISHMENTS_ACTIVE_BY_TYPE);
+        assertUses(plan, "SEARCH p USING INDEX idx_punishments_player_active_type");
+        assertNoScan(plan);
+    }
+
+    @Test
+    void historyFirstPageWalksBothCreatedIndexes() throws SQLException {
+        List<String> plan = plan(StorageManager.PUNISHMENTS_PAGE_FIRST);
+        assertUses(plan, "SEARCH punishments USING INDEX idx_punishments_player_created");
+        assertUses(plan, "SEARCH punishments_archive USING INDEX idx_punishments_archive_player_created");
+        assertNoScan(plan);
+        assertNoSort(plan);
+    }
+
+    @Test
+    void historyKeysetPageSeeksPastTheCursor() throws SQLException {
+        List<String> plan = plan(StorageManager.PUNISHMENTS_PAGE_AFTER);
+        assertUses(plan, "SEARCH punishments USING INDEX idx_punishments_player_created (player_id=? AND created_at<?)");
+        assertUses(plan, "SEARCH punishments_archive USING INDEX idx_punishments_archive_player_created (player_id=? AND created_at<?)");
+        assertNoScan(plan);
+        assertNoSort(plan);
+    }
+
+    @Test
+    void notesKeysetPageUsesPlayerCreatedIndex() throws SQLException {
+        List<String> plan = plan(StorageManager.NOTES_PAGE_AFTER);
+        assertUses(plan, "SEARCH staff_notes USING INDEX idx_staff_notes_player_created");
+        assertNoScan(plan);
+    }
+
+    @Test
+    void usernameLookupUsesNocaseIndex() throws SQLException {
+        List<String> plan = plan("SELECT uuid, username FROM players WHERE " + SqlDialect.SQLITE.usernameMatch());
+        assertUses(plan, "SEARCH players USING INDEX idx_players_username_nocase");
+        assertNoScan(plan);
+    }
+
+    @Test
+    void webCommandClaimProbesPrimaryKey() throws SQLException {
+        // INSERT OR IGNORE has no plan of its own; its conflict check is this primary key probe
+        List<String> plan = plan("SELECT 1 FROM web_commands_log WHERE id = ?");
+        assertUses(plan, "SEARCH web_commands_log USING COVERING INDEX sqlite_autoindex_web_commands_log_1");
+        assertNoScan(plan(SqlDialect.SQLITE.insertIgnore("web_commands_log", "id, processed_at", 2)));
+    }
+
+    @Test
+    void webCommandPruneUsesProcessedIndex() throws SQLException {
+        List<String> plan = plan(SqlDialect.SQLITE.limitedDelete("web_commands_log", "id", "processed_at < ?", 500));
+        assertUses(plan, "SEARCH web_commands_log USING INDEX idx_web_commands_processed");
+        assertNoScan(plan);
+    }
+
+    private List<String> plan(String sql) throws SQLException {
+        return pool.read(connection -> {
+            List<String> details = new ArrayList<>();
+            try (PreparedStatement stmt = connection.prepareStatement("EXPLAIN QUERY PLAN " + sql)) {
+                int params = stmt.getParameterMetaData().getParameterCount();
+                for (int i = 1; i <= params; i++) {
+                    stmt.setInt(i, 1);
+                }
+                try (ResultSet rs = stmt.executeQuery()) {
+                    while (rs.next()) {
+                        details.add(rs.getString("detail"));
+                    }
+                }
+            }
+            return details;
+        });
+    }
+
+    private static void assertUses(List<String> plan, String step) {
+        assertTrue(plan.stream().anyMatch(line -> line.startsWith(step)), () -> "Expected " + step + " in " + plan);
+    }
+
+    private static void assertNoScan(List<String> plan) {
+        assertFalse(plan.stream().anyMatch(line -> line.startsWith("SCAN")), () -> "Full scan in " + plan);
+    }
+
+    // Keyset pages must come out of the index already ordered
+    private static void assertNoSort(List<String> plan) {
+        assertFalse(plan.stream().anyMatch(line -> line.contains("TEMP B-TREE")), () -> "Sort step in " + plan);
+    }
+}
@@ -0,0 +1,23 @@
+package me.almana.moderationplus.storage;
+
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+
+class SqliteStorageContractTest extends StorageContractTest {
+
+    @TempDir
+    Path dir;
+
+    @Override
+    protected StorageBackend newBackend() {
+        return reopen();
+    }
+
+    @Override
+    protected StorageBackend reopen() {
+        return new SqliteConnectionPool("jdbc:sqlite:" + dir.resolve("moderation.db"),
+                new SqliteConnectionPool.Settings("WAL", "NORMAL", 5000, -2000, 0, 2, 64, 1000, 16, 0,
+                        3600, 3600, 1000, 1 << 20));
+    }
+}
@@ -0,0 +1,233 @@
+package me.almana.moderationplus.storage;
+
+import me.almana.moderationplus.core.metrics.MetricsRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Behaviour every {@link StorageBackend} must share, run through {@link StorageManager} so the
+ * dialect-specific SQL is exercised for real. Each subclass supplies a fresh, empty database.
+ */
+abstract class StorageContractTest {
+
+    private static final String ISSUER = UUID.randomUUID().toString();
+
+    protected StorageManager storage;
+
+    // A backend over an empty database; called once per test
+    protected abstract StorageBackend newBackend() throws Exception;
+
+    @BeforeEach
+    void migrate() throws Exception {
+        storage = new StorageManager(newBackend(), new MetricsRegistry());
+        storage.init();
+    }
+
+    @AfterEach
+    void close() {
+        storage.close();
+    }
+
+    @Test
+    void upsertKeepsOnePlayerRowAndRefreshesTheName() throws SQLException {
+        UUID uuid = UUID.randomUUID();
+        StorageManager.PlayerData first = storage.getOrCreatePlayer(uuid, "Steve");
+        StorageManager.PlayerData second = storage.getOrCreatePlayer(uuid, "Alex");
+
+        assertEquals(first.id(), second.id());
+        assertEquals("Alex", storage.getPlayerByUUID(uuid).username());
+        assertEquals(first.id(), storage.getOrCreatePlayerId(uuid, "Alex"));
+    }
+
+    @Test
+    void usernameLookupIgnoresCase() {
+        UUID uuid = UUID.randomUUID();
+        storage.getOrCreatePlayer(uuid, "MixedCase");
+
+        assertEquals(uuid, storage.getUuidByUsername("mixedcase"));
+        assertNull(storage.getUuidByUsername("nobody"));
+    }
+
+    @Test
+    void createdPunishmentIsActiveInTableAndIndex() throws SQLException {
+        UUID uuid = UUID.randomUUID();
+        int playerId = storage.getOrCreatePlayerId(uuid, "Target");
+        storage.createPunishment(punishment(playerId, "BAN", 1_000, 0, true));
+
+        List<Punishment> bans = storage.getActivePunishmentsByType(playerId, "BAN");
+        assertEquals(1, bans.size());
+        assertEquals("reason 1000", bans.get(0).reason());
+        assertTrue(storage.getActivePunishmentIndex().hasActive(uuid, "BAN"));
+        assertTrue(storage.getActivePunishmentsByType(playerId, "MUTE").isEmpty());
+    }
+
+    @Test
+    void deactivationReachesTableAndIndex() throws SQLException {
+        UUID uuid = UUID.randomUUID();
+        int playerId = storage.getOrCreatePlayerId(uuid, "Target");
+        storage.createPunishment(punishment(playerId, "BAN", 1_000, 0, true));
+        storage.insertPunishment(punishment(playerId, "MUTE", 2_000, 0, true));
+        storage.insertPunishment(punishment(playerId, "MUTE", 3_000, 0, true));
+
+        storage.deactivatePunishment(storage.getActivePunishmentsByType(playerId, "BAN").get(0).id());
+        assertEquals(2, storage.deactivatePunishmentsByType(playerId, "MUTE"));
+
+        assertTrue(storage.getActivePunishments(playerId).isEmpty());
+        assertFalse(storage.getActivePunishmentIndex().hasAny(uuid));
+        assertEquals(3, storage.countPunishments(playerId));
+    }
+
+    @Test
+    void expiryReturnsOnlyRowsThatWereStillActive() throws Exception {
+        UUID uuid = UUID.randomUUID();
+        int playerId = storage.getOrCreatePlayerId(uuid, "Target");
+        storage.createPunishment(punishment(playerId, "MUTE", 1_000, 5_000, true));
+        storage.createPunishment(punishment(playerId, "BAN", 2_000, 6_000, true));
+        List<Integer> ids = storage.getActivePunishments(playerId).stream().map(Punishment::id).toList();
+        storage.deactivatePunishment(ids.get(0));
+
+        List<Integer> expired = storage.expirePunishments(ids).get(10, TimeUnit.SECONDS);
+        assertEquals(List.of(ids.get(1)), expired);
+        assertTrue(storage.expirePunishments(ids).get(10, TimeUnit.SECONDS).isEmpty());
+        assertFalse(storage.getActivePunishmentIndex().hasAny(uuid));
+    }
+
+    @Test
+    void webCommandIsClaimedExactlyOnce() throws Exception {
+        assertTrue(storage.claimWebCommand("cmd-1").get(10, TimeUnit.SECONDS));
+        assertFalse(storage.claimWebCommand("cmd-1").get(10, TimeUnit.SECONDS));
+
+        List<String> ids = new ArrayList<>();
+        storage.loadWebCommandIds(ids::add);
+        assertEquals(List.of("cmd-1"), ids);
+    }
+
+    @Test
+    void pruneDeletesOldCommandsInBatches() throws Exception {
+        for (int i = 0; i < 5; i++) {
+            storage.claimWebCommand("old-" + i).get(10, TimeUnit.SECONDS);
+        }
+        long cutoff = System.currentTimeMillis() + 60_000;
+
+        assertEquals(2, storage.pruneWebCommands(cutoff, 2));
+        assertEquals(2, storage.pruneWebCommands(cutoff, 2));
+        assertEquals(1, storage.pruneWebCommands(cutoff, 2));
+        assertEquals(0, storage.pruneWebCommands(cutoff, 2));
+    }
+
+    @Test
+    void historyPagesWalkLiveAndArchivedRowsNewestFirst() throws SQLException {
+        int playerId = storage.getOrCreatePlayerId(UUID.randomUUID(), "Target");
+        for (int i = 1; i <= 7; i++) {
+            storage.createPunishment(punishment(playerId, "WARN", i * 1_000L, 0, i > 3));
+        }
+        // The three oldest are inactive, so they move to the archive
+        assertEquals(3, storage.archivePunishments(3_500, 100));
+
+        List<Long> seen = new ArrayList<>();
+        Page.Cursor cursor = null;
+        do {
+            Page<Punishment> page = storage.getPunishmentPage(playerId, cursor, 3);
+            page.items().forEach(p -> seen.add(p.createdAt()));
+            cursor = page.next();
+        } while (cursor != null);
+
+        assertEquals(List.of(7_000L, 6_000L, 5_000L, 4_000L, 3_000L, 2_000L, 1_000L), seen);
+        assertEquals(7, storage.countPunishments(playerId));
+        assertEquals(new Page.Cursor(5_000, storage.getPunishmentPage(playerId, null, 3).items().get(2).id()),
+                storage.findPunishmentCursor(playerId, 3));
+    }
+
+    @Test
+    void staffNotesPageNewestFirst() throws SQLException {
+        int playerId = storage.getOrCreatePlayerId(UUID.randomUUID(), "Target");
+        for (int i = 1; i <= 4; i++) {
+            storage.createStaffNote(new StaffNote(0, playerId, ISSUER, "note " + i, i * 1_000L));
+        }
+
+        Page<StaffNote> first = storage.getStaffNotePage(playerId, null, 3);
+        Page<StaffNote> second = storage.getStaffNotePage(playerId, first.next(), 3);
+
+        assertEquals(List.of("note 4", "note 3", "note 2"), first.items().stream().map(StaffNote::message).toList());
+        assertEquals(List.of("note 1"), second.items().stream().map(StaffNote::message).toList());
+        assertNull(second.next());
+        assertEquals(4, storage.countStaffNotes(playerId));
+    }
+
+    @Test
+    void importThenExportRoundTrips() throws SQLException {
+        UUID known = UUID.randomUUID();
+        UUID unknown = UUID.randomUUID();
+        storage.getOrCreatePlayer(known, "Known");
+        List<TransferRecord> records = List.of(
+                new TransferRecord(known, "Known", "BAN", ISSUER, "imported ban", 1_000, 0, true, "{}"),
+                new TransferRecord(unknown, "Fresh", "mute", ISSUER, "imported mute", 2_000, 9_000, false, null),
+                new TransferRecord(unknown, "Fresh", "NOT_A_TYPE", ISSUER, "skipped", 3_000, 0, false, null));
+
+        assertEquals(2, storage.importPunishments(records));
+        storage.syncActivePunishments();
+        assertTrue(storage.getActivePunishmentIndex().hasActive(known, "BAN"));
+
+        List<TransferRecord> exported = new ArrayList<>();
+        Iterator<TransferRecord> it = storage.iterateAllPunishments(1);
+        it.forEachRemaining(exported::add);
+        assertEquals(2, exported.size());
+        assertEquals("Known", exported.get(0).username());
+        assertEquals("MUTE", exported.get(1).type());
+        assertEquals(9_000, exported.get(1).expiresAt());
+        assertEquals("Fresh", storage.getPlayerByUUID(unknown).username());
+    }
+
+    @Test
+    void serverIdentityIsGeneratedOnce() throws SQLException {
+        StorageManager.ServerIdentity identity = storage.getOrGenerateServerIdentity();
+
+        assertNotNull(identity.serverId());
+        assertEquals(identity, storage.getOrGenerateServerIdentity());
+        String token = storage.getOrGenerateClaimToken();
+        assertEquals(token, storage.getOrGenerateClaimToken());
+        assertTrue(storage.completeClaim(token));
+        assertFalse(storage.completeClaim(token));
+        assertNull(storage.getOrGenerateClaimToken());
+    }
+
+    @Test
+    void localeIsStoredPerPlayer() {
+        UUID uuid = UUID.randomUUID();
+        storage.getOrCreatePlayer(uuid, "Target");
+        assertTrue(storage.getPlayerLocale(uuid).isEmpty());
+
+        storage.setPlayerLocale(uuid, "de_DE");
+        assertEquals("de_DE", storage.getPlayerLocale(uuid).orElseThrow());
+    }
+
+    @Test
+    void migrationsAreIdempotent() throws Exception {
+        storage.close();
+        storage = new StorageManager(reopen(), new MetricsRegistry());
+        storage.init();
+
+        assertNotNull(storage.getOrGenerateServerIdentity());
+    }
+
+    // A second backend over the database the current test has been using
+    protected abstract StorageBackend reopen() throws Exception;
+
+    private static Punishment punishment(int playerId, String type, long createdAt, long expiresAt, boolean active) {
+        return new Punishment(0, playerId, type, ISSUER, "reason " + createdAt, createdAt, expiresAt, active, "{}");
+    }
+}
@@ -0,0 +1,119 @@
+package me.almana.moderationplus.storage;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class WriteQueueTest {
+
+    @TempDir
+    Path dir;
+
+    private Connection connection;
+    private WriteQueue queue;
+
+    @BeforeEach
+    void open() throws SQLException {
+        connection = DriverManager.getConnection("jdbc:sqlite:" + dir.resolve("queue.db"));
+        try (Statement stmt = connection.createStatement()) {
+            stmt.execute("PRAGMA foreign_keys = ON");
+            stmt.execute("CREATE TABLE parent (id INTEGER PRIMARY KEY)");
+            // Checked at COMMIT rather than per statement, so a bad row sinks the whole batch
+            stmt.execute("CREATE TABLE child (id INTEGER PRIMARY KEY, parent_id INTEGER NOT NULL "
+                    + "REFERENCES parent(id) DEFERRABLE INITIALLY DEFERRED)");
+        }
+        queue = new WriteQueue("WriteQueueTest-Writer", new WriteQueue.ConnectionSource() {
+            @Override
+            public Connection acquire() {
+                return connection;
+            }
+
+            @Override
+            public void release(Connection connection) {
+            }
+        }, 16, 1000, 16, 20);
+        queue.start();
+    }
+
+    @AfterEach
+    void close() throws SQLException {
+        queue.close();
+        connection.close();
+    }
+
+    @Test
+    void afterCommitRunsBeforeTheFutureCompletes() throws Exception {
+        AtomicBoolean applied = new AtomicBoolean();
+        CompletableFuture<Boolean> future = queue.submit(c -> {
+            insert(c, "INSERT INTO parent (id) VALUES (1)");
+            queue.afterCommit(() -> applied.set(true));
+            return applied.get();
+        });
+
+        assertFalse(future.get(5, TimeUnit.SECONDS), "after-commit action ran inside the transaction");
+        assertTrue(applied.get());
+    }
+
+    @Test
+    void failedCommitDropsAfterCommitActions() {
+        AtomicBoolean applied = new AtomicBoolean();
+        CompletableFuture<Void> future = queue.submit(c -> {
+            insert(c, "INSERT INTO child (id, parent_id) VALUES (1, 42)");
+            queue.afterCommit(() -> applied.set(true));
+            return null;
+        });
+
+        assertThrows(ExecutionException.class, () -> future.get(5, TimeUnit.SECONDS));
+        assertFalse(applied.get(), "after-commit action ran for a rolled-back batch");
+    }
+
+    @Test
+    void failedOperationDropsOnlyItsOwnActions() throws Exception {
+        AtomicBoolean good = new AtomicBoolean();
+        AtomicBoolean bad = new AtomicBoolean();
+        CompletableFuture<Void> first = queue.submit(c -> {
+            insert(c, "INSERT INTO parent (id) VALUES (1)");
+            queue.afterCommit(() -> good.set(true));
+            return null;
+        });
+        CompletableFuture<Void> second = queue.submit(c -> {
+            queue.afterCommit(() -> bad.set(true));
+            insert(c, "INSERT INTO parent (id) VALUES (1)");
+            return null;
+        });
+
+        first.get(5, TimeUnit.SECONDS);
+        assertThrows(ExecutionException.class, () -> second.get(5, TimeUnit.SECONDS));
+        assertTrue(good.get());
+        assertFalse(bad.get(), "after-commit action ran for an operation rolled back to its savepoint");
+    }
+
+    @Test
+    void afterCommitOutsideTheWriterRunsImmediately() {
+        AtomicBoolean applied = new AtomicBoolean();
+        queue.afterCommit(() -> applied.set(true));
+        assertTrue(applied.get());
+    }
+
+    private static void insert(Connection connection, String sql) throws SQLException {
+        try (Statement stmt = connection.createStatement()) {
+            assertEquals(1, stmt.executeUpdate(sql));
+        }
+    }
+}